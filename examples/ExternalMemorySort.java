@@ -26,13 +26,17 @@ import java.util.List;
 
 import itertools.Itertools;
 import itertools.functions.Files;
+import itertools.io.Codecs;
+import itertools.io.RunWriter;
 import itertools.iterator.EnumeratingIterator;
 import itertools.iterator.FileLineIterator;
 
 /**
  * JavaItertools example showing a external-memory sorting routine. Shows the
  * direct usage of an iterator decorator {@link EnumeratingIterator} (1) as well
- * as file merging via {@link Itertools#merge(Iterable)} (2).
+ * as file merging via {@link Itertools#merge(Iterable)} (2). Temporary files
+ * are written with a {@link RunWriter}, which prefix-compresses the sorted
+ * lines and compresses each block (3).
  * 
  * Note: this is not intended to be a high-performance or flexible sorting
  * routine:
@@ -107,7 +111,7 @@ public class ExternalMemorySort {
     // Merge all the sorted temporary files.
     // (2) This first maps the file names to iterators over their lines, then
     // wraps those iterators in a Merging iterator
-    for (String line : merge(map(tempFiles, Files.OPEN))) {
+    for (String line : merge(map(tempFiles, Files.openRun(Codecs.STRING)))) {
       out.write(line);
       out.newLine();
     }
@@ -121,13 +125,13 @@ public class ExternalMemorySort {
    */
   private String sortAndDumpToTmpFile(String[] data, int endIndex)
       throws IOException {
-    Arrays.sort(data, 0, endIndex + 1);
+    Arrays.sort(data, 0, endIndex);
     File f = File.createTempFile(this.getClass().getName(), ".tmp");
     f.deleteOnExit();
-    BufferedWriter fout = new BufferedWriter(new FileWriter(f));
+    // (3) A compact, compressed binary run file
+    RunWriter<String> fout = new RunWriter<String>(f, Codecs.STRING, true);
     for (int i = 0; i < endIndex && i < data.length; ++i) {
       fout.write(data[i]);
-      fout.newLine();
     }
     fout.close();
     return f.getAbsolutePath();
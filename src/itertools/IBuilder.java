@@ -15,17 +15,30 @@
  */
 package itertools;
 
+import itertools.aggregate.Aggregator;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.TopK;
+import itertools.functions.Combiner;
 import itertools.functions.Condition;
 import itertools.functions.Grouper;
+import itertools.functions.KeyNormalizer;
+import itertools.functions.LongMapper;
 import itertools.functions.LookupMapper;
 import itertools.functions.Mapper;
+import itertools.io.Codec;
+import itertools.iterator.DistinctIterator;
+import itertools.iterator.IndexedIterator;
 import itertools.iterator.PeekableIterator;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A utility class to help building iterators. Most of these methods provide the
@@ -36,15 +49,15 @@ import java.util.Map;
  * 
  * @param <T>
  */
-public class IBuilder<T> implements Iterable<T> {
+public class IBuilder<T> implements Iterable<T>, Closeable {
   private Iterator<T> it;
 
   public IBuilder(T... t) {
-    this.it = Arrays.asList(t).iterator();
+    this.it = new IndexedIterator<T>(Arrays.asList(t));
   }
 
   public IBuilder(Iterable<T> it) {
-    this.it = it.iterator();
+    this.it = Itertools.indexedIterator(it);
   }
 
   public IBuilder(Iterator<T> it) {
@@ -68,6 +81,57 @@ public class IBuilder<T> implements Iterable<T> {
     return it;
   }
 
+  /**
+   * Closes the underlying iterator, if it holds resources. See
+   * {@link Itertools#close(Iterator)}.
+   */
+  public void close() {
+    Itertools.close(it);
+  }
+
+  /**
+   * See {@link Itertools#aggregate(Iterable, Aggregator)}.
+   */
+  public <R> R aggregate(Aggregator<? super T, ? extends R> aggregator) {
+    return Itertools.aggregate(it, aggregator);
+  }
+
+  /**
+   * See {@link Itertools#aggregate(Iterator, Mapper, AggregatorFactory)}.
+   */
+  public <K, R> IBuilder<Pair<K, R>> aggregate(
+      final Mapper<? super T, ? extends K> keyMapper,
+      AggregatorFactory<? super T, ? extends R> factory) {
+    return Itertools.aggregate(it, keyMapper, factory);
+  }
+
+  /**
+   * See
+   * {@link Itertools#aggregate(Iterator, Mapper, AggregatorFactory, Codec, int)}
+   * .
+   */
+  public <K, R> IBuilder<Pair<K, R>> aggregate(
+      final Mapper<? super T, ? extends K> keyMapper,
+      AggregatorFactory<? super T, ? extends R> factory, Codec<T> codec,
+      int maxKeys) {
+    return Itertools.aggregate(it, keyMapper, factory, codec, maxKeys);
+  }
+
+  /**
+   * See {@link Itertools#chunked(Iterator, int, boolean)}.
+   */
+  public IBuilder<List<T>> chunked(int chunkSize, boolean reuseBuffer) {
+    return Itertools.chunked(it, chunkSize, reuseBuffer);
+  }
+
+  /**
+   * See {@link Itertools#chunked(Iterator, int, long, TimeUnit, boolean)}.
+   */
+  public IBuilder<List<T>> chunked(int chunkSize, long maxDelay,
+      TimeUnit unit, boolean reuseBuffer) {
+    return Itertools.chunked(it, chunkSize, maxDelay, unit, reuseBuffer);
+  }
+
   /**
    * See {@link Itertools#cycle(Iterable)}.
    */
@@ -75,6 +139,46 @@ public class IBuilder<T> implements Iterable<T> {
     return Itertools.cycle(it);
   }
 
+  /**
+   * See {@link Itertools#cycle(Iterator, int)}.
+   */
+  public IBuilder<T> cycle(int n) {
+    return Itertools.cycle(it, n);
+  }
+
+  /**
+   * See {@link Itertools#distinct(Iterator)}.
+   */
+  public IBuilder<T> distinct() {
+    return Itertools.distinct(it);
+  }
+
+  /**
+   * See {@link Itertools#distinctBy(Iterator, Mapper)}.
+   */
+  public IBuilder<T> distinctBy(final Mapper<? super T, ?> keyMapper) {
+    return Itertools.distinctBy(it, keyMapper);
+  }
+
+  /**
+   * See
+   * {@link Itertools#distinctBy(Iterator, Mapper, DistinctIterator.KeySet, Codec, int)}
+   * .
+   */
+  public IBuilder<T> distinctBy(final Mapper<? super T, ?> keyMapper,
+      DistinctIterator.KeySet keySet, Codec<T> codec, int maxKeys) {
+    return Itertools.distinctBy(it, keyMapper, keySet, codec, maxKeys);
+  }
+
+  /**
+   * See {@link Itertools#distinctApprox(Iterator, Mapper, long, double)}.
+   */
+  public IBuilder<T> distinctApprox(final Mapper<? super T, ?> keyMapper,
+      long expectedKeys, double falsePositiveRate) {
+    return Itertools.distinctApprox(it, keyMapper, expectedKeys,
+        falsePositiveRate);
+  }
+
   /**
    * See {@link Itertools#dropwhile(Iterable, Condition)}
    */
@@ -103,6 +207,99 @@ public class IBuilder<T> implements Iterable<T> {
     return Itertools.groupby(it, grouper, maxSize);
   }
 
+  /**
+   * See {@link Itertools#groupby(Iterable, Grouper, Codec, long)}.
+   */
+  public IBuilder<List<T>> groupby(final Grouper<T> grouper, Codec<T> codec,
+      long memoryBudget) {
+    return Itertools.groupby(it, grouper, codec, memoryBudget);
+  }
+
+  /**
+   * See {@link Itertools#groupby(Iterable, Mapper)}.
+   */
+  public <K> IBuilder<Pair<K, Iterator<T>>> groupby(
+      final Mapper<? super T, ? extends K> keyMapper) {
+    return Itertools.groupby(it, keyMapper);
+  }
+
+  /**
+   * See {@link Itertools#groupby(Iterable, Mapper, AggregatorFactory)}.
+   */
+  public <K, R> IBuilder<Pair<K, R>> groupby(
+      final Mapper<? super T, ? extends K> keyMapper,
+      AggregatorFactory<? super T, ? extends R> factory) {
+    return Itertools.groupby(it, keyMapper, factory);
+  }
+
+  /**
+   * See {@link Itertools#groupbyLong(Iterable, LongMapper)}.
+   */
+  public IBuilder<Pair<Long, Iterator<T>>> groupbyLong(
+      final LongMapper<? super T> keyMapper) {
+    return Itertools.groupbyLong(it, keyMapper);
+  }
+
+  /**
+   * See {@link Itertools#join(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}.
+   */
+  public <K, R, O> IBuilder<O> join(Iterable<R> right,
+      final Mapper<? super T, ? extends K> leftKey,
+      final Mapper<? super R, ? extends K> rightKey,
+      Comparator<? super K> comp,
+      Combiner<? super T, ? super R, ? extends O> combiner) {
+    return Itertools.join(this, right, leftKey, rightKey, comp, combiner);
+  }
+
+  /**
+   * See {@link Itertools#join(Iterable, Iterable, Mapper, Mapper, Comparator)}.
+   */
+  public <K, R> IBuilder<Pair<T, R>> join(Iterable<R> right,
+      final Mapper<? super T, ? extends K> leftKey,
+      final Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp) {
+    return Itertools.join(this, right, leftKey, rightKey, comp);
+  }
+
+  /**
+   * See {@link Itertools#leftJoin(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}.
+   */
+  public <K, R, O> IBuilder<O> leftJoin(Iterable<R> right,
+      final Mapper<? super T, ? extends K> leftKey,
+      final Mapper<? super R, ? extends K> rightKey,
+      Comparator<? super K> comp,
+      Combiner<? super T, ? super R, ? extends O> combiner) {
+    return Itertools.leftJoin(this, right, leftKey, rightKey, comp, combiner);
+  }
+
+  /**
+   * See {@link Itertools#leftJoin(Iterable, Iterable, Mapper, Mapper, Comparator)}.
+   */
+  public <K, R> IBuilder<Pair<T, R>> leftJoin(Iterable<R> right,
+      final Mapper<? super T, ? extends K> leftKey,
+      final Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp) {
+    return Itertools.leftJoin(this, right, leftKey, rightKey, comp);
+  }
+
+  /**
+   * See {@link Itertools#fullJoin(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}.
+   */
+  public <K, R, O> IBuilder<O> fullJoin(Iterable<R> right,
+      final Mapper<? super T, ? extends K> leftKey,
+      final Mapper<? super R, ? extends K> rightKey,
+      Comparator<? super K> comp,
+      Combiner<? super T, ? super R, ? extends O> combiner) {
+    return Itertools.fullJoin(this, right, leftKey, rightKey, comp, combiner);
+  }
+
+  /**
+   * See {@link Itertools#fullJoin(Iterable, Iterable, Mapper, Mapper, Comparator)}.
+   */
+  public <K, R> IBuilder<Pair<T, R>> fullJoin(Iterable<R> right,
+      final Mapper<? super T, ? extends K> leftKey,
+      final Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp) {
+    return Itertools.fullJoin(this, right, leftKey, rightKey, comp);
+  }
+
   /**
    * See {@link Itertools#map(Iterable, Mapper)}.
    */
@@ -125,12 +322,141 @@ public class IBuilder<T> implements Iterable<T> {
   }
 
   /**
-   * See {@link Itertools#slice(Iterable, int, int, int)}.
+   * See {@link Itertools#except(Iterable, Iterable, Comparator)}.
+   */
+  public IBuilder<T> except(Iterable<T> other, Comparator<? super T> comp) {
+    return Itertools.except(this, other, comp);
+  }
+
+  /**
+   * See {@link Itertools#intersect(Iterable, Iterable, Comparator)}.
+   */
+  public IBuilder<T> intersect(Iterable<T> other, Comparator<? super T> comp) {
+    return Itertools.intersect(this, other, comp);
+  }
+
+  /**
+   * See {@link Itertools#union(Iterable, Iterable, Comparator)}.
+   */
+  public IBuilder<T> union(Iterable<T> other, Comparator<? super T> comp) {
+    return Itertools.union(this, other, comp);
+  }
+
+  /**
+   * See {@link Itertools#uniq(Iterator)}.
+   */
+  public IBuilder<T> uniq() {
+    return Itertools.uniq(it);
+  }
+
+  /**
+   * See {@link Itertools#uniqCount(Iterator)}.
+   */
+  public IBuilder<Pair<T, Long>> uniqCount() {
+    return Itertools.uniqCount(it);
+  }
+
+  /**
+   * See {@link Itertools#xor(Iterable, Iterable, Comparator)}.
+   */
+  public IBuilder<T> xor(Iterable<T> other, Comparator<? super T> comp) {
+    return Itertools.xor(this, other, comp);
+  }
+
+  /**
+   * See {@link Itertools#prefetch(Iterator, int)}.
+   */
+  public IBuilder<T> prefetch(int capacity) {
+    return Itertools.prefetch(it, capacity);
+  }
+
+  /**
+   * See {@link Itertools#sample(Iterator, int, Random)}.
+   */
+  public IBuilder<T> sample(int k) {
+    return Itertools.sample(it, k);
+  }
+
+  /**
+   * See {@link Itertools#sample(Iterator, int, Random)}.
+   */
+  public IBuilder<T> sample(int k, Random random) {
+    return Itertools.sample(it, k, random);
+  }
+
+  /**
+   * See {@link Itertools#sampleFraction(Iterator, double, Random)}.
+   */
+  public IBuilder<T> sampleFraction(double p) {
+    return Itertools.sampleFraction(it, p);
+  }
+
+  /**
+   * See {@link Itertools#sampleFraction(Iterator, double, Random)}.
+   */
+  public IBuilder<T> sampleFraction(double p, Random random) {
+    return Itertools.sampleFraction(it, p, random);
+  }
+
+  /**
+   * See {@link Itertools#slice(Iterable, long, long, long)}.
    */
   public IBuilder<T> slice(int start, int stop, int by) {
     return Itertools.slice(it, start, stop, by);
   }
 
+  /**
+   * See {@link Itertools#slice(Iterable, long, long, long)}.
+   */
+  public IBuilder<T> slice(long start, long stop, long by) {
+    return Itertools.slice(it, start, stop, by);
+  }
+
+  /**
+   * See {@link Itertools#sort(Iterator, Comparator, Codec)}.
+   */
+  public IBuilder<T> sort(Comparator<? super T> comp, Codec<T> codec) {
+    return Itertools.sort(it, comp, codec);
+  }
+
+  /**
+   * See {@link Itertools#sort(Iterator, KeyNormalizer, Codec)}.
+   */
+  public IBuilder<T> sort(KeyNormalizer<? super T> normalizer, Codec<T> codec) {
+    return Itertools.sort(it, normalizer, codec);
+  }
+
+  /**
+   * See {@link Itertools#tee(Iterator, int)}.
+   */
+  public List<IBuilder<T>> tee(int n) {
+    return Itertools.tee(it, n);
+  }
+
+  /**
+   * See {@link Itertools#topK(Iterator, int, Comparator)}.
+   */
+  public IBuilder<T> topK(int k, Comparator<? super T> comp) {
+    return Itertools.topK(it, k, comp);
+  }
+
+  /**
+   * See {@link Itertools#bottomK(Iterator, int, Comparator)}.
+   */
+  public IBuilder<T> bottomK(int k, Comparator<? super T> comp) {
+    return Itertools.bottomK(it, k, comp);
+  }
+
+  /**
+   * Groups the elements as {@link #groupby(Grouper)}, returning the k largest
+   * elements of each group (largest first). Only k elements per group are held
+   * in memory. See {@link TopK}.
+   */
+  public IBuilder<List<T>> topKByGroup(final Grouper<T> grouper, int k,
+      Comparator<? super T> comp) {
+    return groupby(grouper).map(TopK.<T> mapper(k, comp));
+  }
+
   /**
    * See {@link Itertools#takewhile(Iterator, Condition)}
    */
@@ -138,4 +464,29 @@ public class IBuilder<T> implements Iterable<T> {
     return Itertools.takewhile(it, condition);
   }
 
+  /**
+   * See {@link Itertools#window(Iterator, int, int, AggregatorFactory)}.
+   */
+  public <R> IBuilder<Pair<Long, R>> window(int size, int slide,
+      AggregatorFactory<? super T, ? extends R> factory) {
+    return Itertools.window(it, size, slide, factory);
+  }
+
+  /**
+   * See
+   * {@link Itertools#window(Iterator, LongMapper, long, long, AggregatorFactory)}
+   * .
+   */
+  public <R> IBuilder<Pair<Long, R>> window(LongMapper<? super T> time,
+      long size, long slide, AggregatorFactory<? super T, ? extends R> factory) {
+    return Itertools.window(it, time, size, slide, factory);
+  }
+
+  /**
+   * See {@link Itertools#zipPairs(Iterable, Iterable)}.
+   */
+  public <B> IBuilder<Pair<T, B>> zipPairs(Iterable<B> other) {
+    return Itertools.zipPairs(this, other);
+  }
+
 }
@@ -15,19 +15,36 @@
  */
 package itertools;
 
+import itertools.aggregate.Aggregator;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.BloomFilter;
+import itertools.aggregate.TopK;
+import itertools.functions.Combiner;
 import itertools.functions.Condition;
 import itertools.functions.Grouper;
+import itertools.functions.KeyNormalizer;
+import itertools.functions.LongMapper;
 import itertools.functions.LookupMapper;
 import itertools.functions.Mapper;
+import itertools.functions.Objects;
+import itertools.io.Codec;
 import itertools.iterator.*;
+import itertools.sort.ExternalSort;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A collection of static methods to aid creation of specialized iterators. All
@@ -39,6 +56,87 @@ import java.util.Map;
  */
 public class Itertools {
 
+  /**
+   * See {@link #aggregate(Iterator, Aggregator)}.
+   */
+  public static <E, R> R aggregate(Iterable<E> it,
+      Aggregator<? super E, ? extends R> aggregator) {
+    return aggregate(it.iterator(), aggregator);
+  }
+
+  /**
+   * Adds every element of the iterator to the aggregator, e.g. one of
+   * {@link itertools.aggregate.Aggregators} or a sketch such as
+   * {@link itertools.aggregate.HyperLogLog}, and returns its result.
+   * 
+   * @param <E>
+   * @param <R>
+   *          Result type.
+   * @param it
+   *          The iterator, which is consumed.
+   * @param aggregator
+   *          The aggregator.
+   * @return The aggregator's result.
+   */
+  public static <E, R> R aggregate(Iterator<E> it,
+      Aggregator<? super E, ? extends R> aggregator) {
+    while (it.hasNext()) {
+      aggregator.add(it.next());
+    }
+    return aggregator.result();
+  }
+
+  /**
+   * See {@link #aggregate(Iterator, Mapper, AggregatorFactory)}.
+   */
+  public static <K, E, R> IBuilder<Pair<K, R>> aggregate(Iterable<E> it,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    return aggregate(it.iterator(), keyMapper, factory);
+  }
+
+  /**
+   * Aggregates the elements of the provided (unsorted) iterator by key with a
+   * hash table, returning one (key, result) pair per distinct key in no
+   * particular order. All keys are kept in memory; see
+   * {@link #aggregate(Iterator, Mapper, AggregatorFactory, Codec, int)} to
+   * bound memory use. See {@link HashAggregatingIterator}.
+   * 
+   * @param <K>
+   *          Key type.
+   * @param <E>
+   *          Element type.
+   * @param <R>
+   *          Result type.
+   * @param it
+   *          The underlying iterator.
+   * @param keyMapper
+   *          Extracts the key from an element.
+   * @param factory
+   *          Creates the aggregator for each key, e.g. from
+   *          {@link itertools.aggregate.Aggregators}.
+   * @return An iterable over keys and their aggregates.
+   */
+  public static <K, E, R> IBuilder<Pair<K, R>> aggregate(Iterator<E> it,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    return new IBuilder<Pair<K, R>>(new HashAggregatingIterator<K, E, R>(it,
+        keyMapper, factory));
+  }
+
+  /**
+   * Like {@link #aggregate(Iterator, Mapper, AggregatorFactory)}, but
+   * aggregates at most maxKeys keys in memory at once, partitioning the
+   * remaining elements into temporary files by hash.
+   */
+  public static <K, E, R> IBuilder<Pair<K, R>> aggregate(Iterator<E> it,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory, Codec<E> codec,
+      int maxKeys) {
+    return new IBuilder<Pair<K, R>>(new HashAggregatingIterator<K, E, R>(it,
+        keyMapper, factory, codec, maxKeys, null));
+  }
+
   /**
    * Test the condition on the elements of the iterator.
    * 
@@ -87,6 +185,23 @@ public class Itertools {
     return any(it.iterator(), c);
   }
 
+  /**
+   * See {@link #bottomK(Iterator, int, Comparator)}.
+   */
+  public static <E> IBuilder<E> bottomK(Iterable<E> iterator, int k,
+      Comparator<? super E> comp) {
+    return bottomK(iterator.iterator(), k, comp);
+  }
+
+  /**
+   * Creates an Iterable over the k smallest elements of the provided iterator,
+   * smallest first. See {@link #topK(Iterator, int, Comparator)}.
+   */
+  public static <E> IBuilder<E> bottomK(Iterator<E> iterator, int k,
+      Comparator<? super E> comp) {
+    return topK(iterator, k, Collections.reverseOrder(comp));
+  }
+
   /**
    * Creates an Iterable to chain the provided iterator collection together. See
    * {@link ChainedIterator}.
@@ -113,6 +228,91 @@ public class Itertools {
     return new IBuilder<E>(new ChainedIterator<E>(iterators));
   }
 
+  /**
+   * See {@link #chunked(Iterator, int, boolean)}.
+   */
+  public static <E> IBuilder<List<E>> chunked(Iterable<E> iterator,
+      int chunkSize, boolean reuseBuffer) {
+    return chunked(indexedIterator(iterator), chunkSize, reuseBuffer);
+  }
+
+  /**
+   * Creates an Iterable over array-backed lists of up to chunkSize elements.
+   * With reuseBuffer, every chunk is the same list, which is overwritten by
+   * the next chunk, so chunking allocates nothing. See
+   * {@link ArrayChunkingIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param chunkSize
+   *          The maximum number of elements in a chunk.
+   * @param reuseBuffer
+   *          Whether all chunks share one buffer.
+   * @return An iterable over chunks.
+   */
+  public static <E> IBuilder<List<E>> chunked(Iterator<E> iterator,
+      int chunkSize, boolean reuseBuffer) {
+    return new IBuilder<List<E>>(new ArrayChunkingIterator<E>(iterator,
+        chunkSize, reuseBuffer));
+  }
+
+  /**
+   * Like {@link #chunked(Iterator, int, boolean)}, but also ends a chunk once
+   * maxDelay has passed since its first element was read, to bound the
+   * latency of batching.
+   */
+  public static <E> IBuilder<List<E>> chunked(Iterator<E> iterator,
+      int chunkSize, long maxDelay, TimeUnit unit, boolean reuseBuffer) {
+    return new IBuilder<List<E>>(new ArrayChunkingIterator<E>(iterator,
+        chunkSize, maxDelay, unit, reuseBuffer));
+  }
+
+  /**
+   * Closes the iterator if it holds resources, i.e. if it is {@link Closeable},
+   * such as a {@link PrefetchingIterator}. Iterators that stop reading their
+   * inputs early use this to release them.
+   * 
+   * @throws RuntimeException
+   *           If closing failed.
+   */
+  public static void close(Iterator<?> it) {
+    if (!(it instanceof Closeable)) return;
+    try {
+      ((Closeable) it).close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Creates an Iterable over the r-length combinations of the pool's elements,
+   * like python's <tt>itertools.combinations</tt>. The returned lists are a
+   * single view updated in place; see {@link CombinationIterator} for
+   * enumerating ranges of combinations in parallel.
+   * 
+   * @param <E>
+   * @param pool
+   *          The elements to choose from.
+   * @param r
+   *          The length of each combination.
+   * @return An iterable over combinations.
+   */
+  public static <E> IBuilder<List<E>> combinations(List<E> pool, int r) {
+    return new IBuilder<List<E>>(new CombinationIterator<E>(pool, r));
+  }
+
+  /**
+   * Creates an Iterable over the r-length combinations of the pool's elements
+   * in which elements may repeat, like python's
+   * <tt>itertools.combinations_with_replacement</tt>. See
+   * {@link #combinations(List, int)}.
+   */
+  public static <E> IBuilder<List<E>> combinationsWithReplacement(
+      List<E> pool, int r) {
+    return new IBuilder<List<E>>(new CombinationIterator<E>(pool, r, true));
+  }
+
   /**
    * Creates an Iterable that counts forever. See {@link CountingIterator}.
    * 
@@ -134,15 +334,29 @@ public class Itertools {
   }
 
   /**
-   * Creates an Iterable that cycles through the provided iterator indefinitely.
-   * See {@link CyclingIterator}.
+   * Creates an Iterable that counts forever in <tt>long</tt>s. See
+   * {@link LongCountingIterator}.
+   * 
+   * @param start
+   *          Starting number.
+   * @return An iterable.
+   */
+  public static IBuilder<Long> count(long start) {
+    return new IBuilder<Long>(new LongCountingIterator(start));
+  }
+
+  /**
+   * Creates an Iterable that cycles through the provided iterable indefinitely.
+   * A {@link Collection} is iterated over again on each cycle, anything else is
+   * buffered in memory as by {@link #cycle(Iterator)}. See
+   * {@link CyclingIterator}.
    * 
    * @param <E>
    * @param iterator
    * @return An iterable.
    */
   public static <E> IBuilder<E> cycle(Iterable<E> iterator) {
-    return cycle(iterator.iterator());
+    return cycle(iterator, -1);
   }
 
   /**
@@ -157,6 +371,139 @@ public class Itertools {
     return new IBuilder<E>(new CyclingIterator<E>(iterator));
   }
 
+  /**
+   * Like {@link #cycle(Iterable)}, but stops after n cycles.
+   * 
+   * @param n
+   *          The number of cycles, or &lt;0 to cycle forever.
+   */
+  public static <E> IBuilder<E> cycle(Iterable<E> iterator, int n) {
+    if (iterator instanceof Collection<?>) {
+      return new IBuilder<E>(new CyclingIterator<E>(iterator, n));
+    }
+    return cycle(iterator.iterator(), n);
+  }
+
+  /**
+   * Like {@link #cycle(Iterator)}, but stops after n cycles.
+   * 
+   * @param n
+   *          The number of cycles, or &lt;0 to cycle forever.
+   */
+  public static <E> IBuilder<E> cycle(Iterator<E> iterator, int n) {
+    return new IBuilder<E>(new CyclingIterator<E>(iterator, n));
+  }
+
+  /**
+   * Like {@link #cycle(Iterator, int)}, but once the buffered elements of the
+   * first cycle exceed budget bytes, the rest are written to a temporary file.
+   * Close the returned builder to delete the file when stopping early.
+   * 
+   * @param n
+   *          The number of cycles, or &lt;0 to cycle forever.
+   * @param codec
+   *          Converts elements to bytes.
+   * @param budget
+   *          The memory budget, in bytes.
+   */
+  public static <E> IBuilder<E> cycle(Iterator<E> iterator, int n,
+      Codec<E> codec, long budget) {
+    return new IBuilder<E>(new CyclingIterator<E>(iterator, n, codec, budget,
+        null));
+  }
+
+  /**
+   * See {@link #distinct(Iterator)}.
+   */
+  public static <E> IBuilder<E> distinct(Iterable<E> iterator) {
+    return distinct(iterator.iterator());
+  }
+
+  /**
+   * Removes repeated elements from an unsorted iterator, keeping the first
+   * occurrence of each element. Every distinct element is kept in memory; see
+   * {@link #distinctBy(Iterator, Mapper, DistinctIterator.KeySet, Codec, int)}
+   * to bound memory use. See {@link DistinctIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @return An iterable over distinct elements.
+   */
+  public static <E> IBuilder<E> distinct(Iterator<E> iterator) {
+    return distinctBy(iterator, Objects.IDENTITY);
+  }
+
+  /**
+   * Removes elements with repeated keys, approximately: the keys seen are
+   * recorded in a {@link BloomFilter}, so memory use is fixed, but a fraction
+   * of about falsePositiveRate of the distinct elements are wrongly dropped.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param keyMapper
+   *          Extracts the key of an element.
+   * @param expectedKeys
+   *          The expected number of distinct keys, used to size the filter.
+   * @param falsePositiveRate
+   *          The rate of wrongly dropped elements with expectedKeys keys.
+   * @return An iterable over elements with distinct keys.
+   */
+  public static <E> IBuilder<E> distinctApprox(Iterator<E> iterator,
+      final Mapper<? super E, ?> keyMapper, long expectedKeys,
+      double falsePositiveRate) {
+    final BloomFilter<Object> seen = new BloomFilter<Object>(expectedKeys,
+        falsePositiveRate);
+    return filter(iterator, new Condition<E>() {
+      public boolean condition(E item) {
+        return seen.put(keyMapper.map(item));
+      }
+    });
+  }
+
+  /**
+   * Removes elements with repeated keys from an unsorted iterator, keeping the
+   * first element with each key. Every distinct key is kept in memory. See
+   * {@link DistinctIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param keyMapper
+   *          Extracts the key of an element.
+   * @return An iterable over elements with distinct keys.
+   */
+  public static <E> IBuilder<E> distinctBy(Iterator<E> iterator,
+      Mapper<? super E, ?> keyMapper) {
+    return new IBuilder<E>(new DistinctIterator<E>(iterator, keyMapper));
+  }
+
+  /**
+   * Like {@link #distinctBy(Iterator, Mapper)}, but keeps at most maxKeys keys
+   * (or fingerprints of keys) in memory, partitioning the remaining elements
+   * into temporary files by hash. See {@link DistinctIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param keyMapper
+   *          Extracts the key of an element.
+   * @param keySet
+   *          Whether to keep keys or their fingerprints.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   * @param maxKeys
+   *          The maximum number of keys in memory.
+   * @return An iterable over elements with distinct keys.
+   */
+  public static <E> IBuilder<E> distinctBy(Iterator<E> iterator,
+      Mapper<? super E, ?> keyMapper, DistinctIterator.KeySet keySet,
+      Codec<E> codec, int maxKeys) {
+    return new IBuilder<E>(new DistinctIterator<E>(iterator, keyMapper, keySet,
+        codec, maxKeys, null));
+  }
+
   /**
    * See {@link DropwhileIterator}.
    */
@@ -178,6 +525,36 @@ public class Itertools {
     });
   }
 
+  /**
+   * Creates an Iterable over the elements of <tt>a</tt> that are not in
+   * <tt>b</tt>. <tt>b</tt> is skipped ahead by seeking when possible.
+   * Both inputs must be sorted by the comparator and free of duplicates. See
+   * {@link SetOperationIterator}.
+   * 
+   * @param <E>
+   * @param a
+   *          The first sorted input.
+   * @param b
+   *          The second sorted input.
+   * @param comp
+   *          The order of both inputs.
+   * @return A sorted iterable.
+   */
+  public static <E> IBuilder<E> except(Iterable<E> a, Iterable<E> b,
+      Comparator<? super E> comp) {
+    return new IBuilder<E>(new SetOperationIterator<E>(indexedIterator(a),
+        indexedIterator(b), comp, SetOperationIterator.Operation.DIFFERENCE));
+  }
+
+  /**
+   * See {@link #except(Iterable, Iterable, Comparator)}. Uses the natural
+   * ordering of the elements.
+   */
+  public static <E extends Comparable<? super E>> IBuilder<E> except(
+      Iterable<E> a, Iterable<E> b) {
+    return except(a, b, Itertools.<E> naturalOrder());
+  }
+
   /**
    * See {@link #filter(Iterator, Condition)}.
    */
@@ -206,6 +583,98 @@ public class Itertools {
     });
   }
 
+  /**
+   * Full outer join of two iterables sorted by key. Unmatched elements from
+   * either side are passed to the combiner with a null partner. See
+   * {@link #join(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}.
+   */
+  public static <K, L, R, O> IBuilder<O> fullJoin(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp,
+      Combiner<? super L, ? super R, ? extends O> combiner) {
+    return join(left, right, leftKey, rightKey, comp, combiner,
+        MergeJoinIterator.JoinType.FULL_OUTER);
+  }
+
+  /**
+   * See {@link #fullJoin(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}
+   * . Produces pairs of joined elements.
+   */
+  public static <K, L, R> IBuilder<Pair<L, R>> fullJoin(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp) {
+    return fullJoin(left, right, leftKey, rightKey, comp, Pair
+        .<L, R> combiner());
+  }
+
+  /**
+   * See {@link #groupby(Iterator, Mapper)}.
+   */
+  public static <K, E> IBuilder<Pair<K, Iterator<E>>> groupby(
+      Iterable<E> iterator, Mapper<? super E, ? extends K> keyMapper) {
+    return groupby(iterator.iterator(), keyMapper);
+  }
+
+  /**
+   * Creates an Iterable over sequential groups of elements with equal keys,
+   * as (key, group) pairs. Each element's key is computed once, rather than
+   * once per comparison as with a {@link Grouper}. See
+   * {@link KeyGroupingIterator}.
+   * 
+   * @param <K>
+   *          Key type.
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param keyMapper
+   *          Extracts the key from an element.
+   * @return An iterable over keys and groups.
+   */
+  public static <K, E> IBuilder<Pair<K, Iterator<E>>> groupby(
+      Iterator<E> iterator, Mapper<? super E, ? extends K> keyMapper) {
+    return new IBuilder<Pair<K, Iterator<E>>>(new KeyGroupingIterator<K, E>(
+        iterator, keyMapper));
+  }
+
+  /**
+   * See {@link #groupby(Iterator, Mapper, AggregatorFactory)}.
+   */
+  public static <K, E, R> IBuilder<Pair<K, R>> groupby(Iterable<E> iterator,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    return groupby(iterator.iterator(), keyMapper, factory);
+  }
+
+  /**
+   * Aggregates sequential groups of elements with equal keys, producing one
+   * (key, result) pair per group. Elements are folded into the group's
+   * aggregator as they are read, so groups are never materialized. Use e.g.
+   * {@link itertools.aggregate.Aggregators#count()},
+   * {@link itertools.aggregate.Aggregators#reduce(Combiner, Object)} or
+   * {@link itertools.aggregate.Aggregators#compose(List)} for
+   * several aggregates at once. See {@link GroupAggregatingIterator}, and
+   * {@link #aggregate(Iterator, Mapper, AggregatorFactory)} for unsorted input.
+   * 
+   * @param <K>
+   *          Key type.
+   * @param <E>
+   * @param <R>
+   *          Result type.
+   * @param iterator
+   *          The underlying iterator.
+   * @param keyMapper
+   *          Extracts the key from an element.
+   * @param factory
+   *          Creates the aggregator for each group.
+   * @return An iterable over keys and their aggregates.
+   */
+  public static <K, E, R> IBuilder<Pair<K, R>> groupby(Iterator<E> iterator,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    return new IBuilder<Pair<K, R>>(new GroupAggregatingIterator<K, E, R>(
+        iterator, keyMapper, factory));
+  }
+
   /**
    * Creates an Iterable over sequential groups of elements in the provided
    * iterator. The {@link Grouper#group(Object, Object)} function defines
@@ -277,7 +746,9 @@ public class Itertools {
    *          The underlying iterator.
    * @param maxGroupSize
    *          The maximum size of a group. If a group exceeds this size, it will
-   *          be split into more than one group.
+   *          be split into more than one group. See
+   *          {@link #groupby(Iterator, Grouper, Codec, long)} to bound memory
+   *          without splitting groups.
    * @return An iterable over groups.
    */
   public static <E> IBuilder<Iterator<E>> groupby(Iterator<E> iterator,
@@ -291,6 +762,173 @@ public class Itertools {
     });
   }
 
+  /**
+   * See {@link #groupby(Iterator, Grouper, Codec, long)}.
+   */
+  public static <E> IBuilder<List<E>> groupby(Iterable<E> iterator,
+      final Grouper<E> grouper, Codec<E> codec, long memoryBudget) {
+    return groupby(iterator.iterator(), grouper, codec, memoryBudget);
+  }
+
+  /**
+   * Creates an Iterable over sequential groups of elements in the provided
+   * iterator, returning each group as a list. Groups larger than
+   * <tt>memoryBudget</tt> bytes are partly written to a temporary file rather
+   * than being split. See {@link SpillingGroupingIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param grouper
+   *          The grouping function.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   * @param memoryBudget
+   *          The approximate number of bytes of a group to keep in memory.
+   * @return An iterable over groups.
+   */
+  public static <E> IBuilder<List<E>> groupby(Iterator<E> iterator,
+      final Grouper<E> grouper, Codec<E> codec, long memoryBudget) {
+    return new IBuilder<List<E>>(new SpillingGroupingIterator<E>(iterator,
+        codec, memoryBudget) {
+      @Override
+      public boolean group(E e1, E e2) {
+        return grouper.group(e1, e2);
+      }
+    });
+  }
+
+  /**
+   * See {@link #groupbyLong(Iterator, LongMapper)}.
+   */
+  public static <E> IBuilder<Pair<Long, Iterator<E>>> groupbyLong(
+      Iterable<E> iterator, LongMapper<? super E> keyMapper) {
+    return groupbyLong(iterator.iterator(), keyMapper);
+  }
+
+  /**
+   * Like {@link #groupby(Iterator, Mapper)}, with primitive long (or int)
+   * keys. See {@link LongKeyGroupingIterator}.
+   */
+  public static <E> IBuilder<Pair<Long, Iterator<E>>> groupbyLong(
+      Iterator<E> iterator, LongMapper<? super E> keyMapper) {
+    return new IBuilder<Pair<Long, Iterator<E>>>(
+        new LongKeyGroupingIterator<E>(iterator, keyMapper));
+  }
+
+  /**
+   * Creates an Iterable over the elements in both <tt>a</tt> and <tt>b</tt>.
+   * Random-access lists and {@link Seekable} iterators are skipped ahead with a
+   * galloping search rather than scanned.
+   * Both inputs must be sorted by the comparator and free of duplicates. See
+   * {@link SetOperationIterator}.
+   * 
+   * @param <E>
+   * @param a
+   *          The first sorted input.
+   * @param b
+   *          The second sorted input.
+   * @param comp
+   *          The order of both inputs.
+   * @return A sorted iterable.
+   */
+  public static <E> IBuilder<E> intersect(Iterable<E> a, Iterable<E> b,
+      Comparator<? super E> comp) {
+    return new IBuilder<E>(new SetOperationIterator<E>(indexedIterator(a),
+        indexedIterator(b), comp, SetOperationIterator.Operation.INTERSECTION));
+  }
+
+  /**
+   * See {@link #intersect(Iterable, Iterable, Comparator)}. Uses the natural
+   * ordering of the elements.
+   */
+  public static <E extends Comparable<? super E>> IBuilder<E> intersect(
+      Iterable<E> a, Iterable<E> b) {
+    return intersect(a, b, Itertools.<E> naturalOrder());
+  }
+
+  /**
+   * Inner join of two iterables that are both sorted by key, without loading
+   * either side into memory. Each pair of left and right elements with equal
+   * keys is passed to the combiner. See {@link MergeJoinIterator}.
+   * 
+   * @param <K>
+   *          Key type.
+   * @param <L>
+   *          Left element type.
+   * @param <R>
+   *          Right element type.
+   * @param <O>
+   *          Output type.
+   * @param left
+   *          The left input, sorted by leftKey.
+   * @param right
+   *          The right input, sorted by rightKey. Elements with equal keys are
+   *          buffered in memory.
+   * @param leftKey
+   *          Extracts the join key from left elements.
+   * @param rightKey
+   *          Extracts the join key from right elements.
+   * @param comp
+   *          The key ordering of both inputs.
+   * @param combiner
+   *          Builds the output from the joined elements.
+   * @return An iterable over joined elements.
+   */
+  public static <K, L, R, O> IBuilder<O> join(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp,
+      Combiner<? super L, ? super R, ? extends O> combiner) {
+    return join(left, right, leftKey, rightKey, comp, combiner,
+        MergeJoinIterator.JoinType.INNER);
+  }
+
+  /**
+   * See {@link #join(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}
+   * . Produces pairs of joined elements.
+   */
+  public static <K, L, R> IBuilder<Pair<L, R>> join(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp) {
+    return join(left, right, leftKey, rightKey, comp, Pair.<L, R> combiner());
+  }
+
+  /**
+   * See {@link MergeJoinIterator}.
+   */
+  public static <K, L, R, O> IBuilder<O> join(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp,
+      Combiner<? super L, ? super R, ? extends O> combiner,
+      MergeJoinIterator.JoinType type) {
+    return new IBuilder<O>(new MergeJoinIterator<K, L, R, O>(left.iterator(),
+        right.iterator(), leftKey, rightKey, comp, combiner, type));
+  }
+
+  /**
+   * Left outer join of two iterables sorted by key. Left elements without a
+   * match are passed to the combiner with a null right element. See
+   * {@link #join(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}.
+   */
+  public static <K, L, R, O> IBuilder<O> leftJoin(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp,
+      Combiner<? super L, ? super R, ? extends O> combiner) {
+    return join(left, right, leftKey, rightKey, comp, combiner,
+        MergeJoinIterator.JoinType.LEFT_OUTER);
+  }
+
+  /**
+   * See {@link #leftJoin(Iterable, Iterable, Mapper, Mapper, Comparator, Combiner)}
+   * . Produces pairs of joined elements.
+   */
+  public static <K, L, R> IBuilder<Pair<L, R>> leftJoin(Iterable<L> left,
+      Iterable<R> right, Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp) {
+    return leftJoin(left, right, leftKey, rightKey, comp, Pair
+        .<L, R> combiner());
+  }
+
   /**
    * Similar to {@link #lookup(Iterable, Map, Object)} but maps to null if an
    * input element is missing.
@@ -512,30 +1150,248 @@ public class Itertools {
   }
 
   /**
-   * Creates an iterable always repeating the provided item. See
-   * {@link RepeatingIterator}.
+   * Merges the provided sorted lists using several threads. The key space is
+   * split into <tt>parallelism</tt> ranges by sampling the inputs, and each
+   * range is merged on its own thread. See {@link ParallelMergingIterator}.
    * 
    * @param <E>
-   *          The item type.
-   * @param item
-   *          The item.
-   * @return An iterable that always reutrns the same item.
+   * @param runs
+   *          The sorted inputs, which should support fast random access.
+   * @param comp
+   *          The comparator.
+   * @param parallelism
+   *          The number of threads to use.
+   * @return A merged iterable.
    */
-  public static <E> IBuilder<E> repeat(E item) {
-    return new IBuilder<E>(new RepeatingIterator<E>(item));
+  public static <E> IBuilder<E> parallelMerge(List<? extends List<E>> runs,
+      Comparator<? super E> comp, int parallelism) {
+    return new IBuilder<E>(new ParallelMergingIterator<E>(runs, comp,
+        parallelism));
   }
 
   /**
-   * See {@link #slice(Iterator, int, int, int)}.
+   * See {@link #permutations(List, int)}.
    */
-  public static <E> IBuilder<E> slice(Iterable<E> it, int start, int stop,
-      int by) {
-    return slice(it.iterator(), start, stop, by);
+  public static <E> IBuilder<List<E>> permutations(List<E> pool) {
+    return permutations(pool, pool.size());
   }
 
   /**
-   * Creates an iterable selecting subsets of the provided iterator. See
-   * {@link SlicingIterator}.
+   * Creates an Iterable over the r-length permutations of the pool's
+   * elements, like python's <tt>itertools.permutations</tt>. The returned
+   * lists are a single view updated in place; see {@link PermutationIterator}
+   * for enumerating ranges of permutations in parallel.
+   * 
+   * @param <E>
+   * @param pool
+   *          The elements to permute.
+   * @param r
+   *          The length of each permutation.
+   * @return An iterable over permutations.
+   */
+  public static <E> IBuilder<List<E>> permutations(List<E> pool, int r) {
+    return new IBuilder<List<E>>(new PermutationIterator<E>(pool, r));
+  }
+
+  /**
+   * See {@link #prefetch(Iterator, int)}.
+   */
+  public static <E> IBuilder<E> prefetch(Iterable<E> iterator, int capacity) {
+    return prefetch(iterator.iterator(), capacity);
+  }
+
+  /**
+   * Creates an iterable that reads the provided iterator on a background
+   * thread, up to capacity elements ahead. Zipping several prefetched inputs
+   * reads them all concurrently. If the iterable is not read to the end, it
+   * should be closed with {@link IBuilder#close()} to stop the thread. See
+   * {@link PrefetchingIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The iterator to read ahead.
+   * @param capacity
+   *          The maximum number of elements to read ahead.
+   * @return An iterable.
+   */
+  public static <E> IBuilder<E> prefetch(Iterator<E> iterator, int capacity) {
+    return new IBuilder<E>(new PrefetchingIterator<E>(iterator, capacity));
+  }
+
+  /**
+   * Creates an Iterable over the cartesian product of the pools, like
+   * python's <tt>itertools.product</tt>. The returned lists are a single view
+   * updated in place; see {@link ProductIterator} for enumerating ranges of
+   * the product in parallel.
+   * 
+   * @param <E>
+   * @param pools
+   *          The pools to take one element from each.
+   * @return An iterable over tuples.
+   */
+  public static <E> IBuilder<List<E>> product(List<? extends List<E>> pools) {
+    return new IBuilder<List<E>>(new ProductIterator<E>(pools));
+  }
+
+  /**
+   * Creates an Iterable over the cartesian product of the pool with itself,
+   * repeat times. See {@link #product(List)}.
+   */
+  public static <E> IBuilder<List<E>> product(List<E> pool, int repeat) {
+    return new IBuilder<List<E>>(new ProductIterator<E>(pool, repeat));
+  }
+
+  /**
+   * Creates an Iterable over <tt>0, 1, ..., stop - 1</tt>. See
+   * {@link #range(long, long, long)}.
+   */
+  public static IBuilder<Long> range(long stop) {
+    return range(0, stop, 1);
+  }
+
+  /**
+   * Creates an Iterable over <tt>start, start + 1, ..., stop - 1</tt>. See
+   * {@link #range(long, long, long)}.
+   */
+  public static IBuilder<Long> range(long start, long stop) {
+    return range(start, stop, 1);
+  }
+
+  /**
+   * Creates an Iterable over <tt>start, start + step, ...</tt> up to but not
+   * including stop. See {@link RangeIterator}, which can also be used directly
+   * to read unboxed <tt>long</tt>s or split the range for parallel work.
+   * 
+   * @param start
+   *          The first element.
+   * @param stop
+   *          The end of the range, exclusive.
+   * @param step
+   *          The difference between consecutive elements. May be negative, but
+   *          not zero.
+   * @return An iterable.
+   */
+  public static IBuilder<Long> range(long start, long stop, long step) {
+    return new IBuilder<Long>(new RangeIterator(start, stop, step));
+  }
+
+  /**
+   * Creates an iterable always repeating the provided item. See
+   * {@link RepeatingIterator}.
+   * 
+   * @param <E>
+   *          The item type.
+   * @param item
+   *          The item.
+   * @return An iterable that always reutrns the same item.
+   */
+  public static <E> IBuilder<E> repeat(E item) {
+    return new IBuilder<E>(new RepeatingIterator<E>(item));
+  }
+
+  /**
+   * See {@link #sample(Iterator, int, Random)}.
+   */
+  public static <E> IBuilder<E> sample(Iterator<E> iterator, int k) {
+    return sample(iterator, k, new Random());
+  }
+
+  /**
+   * Draws a uniform random sample of k elements (or all elements, if there are
+   * fewer) by reservoir sampling. Elements that can't enter the sample are
+   * skipped in bulk where the iterator supports it. See
+   * {@link ReservoirSamplingIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator, which is consumed.
+   * @param k
+   *          The sample size.
+   * @param random
+   *          The source of randomness.
+   * @return An iterable over the sample, in no particular order.
+   */
+  public static <E> IBuilder<E> sample(Iterator<E> iterator, int k,
+      Random random) {
+    return new IBuilder<E>(new ReservoirSamplingIterator<E>(iterator, k,
+        random));
+  }
+
+  /**
+   * See {@link #sampleFraction(Iterator, double, Random)}.
+   */
+  public static <E> IBuilder<E> sampleFraction(Iterator<E> iterator, double p) {
+    return sampleFraction(iterator, p, new Random());
+  }
+
+  /**
+   * Keeps each element independently with probability p, skipping over the
+   * elements in between in bulk where the iterator supports it. See
+   * {@link BernoulliSamplingIterator}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param p
+   *          The probability of keeping an element.
+   * @param random
+   *          The source of randomness.
+   * @return An iterable over the sampled elements, in order.
+   */
+  public static <E> IBuilder<E> sampleFraction(Iterator<E> iterator, double p,
+      Random random) {
+    return new IBuilder<E>(new BernoulliSamplingIterator<E>(iterator, p,
+        random));
+  }
+
+  /**
+   * Advances the iterator by up to n elements, with
+   * {@link Skippable#skip(long)} if the iterator supports it.
+   * 
+   * @param it
+   *          The iterator.
+   * @param n
+   *          The number of elements to skip.
+   * @return The number of elements skipped, which is less than n only if the
+   *         iterator is exhausted.
+   */
+  public static long skip(Iterator<?> it, long n) {
+    if (it instanceof Skippable<?>) return ((Skippable<?>) it).skip(n);
+    long skipped = 0;
+    while (skipped < n && it.hasNext()) {
+      it.next();
+      ++skipped;
+    }
+    return skipped;
+  }
+
+  /**
+   * See {@link #slice(Iterator, long, long, long)}.
+   */
+  public static <E> IBuilder<E> slice(Iterable<E> it, int start, int stop,
+      int by) {
+    return slice(it, (long) start, (long) stop, (long) by);
+  }
+
+  /**
+   * See {@link #slice(Iterator, long, long, long)}.
+   */
+  public static <E> IBuilder<E> slice(Iterable<E> it, long start, long stop,
+      long by) {
+    return slice(indexedIterator(it), start, stop, by);
+  }
+
+  /**
+   * See {@link #slice(Iterator, long, long, long)}.
+   */
+  public static <E> IBuilder<E> slice(Iterator<E> it, int start, int stop,
+      int by) {
+    return slice(it, (long) start, (long) stop, (long) by);
+  }
+
+  /**
+   * Creates an iterable selecting subsets of the provided iterator. See
+   * {@link SlicingIterator}.
    * 
    * @param <E>
    * @param it
@@ -548,11 +1404,62 @@ public class Itertools {
    *          The step size. &lt;0 equivalent to a step size of 1.
    * @return An iterable.
    */
-  public static <E> IBuilder<E> slice(Iterator<E> it, int start, int stop,
-      int by) {
+  public static <E> IBuilder<E> slice(Iterator<E> it, long start, long stop,
+      long by) {
     return new IBuilder<E>(new SlicingIterator<E>(it, start, stop, by));
   }
 
+  /**
+   * See {@link #sort(Iterator, Comparator, Codec)}.
+   */
+  public static <E> IBuilder<E> sort(Iterable<E> it,
+      Comparator<? super E> comp, Codec<E> codec) {
+    return new IBuilder<E>(new SortedIterator<E>(new ExternalSort<E>(comp,
+        codec), it));
+  }
+
+  /**
+   * Sorts the provided iterator, spilling sorted runs to temporary files if it
+   * doesn't fit in memory. The input is read and sorted on the first call to
+   * <tt>hasNext()</tt> or <tt>next()</tt>, and errors writing the temporary
+   * files are thrown as RuntimeExceptions. See {@link ExternalSort}.
+   * 
+   * @param <E>
+   * @param it
+   *          The underlying iterator.
+   * @param comp
+   *          The sort order.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   * @return A sorted iterable.
+   */
+  public static <E> IBuilder<E> sort(Iterator<E> it,
+      Comparator<? super E> comp, Codec<E> codec) {
+    return new IBuilder<E>(new SortedIterator<E>(new ExternalSort<E>(comp,
+        codec), new IBuilder<E>(it)));
+  }
+
+  /**
+   * Sorts the provided iterator by the elements' normalized keys, spilling
+   * sorted runs to temporary files if it doesn't fit in memory. Like
+   * {@link #sort(Iterator, Comparator, Codec)}, the sort runs on the first call
+   * to <tt>hasNext()</tt> or <tt>next()</tt>. See {@link ExternalSort}.
+   * 
+   * @param <E>
+   * @param it
+   *          The underlying iterator.
+   * @param normalizer
+   *          Defines the sort order.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   * @return A sorted iterable.
+   */
+  public static <E> IBuilder<E> sort(Iterator<E> it,
+      KeyNormalizer<? super E> normalizer, Codec<E> codec) {
+    return new IBuilder<E>(new SortedIterator<E>(new ExternalSort<E>(
+        normalizer, codec), new IBuilder<E>(it)));
+  }
+
   /**
    * See {@link TakewhileIterator}.
    */
@@ -566,6 +1473,261 @@ public class Itertools {
     });
   }
 
+  /**
+   * See {@link #tee(Iterator, int)}.
+   */
+  public static <E> List<IBuilder<E>> tee(Iterable<E> iterable, int n) {
+    return tee(iterable.iterator(), n);
+  }
+
+  /**
+   * Splits the iterator into n independent iterables, reading the iterator
+   * only once. Elements are buffered until every iterable has read them. See
+   * {@link Tee}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The iterator to split.
+   * @param n
+   *          The number of iterables.
+   * @return The iterables.
+   */
+  public static <E> List<IBuilder<E>> tee(Iterator<E> iterator, int n) {
+    return builders(new Tee<E>(iterator, n));
+  }
+
+  /**
+   * Like {@link #tee(Iterator, int)}, for iterables read on separate threads:
+   * an iterable more than budget elements ahead of the slowest one blocks
+   * until it catches up.
+   */
+  public static <E> List<IBuilder<E>> tee(Iterator<E> iterator, int n,
+      long budget) {
+    return builders(new Tee<E>(iterator, n, budget));
+  }
+
+  /**
+   * Like {@link #tee(Iterator, int)}, but while an iterable is more than
+   * budget elements ahead of the slowest one, further elements are spilled to
+   * temporary files.
+   */
+  public static <E> List<IBuilder<E>> tee(Iterator<E> iterator, int n,
+      long budget, Codec<E> codec) {
+    return builders(new Tee<E>(iterator, n, budget, codec, null));
+  }
+
+  /**
+   * See {@link #topK(Iterator, int, Comparator)}.
+   */
+  public static <E> IBuilder<E> topK(Iterable<E> iterator, int k,
+      Comparator<? super E> comp) {
+    return topK(iterator.iterator(), k, comp);
+  }
+
+  /**
+   * Creates an Iterable over the k largest elements of the provided iterator,
+   * largest first. The iterator is consumed in a single pass keeping only k
+   * elements in memory, on the first call to <tt>hasNext()</tt> or
+   * <tt>next()</tt>. See {@link TopK}.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @param k
+   *          The number of elements to return.
+   * @param comp
+   *          The ordering.
+   * @return An iterable over at most k elements.
+   */
+  public static <E> IBuilder<E> topK(final Iterator<E> iterator, final int k,
+      final Comparator<? super E> comp) {
+    return new IBuilder<E>(new Iterator<E>() {
+      private Iterator<E> result;
+
+      private Iterator<E> result() {
+        if (result == null) {
+          TopK<E> top = new TopK<E>(k, comp);
+          top.addAll(iterator);
+          result = indexedIterator(top.result());
+        }
+        return result;
+      }
+
+      public boolean hasNext() {
+        return result().hasNext();
+      }
+
+      public E next() {
+        return result().next();
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    });
+  }
+
+  /**
+   * Creates an Iterable over the elements in either <tt>a</tt> or <tt>b</tt>.
+   * Both inputs must be sorted by the comparator and free of duplicates. See
+   * {@link SetOperationIterator}.
+   * 
+   * @param <E>
+   * @param a
+   *          The first sorted input.
+   * @param b
+   *          The second sorted input.
+   * @param comp
+   *          The order of both inputs.
+   * @return A sorted iterable.
+   */
+  public static <E> IBuilder<E> union(Iterable<E> a, Iterable<E> b,
+      Comparator<? super E> comp) {
+    return new IBuilder<E>(new SetOperationIterator<E>(indexedIterator(a),
+        indexedIterator(b), comp, SetOperationIterator.Operation.UNION));
+  }
+
+  /**
+   * See {@link #union(Iterable, Iterable, Comparator)}. Uses the natural
+   * ordering of the elements.
+   */
+  public static <E extends Comparable<? super E>> IBuilder<E> union(
+      Iterable<E> a, Iterable<E> b) {
+    return union(a, b, Itertools.<E> naturalOrder());
+  }
+
+  /**
+   * See {@link #uniq(Iterator)}.
+   */
+  public static <E> IBuilder<E> uniq(Iterable<E> iterator) {
+    return uniq(iterator.iterator());
+  }
+
+  /**
+   * Removes repeated adjacent elements, like unix's <tt>uniq</tt>. See
+   * {@link UniqIterator}, and {@link #distinct(Iterator)} for unsorted input.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @return An iterable without repeated adjacent elements.
+   */
+  public static <E> IBuilder<E> uniq(Iterator<E> iterator) {
+    return new IBuilder<E>(new UniqIterator<E>(iterator));
+  }
+
+  /**
+   * See {@link #uniqCount(Iterator)}.
+   */
+  public static <E> IBuilder<Pair<E, Long>> uniqCount(Iterable<E> iterator) {
+    return uniqCount(iterator.iterator());
+  }
+
+  /**
+   * Collapses repeated adjacent elements into (element, count) pairs, like
+   * <tt>uniq -c</tt>. To avoid creating the pairs, use {@link UniqIterator}
+   * and its {@link UniqIterator#count()} directly.
+   * 
+   * @param <E>
+   * @param iterator
+   *          The underlying iterator.
+   * @return An iterable over elements and the lengths of their runs.
+   */
+  public static <E> IBuilder<Pair<E, Long>> uniqCount(Iterator<E> iterator) {
+    final UniqIterator<E> uniq = new UniqIterator<E>(iterator);
+    return new IBuilder<Pair<E, Long>>(new MappingIterator<E, Pair<E, Long>>(
+        uniq) {
+      @Override
+      public Pair<E, Long> map(E item) {
+        return new Pair<E, Long>(item, uniq.count());
+      }
+    });
+  }
+
+  /**
+   * Aggregates windows of size consecutive elements, starting every slide
+   * elements (tumbling windows when slide == size). Produces (start position,
+   * aggregate) pairs. Invertible aggregates, such as
+   * {@link itertools.aggregate.Aggregators#sum(Mapper)}, are updated
+   * incrementally as the window slides. See {@link CountWindowIterator}.
+   * 
+   * @param <E>
+   * @param <R>
+   *          Aggregate type.
+   * @param iterator
+   *          The underlying iterator.
+   * @param size
+   *          The number of elements in a window.
+   * @param slide
+   *          The number of elements between the starts of windows.
+   * @param factory
+   *          Creates the aggregators.
+   * @return An iterable over window positions and aggregates.
+   */
+  public static <E, R> IBuilder<Pair<Long, R>> window(Iterator<E> iterator,
+      int size, int slide, AggregatorFactory<? super E, ? extends R> factory) {
+    return new IBuilder<Pair<Long, R>>(new CountWindowIterator<E, R>(iterator,
+        size, slide, factory));
+  }
+
+  /**
+   * Aggregates windows of event time [start, start + size), starting at every
+   * multiple of slide, over elements ordered by time. Produces (start time,
+   * aggregate) pairs for the windows holding elements. See
+   * {@link TimeWindowIterator}.
+   * 
+   * @param <E>
+   * @param <R>
+   *          Aggregate type.
+   * @param iterator
+   *          The underlying iterator, ordered by time.
+   * @param time
+   *          Extracts the time of an element.
+   * @param size
+   *          The length of a window.
+   * @param slide
+   *          The time between the starts of windows.
+   * @param factory
+   *          Creates the aggregators.
+   * @return An iterable over window start times and aggregates.
+   */
+  public static <E, R> IBuilder<Pair<Long, R>> window(Iterator<E> iterator,
+      LongMapper<? super E> time, long size, long slide,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    return new IBuilder<Pair<Long, R>>(new TimeWindowIterator<E, R>(iterator,
+        time, size, slide, factory));
+  }
+
+  /**
+   * Creates an Iterable over the elements in exactly one of <tt>a</tt> and
+   * <tt>b</tt>.
+   * Both inputs must be sorted by the comparator and free of duplicates. See
+   * {@link SetOperationIterator}.
+   * 
+   * @param <E>
+   * @param a
+   *          The first sorted input.
+   * @param b
+   *          The second sorted input.
+   * @param comp
+   *          The order of both inputs.
+   * @return A sorted iterable.
+   */
+  public static <E> IBuilder<E> xor(Iterable<E> a, Iterable<E> b,
+      Comparator<? super E> comp) {
+    return new IBuilder<E>(new SetOperationIterator<E>(indexedIterator(a),
+        indexedIterator(b), comp, SetOperationIterator.Operation.SYMMETRIC_DIFFERENCE));
+  }
+
+  /**
+   * See {@link #xor(Iterable, Iterable, Comparator)}. Uses the natural
+   * ordering of the elements.
+   */
+  public static <E extends Comparable<? super E>> IBuilder<E> xor(
+      Iterable<E> a, Iterable<E> b) {
+    return xor(a, b, Itertools.<E> naturalOrder());
+  }
+
   /**
    * See {@link #zip(Iterator)}.
    */
@@ -595,4 +1757,146 @@ public class Itertools {
   public static <E> IBuilder<List<E>> zip(Iterable<E>... iterators) {
     return zip(Arrays.asList(iterators));
   }
+
+  /**
+   * Creates an iterable over batches of up to batchSize zipped rows, stored by
+   * column. See {@link BatchZippingIterator}.
+   * 
+   * @param <E>
+   * @param iterators
+   *          The iterables to zip.
+   * @param batchSize
+   *          The maximum number of rows in a batch.
+   * @param longest
+   *          If true, zip to the end of the longest iterable, otherwise of the
+   *          shortest.
+   * @param fill
+   *          The value used for exhausted iterables.
+   * @param reuseBatch
+   *          If true, the same batch object is overwritten and returned each
+   *          time.
+   * @return An iterable over batches.
+   */
+  public static <E> IBuilder<BatchZippingIterator.Batch<E>> zipBatches(
+      Iterable<? extends Iterable<E>> iterators, int batchSize,
+      boolean longest, E fill, boolean reuseBatch) {
+    return new IBuilder<BatchZippingIterator.Batch<E>>(
+        new BatchZippingIterator<E>(iterators.iterator(), batchSize, longest,
+            fill, reuseBatch));
+  }
+
+  /**
+   * Like {@link #zip(Iterator)}, but returns fill instead of null for exhausted
+   * iterables.
+   */
+  public static <E> IBuilder<List<E>> zipLongest(
+      Iterable<? extends Iterable<E>> iterators, E fill) {
+    return new IBuilder<List<E>>(new ZippingIterator<E>(iterators.iterator(),
+        true, fill));
+  }
+
+  /**
+   * Creates an iterable over pairs of elements from a and b, which may be of
+   * different types, ending with the shorter of the two. See
+   * {@link PairZippingIterator}.
+   */
+  public static <A, B> IBuilder<Pair<A, B>> zipPairs(Iterable<A> a,
+      Iterable<B> b) {
+    return new IBuilder<Pair<A, B>>(new PairZippingIterator<A, B>(a
+        .iterator(), b.iterator()));
+  }
+
+  /**
+   * Like {@link #zipPairs(Iterable, Iterable)}, but ends with the longer of the
+   * two, pairing the rest of its elements with a fill value.
+   */
+  public static <A, B> IBuilder<Pair<A, B>> zipPairsLongest(Iterable<A> a,
+      Iterable<B> b, A fillA, B fillB) {
+    return new IBuilder<Pair<A, B>>(new PairZippingIterator<A, B>(a
+        .iterator(), b.iterator(), fillA, fillB));
+  }
+
+  /**
+   * Like {@link #zip(Iterator)}, but ends as soon as any of the iterables is
+   * exhausted.
+   */
+  public static <E> IBuilder<List<E>> zipShortest(
+      Iterable<? extends Iterable<E>> iterators) {
+    return new IBuilder<List<E>>(new ZippingIterator<E>(iterators.iterator(),
+        false, null));
+  }
+
+  private static <E> List<IBuilder<E>> builders(Tee<E> tee) {
+    List<IBuilder<E>> builders = new ArrayList<IBuilder<E>>();
+    for (Iterator<E> it : tee.iterators()) {
+      builders.add(new IBuilder<E>(it));
+    }
+    return builders;
+  }
+
+  /**
+   * Returns a comparator for the natural ordering of E.
+   */
+  private static <E extends Comparable<? super E>> Comparator<E> naturalOrder() {
+    return new Comparator<E>() {
+      public int compare(E o1, E o2) {
+        return o1.compareTo(o2);
+      }
+    };
+  }
+
+  /**
+   * Iterates over random-access lists by index so that they can be searched by
+   * {@link Seekable#seek(Object, Comparator)}, skipped over in O(1) or read in
+   * bulk.
+   */
+  static <E> Iterator<E> indexedIterator(Iterable<E> it) {
+    if (it instanceof List<?> && it instanceof RandomAccess) {
+      return new IndexedIterator<E>((List<E>) it);
+    }
+    return it.iterator();
+  }
+
+  /**
+   * Sorts its input on the first call to hasNext() or next(), so that building
+   * a sort doesn't read the input.
+   */
+  private static class SortedIterator<E> implements Iterator<E>, Closeable {
+    private final ExternalSort<E> sort;
+    private Iterable<E> input;
+    private Iterator<E> result;
+
+    SortedIterator(ExternalSort<E> sort, Iterable<E> input) {
+      this.sort = sort;
+      this.input = input;
+    }
+
+    private Iterator<E> result() {
+      if (result == null) {
+        try {
+          result = sort.sort(input);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        input = null;
+      }
+      return result;
+    }
+
+    public boolean hasNext() {
+      return result().hasNext();
+    }
+
+    public E next() {
+      return result().next();
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      if (result != null) Itertools.close(result);
+    }
+  }
 }
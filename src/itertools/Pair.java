@@ -0,0 +1,75 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools;
+
+import itertools.functions.Combiner;
+
+/**
+ * An immutable pair of objects. Either element may be null.
+ * 
+ * @param <A>
+ *          Type of the first element.
+ * @param <B>
+ *          Type of the second element.
+ */
+public class Pair<A, B> {
+  private final A first;
+  private final B second;
+
+  public Pair(A first, B second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  public A getFirst() {
+    return first;
+  }
+
+  public B getSecond() {
+    return second;
+  }
+
+  /**
+   * Returns a {@link Combiner} that simply pairs its two arguments.
+   */
+  public static <A, B> Combiner<A, B, Pair<A, B>> combiner() {
+    return new Combiner<A, B, Pair<A, B>>() {
+      public Pair<A, B> combine(A left, B right) {
+        return new Pair<A, B>(left, right);
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof Pair<?, ?>)) return false;
+    Pair<?, ?> p = (Pair<?, ?>) o;
+    return (first == null ? p.first == null : first.equals(p.first))
+        && (second == null ? p.second == null : second.equals(p.second));
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (first == null ? 0 : first.hashCode())
+        + (second == null ? 0 : second.hashCode());
+  }
+
+  @Override
+  public String toString() {
+    return "(" + first + ", " + second + ")";
+  }
+}
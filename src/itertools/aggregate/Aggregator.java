@@ -0,0 +1,37 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+/**
+ * Accumulates a result from a stream of elements, one element at a time. See
+ * {@link Aggregators} for common aggregators.
+ * 
+ * @param <E>
+ *          Input type
+ * @param <R>
+ *          Result type
+ */
+public interface Aggregator<E, R> {
+  /**
+   * Adds an element to the aggregate.
+   */
+  public void add(E item);
+
+  /**
+   * @return The result for the elements added so far.
+   */
+  public R result();
+}
@@ -0,0 +1,408 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import itertools.functions.Combiner;
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Static access to {@link AggregatorFactory}s for common aggregates. The
+ * count, sum, average and variance aggregators are
+ * {@link InvertibleAggregator}s, as are compositions of them.
+ */
+public class Aggregators {
+
+  /**
+   * Counts the elements.
+   */
+  public static <E> AggregatorFactory<E, Long> count() {
+    return new AggregatorFactory<E, Long>() {
+      public Aggregator<E, Long> create() {
+        return new InvertibleAggregator<E, Long>() {
+          long count = 0;
+
+          public void add(E item) {
+            ++count;
+          }
+
+          public void remove(E item) {
+            --count;
+          }
+
+          public Long result() {
+            return count;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Sums a numeric value of each element as a long.
+   */
+  public static <E> AggregatorFactory<E, Long> sumLong(
+      final Mapper<? super E, ? extends Number> value) {
+    return new AggregatorFactory<E, Long>() {
+      public Aggregator<E, Long> create() {
+        return new InvertibleAggregator<E, Long>() {
+          long sum = 0;
+
+          public void add(E item) {
+            sum += value.map(item).longValue();
+          }
+
+          public void remove(E item) {
+            sum -= value.map(item).longValue();
+          }
+
+          public Long result() {
+            return sum;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Sums a numeric value of each element as a double.
+   */
+  public static <E> AggregatorFactory<E, Double> sum(
+      final Mapper<? super E, ? extends Number> value) {
+    return new AggregatorFactory<E, Double>() {
+      public Aggregator<E, Double> create() {
+        return new InvertibleAggregator<E, Double>() {
+          double sum = 0;
+
+          public void add(E item) {
+            sum += value.map(item).doubleValue();
+          }
+
+          public void remove(E item) {
+            sum -= value.map(item).doubleValue();
+          }
+
+          public Double result() {
+            return sum;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Averages a numeric value of each element. The result is null if there are
+   * no elements.
+   */
+  public static <E> AggregatorFactory<E, Double> avg(
+      final Mapper<? super E, ? extends Number> value) {
+    return new AggregatorFactory<E, Double>() {
+      public Aggregator<E, Double> create() {
+        return new InvertibleAggregator<E, Double>() {
+          double sum = 0;
+          long count = 0;
+
+          public void add(E item) {
+            sum += value.map(item).doubleValue();
+            ++count;
+          }
+
+          public void remove(E item) {
+            sum -= value.map(item).doubleValue();
+            --count;
+          }
+
+          public Double result() {
+            return (count == 0) ? null : sum / count;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Finds the smallest element. The result is null if there are no elements.
+   */
+  public static <E> AggregatorFactory<E, E> min(
+      final Comparator<? super E> comp) {
+    return new AggregatorFactory<E, E>() {
+      public Aggregator<E, E> create() {
+        return new Aggregator<E, E>() {
+          E min = null;
+          boolean empty = true;
+
+          public void add(E item) {
+            if (empty || comp.compare(item, min) < 0) min = item;
+            empty = false;
+          }
+
+          public E result() {
+            return min;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Finds the largest element. The result is null if there are no elements.
+   */
+  public static <E> AggregatorFactory<E, E> max(
+      final Comparator<? super E> comp) {
+    return min(Collections.reverseOrder(comp));
+  }
+
+  /**
+   * Computes the sample variance of a numeric value of each element, with
+   * Welford's online algorithm. The result is null if there are fewer than two
+   * elements.
+   */
+  public static <E> AggregatorFactory<E, Double> variance(
+      final Mapper<? super E, ? extends Number> value) {
+    return new AggregatorFactory<E, Double>() {
+      public Aggregator<E, Double> create() {
+        return new InvertibleAggregator<E, Double>() {
+          long count = 0;
+          double mean = 0;
+          double m2 = 0;
+
+          public void add(E item) {
+            double x = value.map(item).doubleValue();
+            ++count;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+          }
+
+          public void remove(E item) {
+            double x = value.map(item).doubleValue();
+            if (--count == 0) {
+              mean = 0;
+              m2 = 0;
+              return;
+            }
+            double oldMean = mean;
+            mean = (oldMean * (count + 1) - x) / count;
+            m2 -= (x - mean) * (x - oldMean);
+          }
+
+          public Double result() {
+            return (count < 2) ? null : m2 / (count - 1);
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Keeps the first element. The result is null if there are no elements.
+   */
+  public static <E> AggregatorFactory<E, E> first() {
+    return new AggregatorFactory<E, E>() {
+      public Aggregator<E, E> create() {
+        return new Aggregator<E, E>() {
+          E first = null;
+          boolean empty = true;
+
+          public void add(E item) {
+            if (empty) first = item;
+            empty = false;
+          }
+
+          public E result() {
+            return first;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Keeps the last element. The result is null if there are no elements.
+   */
+  public static <E> AggregatorFactory<E, E> last() {
+    return new AggregatorFactory<E, E>() {
+      public Aggregator<E, E> create() {
+        return new Aggregator<E, E>() {
+          E last = null;
+
+          public void add(E item) {
+            last = item;
+          }
+
+          public E result() {
+            return last;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Counts the distinct elements, by {@link Object#equals(Object)}. The
+   * distinct elements are kept in memory.
+   */
+  public static <E> AggregatorFactory<E, Long> distinctCount() {
+    return new AggregatorFactory<E, Long>() {
+      public Aggregator<E, Long> create() {
+        return new Aggregator<E, Long>() {
+          Set<E> seen = new HashSet<E>();
+
+          public void add(E item) {
+            seen.add(item);
+          }
+
+          public Long result() {
+            return (long) seen.size();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Folds the elements into an accumulator, starting from initial: each
+   * element replaces the accumulator with folder.combine(accumulator, element).
+   * The initial value is shared by all created aggregators, so it should not
+   * be modified by the folder.
+   */
+  public static <E, R> AggregatorFactory<E, R> reduce(
+      final Combiner<R, ? super E, R> folder, final R initial) {
+    return new AggregatorFactory<E, R>() {
+      public Aggregator<E, R> create() {
+        return new Aggregator<E, R>() {
+          R acc = initial;
+
+          public void add(E item) {
+            acc = folder.combine(acc, item);
+          }
+
+          public R result() {
+            return acc;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Computes several aggregates in a single pass. The result holds each
+   * aggregate's result, in the order of the factories. If every created
+   * aggregator is an {@link InvertibleAggregator}, so is the composite.
+   */
+  public static <E> AggregatorFactory<E, List<Object>> compose(
+      final List<? extends AggregatorFactory<? super E, ?>> factories) {
+    return new AggregatorFactory<E, List<Object>>() {
+      public Aggregator<E, List<Object>> create() {
+        List<Aggregator<? super E, ?>> aggs = new ArrayList<Aggregator<? super E, ?>>(
+            factories.size());
+        boolean invertible = true;
+        for (AggregatorFactory<? super E, ?> factory : factories) {
+          Aggregator<? super E, ?> agg = factory.create();
+          invertible &= agg instanceof InvertibleAggregator<?, ?>;
+          aggs.add(agg);
+        }
+        return invertible ? new InvertibleComposite<E>(aggs)
+            : new Composite<E>(aggs);
+      }
+    };
+  }
+
+  /**
+   * See {@link #compose(List)}.
+   */
+  public static <E> AggregatorFactory<E, List<Object>> compose(
+      AggregatorFactory<? super E, ?> a, AggregatorFactory<? super E, ?> b) {
+    List<AggregatorFactory<? super E, ?>> factories = new ArrayList<AggregatorFactory<? super E, ?>>(
+        2);
+    factories.add(a);
+    factories.add(b);
+    return compose(factories);
+  }
+
+  /**
+   * See {@link #compose(List)}.
+   */
+  public static <E> AggregatorFactory<E, List<Object>> compose(
+      AggregatorFactory<? super E, ?> a, AggregatorFactory<? super E, ?> b,
+      AggregatorFactory<? super E, ?> c) {
+    List<AggregatorFactory<? super E, ?>> factories = new ArrayList<AggregatorFactory<? super E, ?>>(
+        3);
+    factories.add(a);
+    factories.add(b);
+    factories.add(c);
+    return compose(factories);
+  }
+
+  /**
+   * See {@link #compose(List)}. Java warns about generic array creation when
+   * calling this; the List, two- and three-argument versions avoid that.
+   */
+  @SuppressWarnings("unchecked")
+  public static <E> AggregatorFactory<E, List<Object>> compose(
+      AggregatorFactory<? super E, ?>... factories) {
+    return compose(Arrays
+        .<AggregatorFactory<? super E, ?>> asList(factories));
+  }
+
+  /**
+   * The aggregator created by {@link #compose(List)}.
+   */
+  private static class Composite<E> implements Aggregator<E, List<Object>> {
+    final List<Aggregator<? super E, ?>> aggs;
+
+    Composite(List<Aggregator<? super E, ?>> aggs) {
+      this.aggs = aggs;
+    }
+
+    public void add(E item) {
+      for (Aggregator<? super E, ?> agg : aggs) {
+        agg.add(item);
+      }
+    }
+
+    public List<Object> result() {
+      List<Object> results = new ArrayList<Object>(aggs.size());
+      for (Aggregator<? super E, ?> agg : aggs) {
+        results.add(agg.result());
+      }
+      return results;
+    }
+  }
+
+  /**
+   * A composite of {@link InvertibleAggregator}s.
+   */
+  private static class InvertibleComposite<E> extends Composite<E> implements
+      InvertibleAggregator<E, List<Object>> {
+    InvertibleComposite(List<Aggregator<? super E, ?>> aggs) {
+      super(aggs);
+    }
+
+    public void remove(E item) {
+      for (Aggregator<? super E, ?> agg : aggs) {
+        ((InvertibleAggregator<? super E, ?>) agg).remove(item);
+      }
+    }
+  }
+}
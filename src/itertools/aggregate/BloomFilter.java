@@ -0,0 +1,149 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A set that answers membership queries in a fixed number of bits, allowing a
+ * configurable rate of false positives but no false negatives. Each element
+ * sets numHashes bits, chosen by double hashing from
+ * {@link Hashing#hash64(Object)}.
+ * 
+ * Filters of the same size, e.g. filled from separate partitions, are combined
+ * with {@link #merge(BloomFilter)}, and can be stored with {@link #toBytes()}.
+ * 
+ * @param <E>
+ */
+public class BloomFilter<E> {
+  private final long[] bits;
+  private final long numBits;
+  private final int numHashes;
+
+  /**
+   * Creates a filter sized to hold expectedElements elements with the given
+   * false positive rate.
+   */
+  public BloomFilter(long expectedElements, double falsePositiveRate) {
+    this(optimalBits(expectedElements, falsePositiveRate), optimalHashes(
+        expectedElements, optimalBits(expectedElements, falsePositiveRate)));
+  }
+
+  /**
+   * @param numBits
+   *          The number of bits, rounded up to a multiple of 64.
+   * @param numHashes
+   *          The number of bits set by each element.
+   */
+  public BloomFilter(long numBits, int numHashes) {
+    if (numBits < 1 || numHashes < 1) { throw new IllegalArgumentException(
+        "numBits and numHashes must be positive"); }
+    this.bits = new long[(int) ((numBits + 63) / 64)];
+    this.numBits = bits.length * 64L;
+    this.numHashes = numHashes;
+  }
+
+  private static long optimalBits(long n, double p) {
+    if (p <= 0 || p >= 1) { throw new IllegalArgumentException(
+        "falsePositiveRate must be between 0 and 1"); }
+    return (long) Math.ceil(-Math.max(n, 1) * Math.log(p)
+        / (Math.log(2) * Math.log(2)));
+  }
+
+  private static int optimalHashes(long n, long m) {
+    return Math.max(1, (int) Math.round((double) m / Math.max(n, 1)
+        * Math.log(2)));
+  }
+
+  /**
+   * Adds an element.
+   * 
+   * @return true if the element was not already in the filter, i.e. if any of
+   *         its bits were not set. A false return may be a false positive.
+   */
+  public boolean put(E item) {
+    return putHash(Hashing.hash64(item));
+  }
+
+  /**
+   * Adds an element by its 64-bit hash.
+   */
+  public boolean putHash(long hash) {
+    long h1 = hash;
+    long h2 = Hashing.mix64(hash) | 1;
+    boolean changed = false;
+    for (int i = 0; i < numHashes; ++i) {
+      long bit = ((h1 + i * h2) >>> 1) % numBits;
+      long mask = 1L << bit;
+      int word = (int) (bit >>> 6);
+      if ((bits[word] & mask) == 0) {
+        bits[word] |= mask;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @return false if the element was never added, true if it probably was.
+   */
+  public boolean mightContain(E item) {
+    long h1 = Hashing.hash64(item);
+    long h2 = Hashing.mix64(h1) | 1;
+    for (int i = 0; i < numHashes; ++i) {
+      long bit = ((h1 + i * h2) >>> 1) % numBits;
+      if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Adds the elements of another filter of the same size to this one.
+   */
+  public void merge(BloomFilter<? extends E> other) {
+    if (other.numBits != numBits || other.numHashes != numHashes) { throw new IllegalArgumentException(
+        "filters differ in size"); }
+    for (int i = 0; i < bits.length; ++i) {
+      bits[i] |= other.bits[i];
+    }
+  }
+
+  /**
+   * @return The number of hashes and the bits.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buf = ByteBuffer.allocate(4 + 8 * bits.length);
+    buf.putInt(numHashes);
+    for (long word : bits) {
+      buf.putLong(word);
+    }
+    return buf.array();
+  }
+
+  /**
+   * Reads a filter written by {@link #toBytes()}.
+   */
+  public static <E> BloomFilter<E> fromBytes(byte[] bytes) {
+    ByteBuffer buf = ByteBuffer.wrap(bytes);
+    int numHashes = buf.getInt();
+    BloomFilter<E> filter = new BloomFilter<E>((bytes.length - 4) / 8 * 64L,
+        numHashes);
+    for (int i = 0; i < filter.bits.length; ++i) {
+      filter.bits[i] = buf.getLong();
+    }
+    return filter;
+  }
+}
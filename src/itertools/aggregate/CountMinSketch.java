@@ -0,0 +1,167 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Estimates how often each element was added, in a fixed depth x width table
+ * of counters. Each element increments one counter per row, chosen by
+ * hashing, and its estimated count is the smallest of those counters. The
+ * estimate is never too low, and with probability 1 - e^-depth is too high by
+ * at most e/width of the total count.
+ * 
+ * Sketches of the same dimensions, e.g. filled from separate partitions, are
+ * combined with {@link #merge(CountMinSketch)}, and can be stored with
+ * {@link #toBytes()}. The result of this aggregator is the sketch itself.
+ * 
+ * @param <E>
+ */
+public class CountMinSketch<E> implements Aggregator<E, CountMinSketch<E>> {
+  private final int depth;
+  private final int width;
+  private final long[] counts;
+  private long total = 0;
+
+  /**
+   * @param depth
+   *          The number of rows (hash functions).
+   * @param width
+   *          The number of counters per row.
+   */
+  public CountMinSketch(int depth, int width) {
+    if (depth < 1 || width < 1) { throw new IllegalArgumentException(
+        "depth and width must be positive"); }
+    this.depth = depth;
+    this.width = width;
+    this.counts = new long[depth * width];
+  }
+
+  /**
+   * Creates a sketch whose estimates are too high by at most epsilon times the
+   * total count, with probability 1 - delta.
+   */
+  public static <E> CountMinSketch<E> withError(double epsilon, double delta) {
+    return new CountMinSketch<E>((int) Math.ceil(Math.log(1 / delta)),
+        (int) Math.ceil(Math.E / epsilon));
+  }
+
+  public void add(E item) {
+    add(item, 1);
+  }
+
+  /**
+   * Adds count occurrences of the item.
+   */
+  public void add(E item, long count) {
+    addHash(Hashing.hash64(item), count);
+  }
+
+  /**
+   * Adds count occurrences of an element by its 64-bit hash.
+   */
+  public void addHash(long hash, long count) {
+    // the rows' hash functions are derived from two halves of the hash
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int row = 0; row < depth; ++row) {
+      counts[row * width + index(h1 + row * h2)] += count;
+    }
+    total += count;
+  }
+
+  private int index(int h) {
+    return (h & Integer.MAX_VALUE) % width;
+  }
+
+  /**
+   * @return An estimate, never too low, of the number of times item was
+   *         added.
+   */
+  public long estimate(E item) {
+    return estimateHash(Hashing.hash64(item));
+  }
+
+  public long estimateHash(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    long min = Long.MAX_VALUE;
+    for (int row = 0; row < depth; ++row) {
+      min = Math.min(min, counts[row * width + index(h1 + row * h2)]);
+    }
+    return min;
+  }
+
+  /**
+   * @return The total count added.
+   */
+  public long total() {
+    return total;
+  }
+
+  public CountMinSketch<E> result() {
+    return this;
+  }
+
+  /**
+   * Adds the counts of another sketch of the same dimensions to this one.
+   */
+  public void merge(CountMinSketch<? extends E> other) {
+    if (other.depth != depth || other.width != width) { throw new IllegalArgumentException(
+        "dimensions differ"); }
+    for (int i = 0; i < counts.length; ++i) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+  }
+
+  /**
+   * @return The dimensions, total and counters.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buf = ByteBuffer.allocate(4 + 4 + 8 + 8 * counts.length);
+    buf.putInt(depth).putInt(width).putLong(total);
+    for (long c : counts) {
+      buf.putLong(c);
+    }
+    return buf.array();
+  }
+
+  /**
+   * Reads a sketch written by {@link #toBytes()}.
+   */
+  public static <E> CountMinSketch<E> fromBytes(byte[] bytes) {
+    ByteBuffer buf = ByteBuffer.wrap(bytes);
+    CountMinSketch<E> sketch = new CountMinSketch<E>(buf.getInt(), buf.getInt());
+    sketch.total = buf.getLong();
+    for (int i = 0; i < sketch.counts.length; ++i) {
+      sketch.counts[i] = buf.getLong();
+    }
+    return sketch;
+  }
+
+  /**
+   * Creates a sketch of the given dimensions for each group or key.
+   */
+  public static <E> AggregatorFactory<E, CountMinSketch<E>> factory(
+      final int depth, final int width) {
+    return new AggregatorFactory<E, CountMinSketch<E>>() {
+      public Aggregator<E, CountMinSketch<E>> create() {
+        return new CountMinSketch<E>(depth, width);
+      }
+    };
+  }
+}
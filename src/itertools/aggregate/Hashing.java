@@ -0,0 +1,98 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+/**
+ * Hash functions for hash tables, partitioning and sketches. The mixing
+ * functions are the finalizers of MurmurHash3, which spread every input bit
+ * over the whole output.
+ */
+public class Hashing {
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  /**
+   * Mixes the bits of a 32-bit hash code.
+   */
+  public static int mix32(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * Mixes the bits of a 64-bit value.
+   */
+  public static long mix64(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * A 64-bit hash of an object. Strings are hashed over all their characters,
+   * so that distinct strings rarely collide even in very large sets; other
+   * objects are hashed from {@link Object#hashCode()}, and so have at most
+   * 2^32 distinct hashes. Null hashes to 0.
+   */
+  public static long hash64(Object o) {
+    if (o == null) return 0;
+    if (o instanceof String) {
+      String s = (String) o;
+      long h = s.length() * C1;
+      for (int i = 0; i < s.length(); ++i) {
+        h = (h ^ s.charAt(i)) * C1;
+        h = Long.rotateLeft(h, 31);
+      }
+      return mix64(h);
+    }
+    if (o instanceof Long) return mix64(((Long) o).longValue());
+    return mix64(o.hashCode());
+  }
+
+  /**
+   * A second 64-bit hash of an object, computed independently of
+   * {@link #hash64(Object)} for strings, so that the two together form a
+   * 128-bit fingerprint. Other objects have at most 64 bits of hash, so for
+   * them this adds nothing.
+   */
+  public static long hash64Alt(Object o) {
+    if (o instanceof String) {
+      String s = (String) o;
+      long h = s.length() * C2;
+      for (int i = s.length() - 1; i >= 0; --i) {
+        h = (h ^ s.charAt(i)) * C2;
+        h = Long.rotateLeft(h, 29);
+      }
+      return mix64(h);
+    }
+    return mix64(hash64(o) ^ C2);
+  }
+
+  /**
+   * Like {@link #hash64(Object)}, but with a different hash function for each
+   * seed.
+   */
+  public static long hash64(Object o, int seed) {
+    return mix64(hash64(o) + seed * C1);
+  }
+}
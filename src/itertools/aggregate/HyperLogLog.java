@@ -0,0 +1,168 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the number of distinct elements added to it, in 2^precision bytes
+ * of memory. The relative standard error of the estimate is about
+ * 1.04/sqrt(2^precision), e.g. 0.8% for the default precision of 14 (16KB).
+ * Elements are hashed with {@link Hashing#hash64(Object)}; small cardinalities
+ * are estimated by linear counting.
+ * 
+ * Sketches with the same precision, e.g. filled from separate partitions, are
+ * combined with {@link #merge(HyperLogLog)}, and can be stored with
+ * {@link #toBytes()}.
+ * 
+ * @param <E>
+ */
+public class HyperLogLog<E> implements Aggregator<E, Long> {
+  public static final int DEFAULT_PRECISION = 14;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * @param precision
+   *          log2 of the number of registers, between 4 and 18.
+   */
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18) { throw new IllegalArgumentException(
+        "precision must be between 4 and 18"); }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public void add(E item) {
+    addHash(Hashing.hash64(item));
+  }
+
+  /**
+   * Adds an element by its 64-bit hash, e.g. to avoid boxing primitives. The
+   * hash should be well mixed, e.g. by {@link Hashing#mix64(long)}.
+   */
+  public void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // the guard bit bounds the rank at 64 - precision + 1
+    long w = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * @return The estimated number of distinct elements.
+   */
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < m; ++i) {
+      sum += 1.0 / (1L << registers[i]);
+      if (registers[i] == 0) ++zeros;
+    }
+    double estimate = alpha(m) * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      // linear counting
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+
+  public Long result() {
+    return estimate();
+  }
+
+  /**
+   * Adds the elements of another sketch with the same precision to this one.
+   */
+  public void merge(HyperLogLog<? extends E> other) {
+    if (other.precision != precision) { throw new IllegalArgumentException(
+        "precisions differ"); }
+    for (int i = 0; i < registers.length; ++i) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * @return The precision followed by one byte per register.
+   */
+  public byte[] toBytes() {
+    byte[] buf = new byte[registers.length + 1];
+    buf[0] = (byte) precision;
+    System.arraycopy(registers, 0, buf, 1, registers.length);
+    return buf;
+  }
+
+  /**
+   * Reads a sketch written by {@link #toBytes()}.
+   */
+  public static <E> HyperLogLog<E> fromBytes(byte[] buf) {
+    HyperLogLog<E> hll = new HyperLogLog<E>(buf[0]);
+    if (buf.length != hll.registers.length + 1) { throw new IllegalArgumentException(
+        "bad sketch length " + buf.length); }
+    System.arraycopy(buf, 1, hll.registers, 0, hll.registers.length);
+    return hll;
+  }
+
+  /**
+   * Creates a sketch of the given precision for each group or key, producing
+   * the estimated distinct count.
+   */
+  public static <E> AggregatorFactory<E, Long> factory(final int precision) {
+    return new AggregatorFactory<E, Long>() {
+      public Aggregator<E, Long> create() {
+        return new HyperLogLog<E>(precision);
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return (obj instanceof HyperLogLog<?>)
+        && Arrays.equals(registers, ((HyperLogLog<?>) obj).registers);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(registers);
+  }
+}
@@ -0,0 +1,34 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+/**
+ * An {@link Aggregator} that can also remove elements that were added to it,
+ * e.g. a sum or a count. Sliding windows use this to update their aggregate as
+ * elements leave the window, rather than recomputing it from the window's
+ * elements.
+ * 
+ * @param <E>
+ *          Input type
+ * @param <R>
+ *          Result type
+ */
+public interface InvertibleAggregator<E, R> extends Aggregator<E, R> {
+  /**
+   * Removes an element that was previously added to the aggregate.
+   */
+  public void remove(E item);
+}
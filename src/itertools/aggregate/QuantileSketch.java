@@ -0,0 +1,340 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import itertools.functions.Mapper;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Estimates quantiles and ranks of a stream of numbers in bounded memory, with
+ * a KLL sketch: a stack of compactors, where the compactor at level h holds
+ * items of weight 2^h. When a compactor fills up it is sorted, and every other
+ * item (starting at a random offset) is promoted to the next level, halving
+ * the items it holds. Compactor capacities shrink geometrically (by 2/3) down
+ * the stack, so the sketch holds O(k) items, and ranks are accurate to within
+ * about 1.7/k of the number of items (1% for the default k of 200).
+ * 
+ * Sketches, e.g. filled from separate partitions, are combined with
+ * {@link #merge(QuantileSketch)}, and can be stored with {@link #toBytes()}.
+ * The result of this aggregator is the sketch itself.
+ */
+public class QuantileSketch implements Aggregator<Number, QuantileSketch> {
+  public static final int DEFAULT_K = 200;
+  private static final double SHRINK = 2.0 / 3.0;
+  private static final int MIN_CAPACITY = 2;
+
+  private final int k;
+  private long count = 0;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+  private double[][] levels = new double[1][];
+  private int[] sizes = new int[1];
+  private int numLevels = 1;
+  // capacity of each level, recomputed when a level is added
+  private int[] capacities;
+  private final Random random;
+
+  public QuantileSketch() {
+    this(DEFAULT_K);
+  }
+
+  /**
+   * Creates a sketch whose compactions are seeded with k, so that the same
+   * input always gives the same sketch.
+   * 
+   * @param k
+   *          Controls the size and accuracy of the sketch.
+   */
+  public QuantileSketch(int k) {
+    this(k, k);
+  }
+
+  /**
+   * @param k
+   *          Controls the size and accuracy of the sketch.
+   * @param seed
+   *          Seeds the choice of items promoted by each compaction.
+   */
+  public QuantileSketch(int k, long seed) {
+    if (k < MIN_CAPACITY) { throw new IllegalArgumentException("k < "
+        + MIN_CAPACITY); }
+    this.k = k;
+    this.random = new Random(seed);
+    updateCapacities();
+    levels[0] = new double[capacity(0)];
+  }
+
+  public void add(Number item) {
+    add(item.doubleValue());
+  }
+
+  public void add(double value) {
+    if (count == 0 || value < min) min = value;
+    if (count == 0 || value > max) max = value;
+    ++count;
+    append(0, value);
+    // higher levels only grow when level 0 is compacted
+    if (sizes[0] >= capacity(0)) compress();
+  }
+
+  public QuantileSketch result() {
+    return this;
+  }
+
+  /**
+   * @return The number of values added.
+   */
+  public long count() {
+    return count;
+  }
+
+  public double min() {
+    return min;
+  }
+
+  public double max() {
+    return max;
+  }
+
+  private int capacity(int level) {
+    return capacities[level];
+  }
+
+  private void updateCapacities() {
+    capacities = new int[numLevels];
+    for (int level = 0; level < numLevels; ++level) {
+      int depth = numLevels - 1 - level;
+      capacities[level] = Math.max(MIN_CAPACITY, (int) Math.ceil(k
+          * Math.pow(SHRINK, depth)));
+    }
+  }
+
+  private void append(int level, double value) {
+    if (level == numLevels) {
+      addLevel();
+    }
+    if (sizes[level] == levels[level].length) {
+      levels[level] = Arrays.copyOf(levels[level], Math.max(
+          2 * sizes[level], MIN_CAPACITY));
+    }
+    levels[level][sizes[level]++] = value;
+  }
+
+  private void addLevel() {
+    if (numLevels == levels.length) {
+      levels = Arrays.copyOf(levels, numLevels * 2);
+      sizes = Arrays.copyOf(sizes, numLevels * 2);
+    }
+    levels[numLevels] = new double[MIN_CAPACITY];
+    sizes[numLevels] = 0;
+    ++numLevels;
+    updateCapacities();
+  }
+
+  /**
+   * Compacts every level that is at or above its capacity.
+   */
+  private void compress() {
+    for (int level = 0; level < numLevels; ++level) {
+      if (sizes[level] >= capacity(level)) {
+        compact(level);
+      }
+    }
+  }
+
+  private void compact(int level) {
+    double[] items = levels[level];
+    int size = sizes[level];
+    Arrays.sort(items, 0, size);
+    // with an odd number of items, the largest stays behind
+    int pairs = size / 2;
+    int offset = random.nextBoolean() ? 1 : 0;
+    for (int i = 0; i < pairs; ++i) {
+      append(level + 1, items[2 * i + offset]);
+    }
+    items = levels[level];
+    if (size % 2 == 1) {
+      items[0] = items[size - 1];
+      sizes[level] = 1;
+    } else {
+      sizes[level] = 0;
+    }
+  }
+
+  /**
+   * Estimates the value at the given quantile, e.g. 0.5 for the median.
+   * 
+   * @param q
+   *          Between 0 and 1.
+   * @return The estimated quantile, or NaN if the sketch is empty.
+   */
+  public double quantile(double q) {
+    if (q < 0 || q > 1) { throw new IllegalArgumentException(
+        "quantile must be between 0 and 1"); }
+    if (count == 0) return Double.NaN;
+    if (q == 0) return min;
+    if (q == 1) return max;
+    double target = q * count;
+    Cursor c = new Cursor();
+    long cumulative = 0;
+    while (c.hasNext()) {
+      double value = c.next();
+      cumulative += c.weight();
+      if (cumulative >= target) return value;
+    }
+    return max;
+  }
+
+  /**
+   * Estimates the fraction of values that are less than or equal to value.
+   */
+  public double rank(double value) {
+    if (count == 0) return Double.NaN;
+    long weight = 0;
+    for (int level = 0; level < numLevels; ++level) {
+      double[] items = levels[level];
+      for (int i = 0; i < sizes[level]; ++i) {
+        if (items[i] <= value) weight += 1L << level;
+      }
+    }
+    return (double) weight / count;
+  }
+
+  /**
+   * Iterates over the items of all levels in increasing order, by merging the
+   * sorted levels.
+   */
+  private class Cursor {
+    double[][] sorted = new double[numLevels][];
+    int[] positions = new int[numLevels];
+    int lastLevel = -1;
+
+    Cursor() {
+      for (int level = 0; level < numLevels; ++level) {
+        sorted[level] = Arrays.copyOf(levels[level], sizes[level]);
+        Arrays.sort(sorted[level]);
+      }
+    }
+
+    boolean hasNext() {
+      for (int level = 0; level < numLevels; ++level) {
+        if (positions[level] < sorted[level].length) return true;
+      }
+      return false;
+    }
+
+    double next() {
+      lastLevel = -1;
+      for (int level = 0; level < numLevels; ++level) {
+        if (positions[level] < sorted[level].length
+            && (lastLevel < 0 || sorted[level][positions[level]] < sorted[lastLevel][positions[lastLevel]])) {
+          lastLevel = level;
+        }
+      }
+      return sorted[lastLevel][positions[lastLevel]++];
+    }
+
+    long weight() {
+      return 1L << lastLevel;
+    }
+  }
+
+  /**
+   * Adds the values of another sketch to this one.
+   */
+  public void merge(QuantileSketch other) {
+    if (other.count == 0) return;
+    if (count == 0 || other.min < min) min = other.min;
+    if (count == 0 || other.max > max) max = other.max;
+    count += other.count;
+    for (int level = 0; level < other.numLevels; ++level) {
+      for (int i = 0; i < other.sizes[level]; ++i) {
+        append(level, other.levels[level][i]);
+      }
+    }
+    compress();
+  }
+
+  /**
+   * @return k, the count, min, max and the items of each level.
+   */
+  public byte[] toBytes() {
+    int items = 0;
+    for (int level = 0; level < numLevels; ++level) {
+      items += sizes[level];
+    }
+    ByteBuffer buf = ByteBuffer.allocate(4 + 8 + 8 + 8 + 4 + 4 * numLevels + 8
+        * items);
+    buf.putInt(k).putLong(count).putDouble(min).putDouble(max);
+    buf.putInt(numLevels);
+    for (int level = 0; level < numLevels; ++level) {
+      buf.putInt(sizes[level]);
+      for (int i = 0; i < sizes[level]; ++i) {
+        buf.putDouble(levels[level][i]);
+      }
+    }
+    return buf.array();
+  }
+
+  /**
+   * Reads a sketch written by {@link #toBytes()}.
+   */
+  public static QuantileSketch fromBytes(byte[] bytes) {
+    ByteBuffer buf = ByteBuffer.wrap(bytes);
+    QuantileSketch sketch = new QuantileSketch(buf.getInt());
+    sketch.count = buf.getLong();
+    sketch.min = buf.getDouble();
+    sketch.max = buf.getDouble();
+    int numLevels = buf.getInt();
+    for (int level = 0; level < numLevels; ++level) {
+      if (level == sketch.numLevels) {
+        sketch.addLevel();
+      }
+      int size = buf.getInt();
+      sketch.levels[level] = new double[Math.max(size, MIN_CAPACITY)];
+      for (int i = 0; i < size; ++i) {
+        sketch.levels[level][i] = buf.getDouble();
+      }
+      sketch.sizes[level] = size;
+    }
+    return sketch;
+  }
+
+  /**
+   * Creates a sketch for each group or key, over a numeric value of each
+   * element.
+   */
+  public static <E> AggregatorFactory<E, QuantileSketch> factory(final int k,
+      final Mapper<? super E, ? extends Number> value) {
+    return new AggregatorFactory<E, QuantileSketch>() {
+      public Aggregator<E, QuantileSketch> create() {
+        final QuantileSketch sketch = new QuantileSketch(k);
+        return new Aggregator<E, QuantileSketch>() {
+          public void add(E item) {
+            sketch.add(value.map(item).doubleValue());
+          }
+
+          public QuantileSketch result() {
+            return sketch;
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,287 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import itertools.Pair;
+import itertools.io.Codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the most frequent elements (heavy hitters) of a stream with the
+ * Space-Saving algorithm, keeping at most capacity counters. An element that
+ * isn't counted yet replaces the element with the smallest count, inheriting
+ * that count as its error. Every element occurring more than total/capacity
+ * times is guaranteed to be counted, and each count is too high by at most its
+ * error. Counters are kept in a min-heap indexed by a hash map, so each element
+ * costs O(log capacity).
+ * 
+ * Sketches, e.g. filled from separate partitions, are combined with
+ * {@link #merge(SpaceSaving)}, and can be stored with {@link #toBytes(Codec)}.
+ * The result is the list of counted elements with their counts, most frequent
+ * first.
+ * 
+ * @param <E>
+ */
+public class SpaceSaving<E> implements Aggregator<E, List<Pair<E, Long>>> {
+  private final int capacity;
+  private final Map<E, Counter<E>> counters;
+  private final Counter<E>[] heap;
+  private int size = 0;
+  private long total = 0;
+
+  private static class Counter<E> {
+    E item;
+    long count;
+    long error;
+    int index;
+  }
+
+  /** Orders counters by decreasing count. */
+  private static final Comparator<Counter<?>> BY_COUNT = new Comparator<Counter<?>>() {
+    public int compare(Counter<?> o1, Counter<?> o2) {
+      return (o1.count > o2.count) ? -1 : (o1.count < o2.count) ? 1 : 0;
+    }
+  };
+
+  @SuppressWarnings( { "unchecked", "rawtypes" })
+  public SpaceSaving(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+    this.capacity = capacity;
+    this.counters = new HashMap<E, Counter<E>>(capacity * 2);
+    this.heap = new Counter[capacity];
+  }
+
+  public void add(E item) {
+    add(item, 1);
+  }
+
+  /**
+   * Adds count occurrences of the item.
+   */
+  public void add(E item, long count) {
+    total += count;
+    Counter<E> c = counters.get(item);
+    if (c == null) {
+      if (size < capacity) {
+        c = new Counter<E>();
+        c.index = size;
+        heap[size++] = c;
+      } else {
+        // replace the least frequent element
+        c = heap[0];
+        counters.remove(c.item);
+        c.error = c.count;
+      }
+      c.item = item;
+      counters.put(item, c);
+    }
+    c.count += count;
+    siftDown(c.index);
+  }
+
+  private void siftDown(int i) {
+    Counter<E> c = heap[i];
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) break;
+      if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+        ++child;
+      }
+      if (heap[child].count >= c.count) break;
+      heap[i] = heap[child];
+      heap[i].index = i;
+      i = child;
+    }
+    heap[i] = c;
+    c.index = i;
+  }
+
+  /**
+   * @return The estimated count of the item, which is too high by at most
+   *         {@link #error(Object)}, or 0 if the item is not counted.
+   */
+  public long estimate(E item) {
+    Counter<E> c = counters.get(item);
+    return (c == null) ? 0 : c.count;
+  }
+
+  /**
+   * @return The maximum overestimation of the item's count.
+   */
+  public long error(E item) {
+    Counter<E> c = counters.get(item);
+    return (c == null) ? 0 : c.error;
+  }
+
+  /**
+   * @return The total count added.
+   */
+  public long total() {
+    return total;
+  }
+
+  /**
+   * The smallest count, which bounds the count of any element that is not
+   * counted.
+   */
+  private long minCount() {
+    return (size < capacity) ? 0 : heap[0].count;
+  }
+
+  public List<Pair<E, Long>> result() {
+    return top(size);
+  }
+
+  /**
+   * @return The k most frequent counted elements with their counts, most
+   *         frequent first.
+   */
+  public List<Pair<E, Long>> top(int k) {
+    List<Counter<E>> sorted = sortedCounters();
+    List<Pair<E, Long>> result = new ArrayList<Pair<E, Long>>(Math.min(k,
+        sorted.size()));
+    for (Counter<E> c : sorted) {
+      if (result.size() >= k) break;
+      result.add(new Pair<E, Long>(c.item, c.count));
+    }
+    return result;
+  }
+
+  private List<Counter<E>> sortedCounters() {
+    List<Counter<E>> sorted = new ArrayList<Counter<E>>(size);
+    for (int i = 0; i < size; ++i) {
+      sorted.add(heap[i]);
+    }
+    Collections.sort(sorted, BY_COUNT);
+    return sorted;
+  }
+
+  /**
+   * Adds the counts of another sketch to this one. An element counted by only
+   * one of the sketches may have occurred up to the other's smallest count
+   * times there, so that count is added to its count and error. The most
+   * frequent elements of the union are kept.
+   */
+  public void merge(SpaceSaving<? extends E> other) {
+    long thisMin = minCount();
+    long otherMin = other.minCount();
+    Map<E, Counter<E>> union = new HashMap<E, Counter<E>>();
+    for (int i = 0; i < size; ++i) {
+      Counter<E> c = heap[i];
+      Counter<? extends E> o = other.counters.get(c.item);
+      if (o == null) {
+        c.count += otherMin;
+        c.error += otherMin;
+      } else {
+        c.count += o.count;
+        c.error += o.error;
+      }
+      union.put(c.item, c);
+    }
+    for (int i = 0; i < other.size; ++i) {
+      Counter<? extends E> o = other.heap[i];
+      if (!union.containsKey(o.item)) {
+        Counter<E> c = new Counter<E>();
+        c.item = o.item;
+        c.count = o.count + thisMin;
+        c.error = o.error + thisMin;
+        union.put(c.item, c);
+      }
+    }
+    total += other.total;
+    rebuild(new ArrayList<Counter<E>>(union.values()));
+  }
+
+  /**
+   * Keeps the capacity most frequent of the given counters.
+   */
+  private void rebuild(List<Counter<E>> all) {
+    Collections.sort(all, BY_COUNT);
+    counters.clear();
+    size = 0;
+    for (Counter<E> c : all) {
+      if (size >= capacity) break;
+      c.index = size;
+      heap[size++] = c;
+      counters.put(c.item, c);
+    }
+    for (int i = size / 2 - 1; i >= 0; --i) {
+      siftDown(i);
+    }
+  }
+
+  /**
+   * @param codec
+   *          Encodes the counted elements.
+   * @return The capacity, total and counters.
+   */
+  public byte[] toBytes(Codec<? super E> codec) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteBuffer header = ByteBuffer.allocate(4 + 8 + 4);
+    header.putInt(capacity).putLong(total).putInt(size);
+    out.write(header.array(), 0, header.capacity());
+    for (int i = 0; i < size; ++i) {
+      byte[] item = codec.encode(heap[i].item);
+      ByteBuffer buf = ByteBuffer.allocate(8 + 8 + 4);
+      buf.putLong(heap[i].count).putLong(heap[i].error).putInt(item.length);
+      out.write(buf.array(), 0, buf.capacity());
+      out.write(item, 0, item.length);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Reads a sketch written by {@link #toBytes(Codec)}.
+   */
+  public static <E> SpaceSaving<E> fromBytes(byte[] bytes, Codec<E> codec) {
+    ByteBuffer buf = ByteBuffer.wrap(bytes);
+    SpaceSaving<E> sketch = new SpaceSaving<E>(buf.getInt());
+    sketch.total = buf.getLong();
+    int size = buf.getInt();
+    List<Counter<E>> all = new ArrayList<Counter<E>>(size);
+    for (int i = 0; i < size; ++i) {
+      Counter<E> c = new Counter<E>();
+      c.count = buf.getLong();
+      c.error = buf.getLong();
+      int len = buf.getInt();
+      c.item = codec.decode(bytes, buf.position(), len);
+      buf.position(buf.position() + len);
+      all.add(c);
+    }
+    sketch.rebuild(all);
+    return sketch;
+  }
+
+  /**
+   * Creates a sketch with the given capacity for each group or key.
+   */
+  public static <E> AggregatorFactory<E, List<Pair<E, Long>>> factory(
+      final int capacity) {
+    return new AggregatorFactory<E, List<Pair<E, Long>>>() {
+      public Aggregator<E, List<Pair<E, Long>>> create() {
+        return new SpaceSaving<E>(capacity);
+      }
+    };
+  }
+}
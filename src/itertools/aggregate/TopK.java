@@ -0,0 +1,200 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Keeps the k largest elements added to it, in O(k) memory. Each element costs
+ * O(log k) time for small k, where a bounded heap is used. For large k, elements
+ * are collected in a buffer of size 2k that is cut back to the k largest with a
+ * quickselect when it fills up, which costs amortized O(1) per element.
+ * 
+ * To compute the top k in parallel, fill one TopK per partition and combine
+ * them with {@link #merge(TopK)}.
+ * 
+ * @param <E>
+ */
+public class TopK<E> implements Aggregator<E, List<E>> {
+  /** k above which the quickselect buffer is used instead of a heap. */
+  static final int HEAP_LIMIT = 1024;
+
+  private final int k;
+  private final Comparator<? super E> comp;
+  private final Comparator<Object> descending;
+
+  // heap mode: a min-heap holding the k largest elements seen so far
+  private PriorityQueue<E> heap;
+
+  // buffer mode
+  private Object[] buffer;
+  private int size = 0;
+  private Object threshold = null;
+  private Random random;
+
+  /**
+   * @param k
+   *          The number of elements to keep.
+   * @param comp
+   *          The ordering. The largest elements under this ordering are kept.
+   */
+  @SuppressWarnings("unchecked")
+  public TopK(int k, final Comparator<? super E> comp) {
+    if (k < 0) throw new IllegalArgumentException("k < 0");
+    this.k = k;
+    this.comp = comp;
+    this.descending = new Comparator<Object>() {
+      public int compare(Object o1, Object o2) {
+        return comp.compare((E) o2, (E) o1);
+      }
+    };
+    if (k <= HEAP_LIMIT) {
+      heap = new PriorityQueue<E>(Math.max(k, 1), comp);
+    } else {
+      buffer = new Object[2 * k];
+      random = new Random(k);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public void add(E item) {
+    if (k == 0) return;
+    if (heap != null) {
+      if (heap.size() < k) {
+        heap.add(item);
+      } else if (comp.compare(item, heap.peek()) > 0) {
+        heap.poll();
+        heap.add(item);
+      }
+    } else {
+      if (threshold != null && comp.compare(item, (E) threshold) <= 0) return;
+      if (size == buffer.length) {
+        select(0, size - 1, k - 1);
+        // everything before k is now at least as large as the k-th element
+        Arrays.fill(buffer, k, size, null);
+        size = k;
+        threshold = buffer[k - 1];
+        if (comp.compare(item, (E) threshold) <= 0) return;
+      }
+      buffer[size++] = item;
+    }
+  }
+
+  public void addAll(Iterator<? extends E> it) {
+    while (it.hasNext()) {
+      add(it.next());
+    }
+  }
+
+  /**
+   * Adds the elements kept by another TopK to this one.
+   */
+  @SuppressWarnings("unchecked")
+  public void merge(TopK<? extends E> other) {
+    if (other.heap != null) {
+      addAll(other.heap.iterator());
+    } else {
+      for (int i = 0; i < other.size; ++i) {
+        add((E) other.buffer[i]);
+      }
+    }
+  }
+
+  /**
+   * Returns (up to) the k largest elements added so far, largest first.
+   */
+  @SuppressWarnings("unchecked")
+  public List<E> result() {
+    List<E> l;
+    if (heap != null) {
+      l = new ArrayList<E>(heap);
+    } else {
+      int n = size;
+      if (n > k) {
+        select(0, n - 1, k - 1);
+        n = k;
+      }
+      l = new ArrayList<E>(n);
+      for (int i = 0; i < n; ++i) {
+        l.add((E) buffer[i]);
+      }
+    }
+    Collections.sort(l, Collections.reverseOrder(comp));
+    return l;
+  }
+
+  /**
+   * Rearranges buffer[lo..hi] so that buffer[n] holds the element that would
+   * be there if it were sorted in descending order, with larger (or equal)
+   * elements before it and smaller (or equal) after.
+   */
+  private void select(int lo, int hi, int n) {
+    while (hi > lo) {
+      // three-way partition around a random pivot, so runs of equal elements
+      // don't degrade to quadratic time
+      Object pivot = buffer[lo + random.nextInt(hi - lo + 1)];
+      int lt = lo, i = lo, gt = hi;
+      while (i <= gt) {
+        int c = descending.compare(buffer[i], pivot);
+        if (c < 0) {
+          swap(lt++, i++);
+        } else if (c > 0) {
+          swap(i, gt--);
+        } else {
+          ++i;
+        }
+      }
+      if (n < lt) {
+        hi = lt - 1;
+      } else if (n > gt) {
+        lo = gt + 1;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    Object tmp = buffer[i];
+    buffer[i] = buffer[j];
+    buffer[j] = tmp;
+  }
+
+  /**
+   * Returns a Mapper computing the top k elements of each iterator, e.g. for
+   * use on the groups produced by
+   * {@link itertools.Itertools#groupby(Iterator, itertools.functions.Grouper)}.
+   */
+  public static <E> Mapper<Iterator<E>, List<E>> mapper(final int k,
+      final Comparator<? super E> comp) {
+    return new Mapper<Iterator<E>, List<E>>() {
+      public List<E> map(Iterator<E> input) {
+        TopK<E> top = new TopK<E>(k, comp);
+        top.addAll(input);
+        return top.result();
+      }
+    };
+  }
+}
@@ -0,0 +1,38 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.functions;
+
+/**
+ * Interface providing a {@link #combine(Object, Object)} function, used to
+ * build a single output from two inputs (e.g. the two sides of a join).
+ * 
+ * @param <L>
+ *          Left input type
+ * @param <R>
+ *          Right input type
+ * @param <O>
+ *          Output type
+ */
+public interface Combiner<L, R, O> {
+  /**
+   * @param left
+   *          The left item, may be null for outer joins.
+   * @param right
+   *          The right item, may be null for outer joins.
+   * @return The combined item.
+   */
+  public O combine(L left, R right);
+}
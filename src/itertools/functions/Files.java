@@ -18,6 +18,8 @@ package itertools.functions;
 import java.io.IOException;
 
 import itertools.IBuilder;
+import itertools.io.Codec;
+import itertools.io.RunReader;
 import itertools.iterator.FileLineIterator;
 
 /**
@@ -32,6 +34,22 @@ public class Files {
    */
   public static final Mapper<String, Iterable<String>> OPEN = new _openFiles();
 
+  /**
+   * Opens a filename String as a run file written by
+   * {@link itertools.io.RunWriter}, decoding records with the codec.
+   */
+  public static <E> Mapper<String, Iterable<E>> openRun(final Codec<E> codec) {
+    return new Mapper<String, Iterable<E>>() {
+      public Iterable<E> map(String input) {
+        try {
+          return new IBuilder<E>(new RunReader<E>(input, codec));
+        } catch (IOException e) {
+          return null;
+        }
+      }
+    };
+  }
+
   private static class _openFiles implements Mapper<String, Iterable<String>> {
     public Iterable<String> map(String input) {
       try {
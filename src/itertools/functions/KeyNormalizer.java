@@ -0,0 +1,31 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.functions;
+
+/**
+ * Converts an object into an order-preserving binary key: comparing the keys
+ * of two objects byte by byte, as unsigned values, gives the same order as
+ * comparing the objects. A key that is a prefix of another sorts first. See
+ * {@link Normalizers}.
+ * 
+ * Sorting and merging by normalized keys avoids calling a Comparator (and
+ * e.g. {@link String#compareTo(String)}) on every comparison.
+ * 
+ * @param <E>
+ */
+public interface KeyNormalizer<E> {
+  public byte[] normalize(E item);
+}
@@ -0,0 +1,144 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.functions;
+
+import java.util.Comparator;
+
+/**
+ * Static access to {@link KeyNormalizer}s for common types, and to the byte
+ * ordering of normalized keys.
+ */
+public class Normalizers {
+  /**
+   * Normalizes strings to their UTF-16 code units, consistent with
+   * {@link String#compareTo(String)}.
+   */
+  public static final KeyNormalizer<String> STRING = new _string();
+  /**
+   * Like {@link #STRING}, but escapes zero bytes and appends a terminator, so
+   * that more key parts may follow. See {@link #concat(byte[][])}.
+   */
+  public static final KeyNormalizer<String> TERMINATED_STRING = new _terminatedString();
+  /** Normalizes integers to 4 bytes. */
+  public static final KeyNormalizer<Integer> INT = new _int();
+  /** Normalizes longs to 8 bytes. */
+  public static final KeyNormalizer<Long> LONG = new _long();
+  /** Compares normalized keys byte by byte, as unsigned values. */
+  public static final Comparator<byte[]> BYTE_ORDER = new _byteOrder();
+
+  /**
+   * Compares two normalized keys byte by byte, as unsigned values.
+   */
+  public static int compare(byte[] k1, byte[] k2) {
+    int n = Math.min(k1.length, k2.length);
+    for (int i = 0; i < n; ++i) {
+      if (k1[i] != k2[i]) return (k1[i] & 0xff) - (k2[i] & 0xff);
+    }
+    return k1.length - k2.length;
+  }
+
+  /**
+   * Concatenates normalized key parts into a composite key that sorts by the
+   * first part, then the second, etc. Every part but the last must be fixed
+   * length (e.g. {@link #INT}) or self-terminating (e.g.
+   * {@link #TERMINATED_STRING}).
+   */
+  public static byte[] concat(byte[]... parts) {
+    int n = 0;
+    for (byte[] p : parts) {
+      n += p.length;
+    }
+    byte[] key = new byte[n];
+    int off = 0;
+    for (byte[] p : parts) {
+      System.arraycopy(p, 0, key, off, p.length);
+      off += p.length;
+    }
+    return key;
+  }
+
+  /**
+   * Returns a Comparator ordering objects by their normalized keys.
+   */
+  public static <E> Comparator<E> comparator(
+      final KeyNormalizer<? super E> normalizer) {
+    return new Comparator<E>() {
+      public int compare(E o1, E o2) {
+        return Normalizers.compare(normalizer.normalize(o1), normalizer
+            .normalize(o2));
+      }
+    };
+  }
+
+  private static class _string implements KeyNormalizer<String> {
+    public byte[] normalize(String item) {
+      int n = item.length();
+      byte[] key = new byte[2 * n];
+      for (int i = 0; i < n; ++i) {
+        char c = item.charAt(i);
+        key[2 * i] = (byte) (c >>> 8);
+        key[2 * i + 1] = (byte) c;
+      }
+      return key;
+    }
+  }
+
+  private static class _terminatedString implements KeyNormalizer<String> {
+    public byte[] normalize(String item) {
+      byte[] raw = STRING.normalize(item);
+      int zeros = 0;
+      for (byte b : raw) {
+        if (b == 0) ++zeros;
+      }
+      // 0x00 is escaped as 0x00 0xff, and the terminator is 0x00 0x00, which
+      // sorts before any escaped or non-zero byte.
+      byte[] key = new byte[raw.length + zeros + 2];
+      int j = 0;
+      for (byte b : raw) {
+        key[j++] = b;
+        if (b == 0) key[j++] = (byte) 0xff;
+      }
+      return key;
+    }
+  }
+
+  private static class _int implements KeyNormalizer<Integer> {
+    public byte[] normalize(Integer item) {
+      // flip the sign bit so that negative numbers sort first
+      int v = item.intValue() ^ Integer.MIN_VALUE;
+      return new byte[] { (byte) (v >>> 24), (byte) (v >>> 16),
+          (byte) (v >>> 8), (byte) v };
+    }
+  }
+
+  private static class _long implements KeyNormalizer<Long> {
+    public byte[] normalize(Long item) {
+      long v = item.longValue() ^ Long.MIN_VALUE;
+      byte[] key = new byte[8];
+      for (int i = 7; i >= 0; --i) {
+        key[i] = (byte) v;
+        v >>>= 8;
+      }
+      return key;
+    }
+  }
+
+  private static class _byteOrder implements Comparator<byte[]> {
+    public int compare(byte[] o1, byte[] o2) {
+      return Normalizers.compare(o1, o2);
+    }
+  }
+}
@@ -23,6 +23,7 @@ package itertools.functions;
 public class Objects {
   public static final Condition<? super Object> NOT_NULL = new _notNull<Object>();
   public static final Condition<? super Object> IS_NULL = new _isNull<Object>();
+  public static final Mapper<Object, Object> IDENTITY = new _identity();
 
   private static class _notNull<E> implements Condition<E> {
     public boolean condition(E item) {
@@ -35,4 +36,10 @@ public class Objects {
       return (item == null);
     }
   }
+
+  private static class _identity implements Mapper<Object, Object> {
+    public Object map(Object input) {
+      return input;
+    }
+  }
 }
@@ -0,0 +1,44 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+/**
+ * Converts objects to and from bytes, for writing them to temporary files. See
+ * {@link RunWriter} and {@link Codecs}.
+ * 
+ * @param <E>
+ */
+public interface Codec<E> {
+  /**
+   * @param item
+   *          The item to encode.
+   * @return The encoded bytes. The caller may keep a reference to the returned
+   *         array, so it must not be reused.
+   */
+  public byte[] encode(E item);
+
+  /**
+   * @param buf
+   *          A buffer holding the encoded bytes. The buffer is reused after this
+   *          call returns, so the returned object must not refer to it.
+   * @param off
+   *          Offset of the first encoded byte.
+   * @param len
+   *          Number of encoded bytes.
+   * @return The decoded item.
+   */
+  public E decode(byte[] buf, int off, int len);
+}
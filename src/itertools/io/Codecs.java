@@ -0,0 +1,82 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import java.nio.charset.Charset;
+
+/**
+ * Static access to {@link Codec}s for common types. The numeric codecs are
+ * order-preserving: comparing their encoded bytes as unsigned values gives the
+ * same result as comparing the numbers. This keeps sorted runs of numbers
+ * well-suited to prefix compression.
+ */
+public class Codecs {
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /** Encodes strings as UTF-8. */
+  public static final Codec<String> STRING = new _string();
+  /** Encodes integers in 4 bytes. */
+  public static final Codec<Integer> INT = new _int();
+  /** Encodes longs in 8 bytes. */
+  public static final Codec<Long> LONG = new _long();
+
+  private static class _string implements Codec<String> {
+    public byte[] encode(String item) {
+      return item.getBytes(UTF8);
+    }
+
+    public String decode(byte[] buf, int off, int len) {
+      return new String(buf, off, len, UTF8);
+    }
+  }
+
+  private static class _int implements Codec<Integer> {
+    public byte[] encode(Integer item) {
+      // flip the sign bit so that negative numbers sort first
+      int v = item.intValue() ^ Integer.MIN_VALUE;
+      return new byte[] { (byte) (v >>> 24), (byte) (v >>> 16),
+          (byte) (v >>> 8), (byte) v };
+    }
+
+    public Integer decode(byte[] buf, int off, int len) {
+      int v = 0;
+      for (int i = 0; i < 4; ++i) {
+        v = (v << 8) | (buf[off + i] & 0xff);
+      }
+      return v ^ Integer.MIN_VALUE;
+    }
+  }
+
+  private static class _long implements Codec<Long> {
+    public byte[] encode(Long item) {
+      long v = item.longValue() ^ Long.MIN_VALUE;
+      byte[] b = new byte[8];
+      for (int i = 7; i >= 0; --i) {
+        b[i] = (byte) v;
+        v >>>= 8;
+      }
+      return b;
+    }
+
+    public Long decode(byte[] buf, int off, int len) {
+      long v = 0;
+      for (int i = 0; i < 8; ++i) {
+        v = (v << 8) | (buf[off + i] & 0xff);
+      }
+      return v ^ Long.MIN_VALUE;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A sparse index of a sorted run file written by {@link RunWriter}: the file
+ * offset and first record of each block, and the last record of the run. It
+ * locates where to start reading to find a given record, so that a sorted run
+ * can be read from the middle (see {@link #open(Codec, Object, Comparator)}),
+ * and its block first records serve as evenly spaced samples of the run.
+ * 
+ * @param <E>
+ */
+public class RunIndex<E> {
+  private final File file;
+  private final List<E> firsts = new ArrayList<E>();
+  private final List<Long> offsets = new ArrayList<Long>();
+  private E last;
+  private long count = 0;
+
+  RunIndex(File file) {
+    this.file = file;
+  }
+
+  void addBlock(long offset, E first) {
+    offsets.add(offset);
+    firsts.add(first);
+  }
+
+  void add(E item) {
+    last = item;
+    ++count;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return The number of records in the run.
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * @return The number of blocks in the run.
+   */
+  public int blocks() {
+    return firsts.size();
+  }
+
+  /**
+   * @return The first record of a block.
+   */
+  public E first(int block) {
+    return firsts.get(block);
+  }
+
+  /**
+   * @return The last record of the run, or null if it is empty.
+   */
+  public E last() {
+    return last;
+  }
+
+  /**
+   * @return The offset of a block in the file.
+   */
+  public long offset(int block) {
+    return offsets.get(block);
+  }
+
+  /**
+   * Finds the block to start reading from to reach the first record not less
+   * than target: the last block whose first record is less than target, or the
+   * first block.
+   */
+  public int findBlock(E target, Comparator<? super E> comp) {
+    int lo = 0, hi = firsts.size();
+    // find the first block whose first record is >= target
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comp.compare(firsts.get(mid), target) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return Math.max(0, lo - 1);
+  }
+
+  /**
+   * Opens a reader positioned at the block containing the first record not
+   * less than from. Records before it in that block are still returned.
+   * 
+   * @param from
+   *          The record to look for, or null to read from the start.
+   */
+  public RunReader<E> open(Codec<? extends E> codec, E from,
+      Comparator<? super E> comp) throws IOException {
+    long offset = (from == null || firsts.isEmpty()) ? 0 : offsets
+        .get(findBlock(from, comp));
+    return new RunReader<E>(file, codec, offset);
+  }
+}
@@ -0,0 +1,255 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import itertools.iterator.IteratorWrapper;
+import itertools.iterator.Skippable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the records in a file written by {@link RunWriter}. Each block is read
+ * and decompressed in one go into a reusable buffer, and the records are
+ * decoded from it one at a time. The file is closed when the end is reached.
+ * {@link #skip(long)} steps over whole blocks by their headers, without
+ * reading or decompressing them, and over records without decoding them.
+ * 
+ * Unlike {@link itertools.iterator.FileLineIterator}, an error reading the file
+ * is not treated as the end of the file: since runs are usually temporary
+ * files that the caller relies on being complete, a {@link RuntimeException}
+ * is thrown instead.
+ * 
+ * @param <E>
+ */
+public class RunReader<E> extends IteratorWrapper<E> implements Skippable<E> {
+  private DataInputStream in;
+  private File file;
+  private boolean deleteOnClose = false;
+  private Codec<? extends E> codec;
+  private Inflater inflater;
+
+  private byte[] block = new byte[0];
+  private byte[] stored = new byte[0];
+  private int blockOffset;
+  private int blockRecords = 0;
+  private int rawLength, storedLength;
+  private boolean isCompressed;
+  private byte[] record = new byte[64];
+
+  public RunReader(File file, Codec<? extends E> codec) throws IOException {
+    this(file, codec, 0);
+  }
+
+  /**
+   * Reads the file from a block offset, as found in a {@link RunIndex}.
+   */
+  public RunReader(File file, Codec<? extends E> codec, long offset)
+      throws IOException {
+    FileInputStream fin = new FileInputStream(file);
+    try {
+      fin.getChannel().position(offset);
+    } catch (IOException e) {
+      fin.close();
+      throw e;
+    }
+    this.in = new DataInputStream(new BufferedInputStream(fin));
+    this.file = file;
+    this.codec = codec;
+  }
+
+  public RunReader(String filename, Codec<? extends E> codec)
+      throws IOException {
+    this(new File(filename), codec);
+  }
+
+  @Override
+  public E getNext() {
+    if (in == null) return null;
+    try {
+      if (blockRecords == 0 && !readBlock()) {
+        close();
+        return null;
+      }
+    } catch (IOException e) {
+      close();
+      throw new RuntimeException(e);
+    }
+
+    int length = readRecord();
+    return codec.decode(record, 0, length);
+  }
+
+  public long skip(long n) {
+    if (n <= 0) return 0;
+    long skipped = discardNext() ? 1 : 0;
+    try {
+      while (skipped < n && in != null) {
+        if (blockRecords == 0) {
+          if (!readHeader()) {
+            close();
+            break;
+          }
+          if (blockRecords <= n - skipped) {
+            // the first record of a block shares no prefix, so whole blocks
+            // can be stepped over
+            skipFully(storedLength);
+            skipped += blockRecords;
+            blockRecords = 0;
+            continue;
+          }
+          readBody();
+        }
+        int m = (int) Math.min(blockRecords, n - skipped);
+        for (int i = 0; i < m; ++i) {
+          readRecord();
+        }
+        skipped += m;
+      }
+    } catch (IOException e) {
+      close();
+      throw new RuntimeException(e);
+    }
+    return skipped;
+  }
+
+  /**
+   * @param deleteOnClose
+   *          If true, the file is deleted when it is closed, e.g. after a
+   *          temporary file has been read to the end.
+   */
+  public void setDeleteOnClose(boolean deleteOnClose) {
+    this.deleteOnClose = deleteOnClose;
+  }
+
+  /**
+   * Closes the underlying file. Further calls to {@link #hasNext()} return
+   * false.
+   */
+  public void close() {
+    if (in == null) return;
+    try {
+      in.close();
+    } catch (IOException e) {
+      // ignore
+    }
+    in = null;
+    if (inflater != null) inflater.end();
+    if (deleteOnClose) file.delete();
+  }
+
+  /**
+   * Reads the next non-empty block into the block buffer.
+   * 
+   * @return false at the end of the file.
+   */
+  private boolean readBlock() throws IOException {
+    while (readHeader()) {
+      readBody();
+      if (blockRecords > 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Reads the header of the next block.
+   * 
+   * @return false at the end of the file.
+   */
+  private boolean readHeader() throws IOException {
+    int records;
+    try {
+      records = in.readInt();
+    } catch (EOFException e) {
+      return false;
+    }
+    rawLength = in.readInt();
+    storedLength = in.readInt();
+    isCompressed = in.readByte() != 0;
+    blockRecords = records;
+    return true;
+  }
+
+  /**
+   * Reads and decompresses the data of the block whose header was just read.
+   */
+  private void readBody() throws IOException {
+    if (block.length < rawLength) block = new byte[rawLength];
+    if (isCompressed) {
+      if (stored.length < storedLength) stored = new byte[storedLength];
+      in.readFully(stored, 0, storedLength);
+      if (inflater == null) inflater = new Inflater();
+      inflater.reset();
+      inflater.setInput(stored, 0, storedLength);
+      try {
+        int n = 0;
+        while (n < rawLength && !inflater.finished()) {
+          n += inflater.inflate(block, n, rawLength - n);
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("Corrupt block: " + e.getMessage());
+      }
+    } else {
+      in.readFully(block, 0, rawLength);
+    }
+    blockOffset = 0;
+  }
+
+  private void skipFully(int n) throws IOException {
+    while (n > 0) {
+      int skipped = in.skipBytes(n);
+      if (skipped <= 0) throw new EOFException();
+      n -= skipped;
+    }
+  }
+
+  /**
+   * Copies the next record of the block into the record buffer.
+   * 
+   * @return The length of the record.
+   */
+  private int readRecord() {
+    int shared = readVarint();
+    int suffix = readVarint();
+    if (shared + suffix > record.length) {
+      byte[] tmp = new byte[Math.max(shared + suffix, 2 * record.length)];
+      System.arraycopy(record, 0, tmp, 0, shared);
+      record = tmp;
+    }
+    // the shared prefix is still in record from the previous record
+    System.arraycopy(block, blockOffset, record, shared, suffix);
+    blockOffset += suffix;
+    --blockRecords;
+    return shared + suffix;
+  }
+
+  private int readVarint() {
+    int v = 0, shift = 0;
+    byte b;
+    do {
+      b = block[blockOffset++];
+      v |= (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return v;
+  }
+}
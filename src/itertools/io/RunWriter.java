@@ -0,0 +1,243 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a run of records (typically sorted) to a compact binary file, to be
+ * read back with {@link RunReader}. Records are converted to bytes with a
+ * {@link Codec} and grouped into blocks.
+ * 
+ * Within a block each record is stored as the length of the prefix it shares
+ * with the previous record, followed by the remaining suffix. Adjacent records
+ * in a sorted run often share long prefixes, so this saves a lot of space.
+ * Blocks may optionally be compressed with a {@link Deflater} at its fastest
+ * level.
+ * 
+ * File format, repeated for each block:
+ * 
+ * <pre>
+ * int   number of records in the block
+ * int   uncompressed length of the block data
+ * int   stored length of the block data
+ * byte  1 if the block data is compressed, 0 otherwise
+ * byte[stored length] block data
+ * </pre>
+ * 
+ * The block data is, for each record, a varint shared prefix length, a varint
+ * suffix length and the suffix bytes. The first record in each block shares no
+ * prefix, so blocks can be decoded independently. The offset and first record
+ * of each block are kept in a {@link RunIndex}, which can be used to read a
+ * sorted run from the middle.
+ * 
+ * @param <E>
+ */
+public class RunWriter<E> {
+  public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  private DataOutputStream out;
+  private Codec<? super E> codec;
+  private int blockSize;
+  private Deflater deflater;
+
+  private byte[] block;
+  private int blockLength = 0;
+  private int blockRecords = 0;
+  private byte[] compressed;
+  private byte[] previous;
+  private long count = 0;
+  /** the number of bytes written to the file */
+  private long position = 0;
+  private RunIndex<E> index;
+
+  /**
+   * Creates a new run file, overwriting any existing file.
+   * 
+   * @param file
+   *          The file to write.
+   * @param codec
+   *          Converts records to bytes.
+   * @param compress
+   *          If true, compress each block.
+   * @throws IOException
+   *           If the file could not be created.
+   */
+  public RunWriter(File file, Codec<? super E> codec, boolean compress)
+      throws IOException {
+    this(file, codec, compress, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * See {@link #RunWriter(File, Codec, boolean)}.
+   * 
+   * @param blockSize
+   *          The approximate uncompressed size of each block, in bytes.
+   */
+  public RunWriter(File file, Codec<? super E> codec, boolean compress,
+      int blockSize) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(file)));
+    this.codec = codec;
+    this.blockSize = blockSize;
+    this.index = new RunIndex<E>(file);
+    this.block = new byte[blockSize + 64];
+    if (compress) {
+      deflater = new Deflater(Deflater.BEST_SPEED);
+      compressed = new byte[blockSize + 64];
+    }
+  }
+
+  public void write(E item) throws IOException {
+    byte[] rec = codec.encode(item);
+    int shared = 0;
+    if (blockRecords > 0) {
+      int max = Math.min(rec.length, previous.length);
+      while (shared < max && rec[shared] == previous[shared]) {
+        ++shared;
+      }
+    }
+    int suffix = rec.length - shared;
+
+    ensureCapacity(blockLength + 10 + suffix);
+    blockLength = writeVarint(block, blockLength, shared);
+    blockLength = writeVarint(block, blockLength, suffix);
+    System.arraycopy(rec, shared, block, blockLength, suffix);
+    blockLength += suffix;
+    previous = rec;
+    if (index != null) {
+      if (blockRecords == 0) index.addBlock(position, item);
+      index.add(item);
+    }
+    ++blockRecords;
+    ++count;
+
+    if (blockLength >= blockSize) flushBlock();
+  }
+
+  /**
+   * @return The number of records written so far.
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * @return The index of the blocks written so far, or null if indexing is
+   *         off.
+   */
+  public RunIndex<E> getIndex() {
+    return index;
+  }
+
+  /**
+   * @param indexed
+   *          If false, no {@link RunIndex} is kept, e.g. for a file that is
+   *          only read back from offsets recorded by the caller. Set this
+   *          before writing any records.
+   */
+  public void setIndexed(boolean indexed) {
+    if (indexed && index == null) {
+      throw new IllegalStateException("index was already dropped");
+    }
+    if (!indexed) index = null;
+  }
+
+  /**
+   * @return The offset in the file at which the next block will start. Right
+   *         after {@link #flush()}, a reader opened at this offset reads the
+   *         records written afterwards.
+   */
+  public long position() {
+    return position;
+  }
+
+  /**
+   * Writes any buffered records as a complete block, so that they can be read
+   * while the file is still open for writing.
+   */
+  public void flush() throws IOException {
+    flushBlock();
+    out.flush();
+  }
+
+  /**
+   * Writes any buffered records and closes the file.
+   */
+  public void close() throws IOException {
+    if (out == null) return;
+    flushBlock();
+    out.close();
+    out = null;
+    if (deflater != null) deflater.end();
+  }
+
+  private void flushBlock() throws IOException {
+    if (blockRecords == 0) return;
+    byte[] data = block;
+    int length = blockLength;
+    boolean isCompressed = false;
+    if (deflater != null) {
+      deflater.reset();
+      deflater.setInput(block, 0, blockLength);
+      deflater.finish();
+      int n = 0;
+      // give up as soon as the output is no smaller than the input
+      while (!deflater.finished() && n < blockLength) {
+        n += deflater.deflate(compressed, n, compressed.length - n);
+      }
+      if (deflater.finished() && n < blockLength) {
+        data = compressed;
+        length = n;
+        isCompressed = true;
+      }
+    }
+    out.writeInt(blockRecords);
+    out.writeInt(blockLength);
+    out.writeInt(length);
+    out.writeByte(isCompressed ? 1 : 0);
+    out.write(data, 0, length);
+    position += 13 + length;
+    blockLength = 0;
+    blockRecords = 0;
+  }
+
+  private void ensureCapacity(int n) {
+    if (n > block.length) {
+      byte[] tmp = new byte[Math.max(n, 2 * block.length)];
+      System.arraycopy(block, 0, tmp, 0, blockLength);
+      block = tmp;
+      if (compressed != null) compressed = new byte[block.length];
+    }
+  }
+
+  /**
+   * Writes v as an unsigned varint to buf at off, returning the new offset.
+   */
+  static int writeVarint(byte[] buf, int off, int v) {
+    while ((v & ~0x7f) != 0) {
+      buf[off++] = (byte) ((v & 0x7f) | 0x80);
+      v >>>= 7;
+    }
+    buf[off++] = (byte) v;
+    return off;
+  }
+}
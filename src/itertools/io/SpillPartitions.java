@@ -0,0 +1,104 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes elements to a fixed number of temporary run files, e.g. to partition
+ * a data set by hash when it doesn't fit in memory. Each partition's file is
+ * only created once something is written to it.
+ * 
+ * @param <E>
+ */
+public class SpillPartitions<E> {
+  private Codec<E> codec;
+  private File tempDirectory;
+  private List<RunWriter<E>> writers;
+  private List<File> files;
+
+  /**
+   * @param codec
+   *          Converts elements to bytes.
+   * @param partitions
+   *          The number of partitions.
+   * @param tempDirectory
+   *          Where to create temporary files, or null for the system default.
+   */
+  public SpillPartitions(Codec<E> codec, int partitions, File tempDirectory) {
+    this.codec = codec;
+    this.tempDirectory = tempDirectory;
+    writers = new ArrayList<RunWriter<E>>(partitions);
+    files = new ArrayList<File>(partitions);
+    for (int i = 0; i < partitions; ++i) {
+      writers.add(null);
+      files.add(null);
+    }
+  }
+
+  public int size() {
+    return writers.size();
+  }
+
+  /**
+   * Appends an element to a partition.
+   */
+  public void add(int partition, E item) throws IOException {
+    RunWriter<E> w = writers.get(partition);
+    if (w == null) {
+      File f = File.createTempFile(getClass().getName(), ".run", tempDirectory);
+      f.deleteOnExit();
+      files.set(partition, f);
+      w = new RunWriter<E>(f, codec, true);
+      writers.set(partition, w);
+    }
+    w.write(item);
+  }
+
+  /**
+   * Closes all the partitions.
+   * 
+   * @return The files of the non-empty partitions.
+   */
+  public List<File> close() throws IOException {
+    List<File> written = new ArrayList<File>();
+    for (int i = 0; i < writers.size(); ++i) {
+      if (writers.get(i) != null) {
+        writers.get(i).close();
+        written.add(files.get(i));
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Closes and deletes all the partitions, e.g. when they won't be read.
+   */
+  public void delete() {
+    for (int i = 0; i < writers.size(); ++i) {
+      if (writers.get(i) == null) continue;
+      try {
+        writers.get(i).close();
+      } catch (IOException e) {
+        // ignore, the file is deleted anyway
+      }
+      files.get(i).delete();
+    }
+  }
+}
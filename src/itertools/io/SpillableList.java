@@ -0,0 +1,237 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An append-only list that keeps its elements in memory up to a byte budget,
+ * and writes any further elements to a temporary file. The size of an element
+ * is estimated as the length of its {@link Codec} encoding plus a fixed
+ * per-object overhead.
+ * 
+ * The list can be iterated over any number of times, and supports random
+ * access: spilled elements are located through a sparse index of file offsets
+ * (one entry per {@link #INDEX_INTERVAL} elements), so {@link #get(int)} reads
+ * at most that many records. Sequential access through {@link #iterator()} is
+ * buffered and much faster than repeated calls to get().
+ * 
+ * {@link #close()} deletes the temporary file and closes any iterators that
+ * were not read to the end, after which spilled elements can no longer be
+ * read.
+ * 
+ * @param <E>
+ */
+public class SpillableList<E> extends AbstractList<E> implements
+    RandomAccess, Closeable {
+  /** Estimated per-element memory overhead, in bytes. */
+  static final int OVERHEAD = 32;
+  /** Number of spilled records per index entry. */
+  static final int INDEX_INTERVAL = 64;
+
+  private Codec<E> codec;
+  private long budget;
+  private File tempDirectory;
+
+  private ArrayList<E> memory = new ArrayList<E>();
+  private long memoryBytes = 0;
+
+  private File file;
+  private DataOutputStream out;
+  private long fileLength = 0;
+  private int spilled = 0;
+  private long[] index = new long[16];
+
+  // cached position for get(), so that sequential gets don't re-seek
+  private RandomAccessFile raf;
+  private int rafRecord = -1;
+  private byte[] record = new byte[64];
+  // streams opened by iterators that haven't reached the end
+  private List<Closeable> openStreams = new ArrayList<Closeable>();
+
+  /**
+   * @param codec
+   *          Converts elements to bytes.
+   * @param budget
+   *          The approximate number of bytes of elements to keep in memory.
+   * @param tempDirectory
+   *          Where to create the temporary file, or null for the system
+   *          default.
+   */
+  public SpillableList(Codec<E> codec, long budget, File tempDirectory) {
+    this.codec = codec;
+    this.budget = budget;
+    this.tempDirectory = tempDirectory;
+  }
+
+  @Override
+  public boolean add(E item) {
+    if (file == null) {
+      byte[] b = codec.encode(item);
+      if (memoryBytes + b.length + OVERHEAD <= budget) {
+        memory.add(item);
+        memoryBytes += b.length + OVERHEAD;
+        return true;
+      }
+      spill(b);
+    } else {
+      spill(codec.encode(item));
+    }
+    return true;
+  }
+
+  /**
+   * @return true if some elements have been written to disk.
+   */
+  public boolean isSpilled() {
+    return file != null;
+  }
+
+  @Override
+  public int size() {
+    return memory.size() + spilled;
+  }
+
+  @Override
+  public E get(int i) {
+    if (i < 0 || i >= size()) throw new IndexOutOfBoundsException("" + i);
+    if (i < memory.size()) return memory.get(i);
+    int j = i - memory.size();
+    try {
+      flush();
+      if (raf == null) raf = new RandomAccessFile(file, "r");
+      if (j < rafRecord || j - rafRecord >= INDEX_INTERVAL || rafRecord < 0) {
+        raf.seek(index[j / INDEX_INTERVAL]);
+        rafRecord = j - (j % INDEX_INTERVAL);
+      }
+      while (rafRecord < j) {
+        raf.skipBytes(raf.readInt());
+        ++rafRecord;
+      }
+      int len = raf.readInt();
+      if (len > record.length) record = new byte[Math.max(len, 2 * record.length)];
+      raf.readFully(record, 0, len);
+      ++rafRecord;
+      return codec.decode(record, 0, len);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      int i = 0;
+      DataInputStream in;
+      byte[] buf = new byte[64];
+
+      public boolean hasNext() {
+        return i < size();
+      }
+
+      public E next() {
+        if (i >= size()) throw new NoSuchElementException();
+        if (i < memory.size()) return memory.get(i++);
+        try {
+          if (in == null) {
+            flush();
+            in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)));
+            openStreams.add(in);
+          }
+          int len = in.readInt();
+          if (len > buf.length) buf = new byte[Math.max(len, 2 * buf.length)];
+          in.readFully(buf, 0, len);
+          if (++i == size()) {
+            in.close();
+            openStreams.remove(in);
+          }
+          return codec.decode(buf, 0, len);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Deletes the temporary file, if any, and closes any open iterators.
+   */
+  public void close() {
+    try {
+      if (out != null) out.close();
+      if (raf != null) raf.close();
+      for (Closeable in : openStreams) {
+        in.close();
+      }
+    } catch (IOException e) {
+      // ignore
+    }
+    out = null;
+    raf = null;
+    openStreams.clear();
+    if (file != null) file.delete();
+  }
+
+  private void spill(byte[] b) {
+    try {
+      if (file == null) {
+        file = File.createTempFile(getClass().getName(), ".tmp", tempDirectory);
+        file.deleteOnExit();
+        out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(file)));
+      }
+      if (spilled % INDEX_INTERVAL == 0) {
+        int k = spilled / INDEX_INTERVAL;
+        if (k == index.length) {
+          long[] tmp = new long[2 * index.length];
+          System.arraycopy(index, 0, tmp, 0, index.length);
+          index = tmp;
+        }
+        index[k] = fileLength;
+      }
+      out.writeInt(b.length);
+      out.write(b);
+      fileLength += 4 + b.length;
+      ++spilled;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void flush() throws IOException {
+    if (out != null) out.flush();
+  }
+}
@@ -0,0 +1,164 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunks elements into lists of up to chunkSize elements, each backed by an
+ * array that is filled from the underlying iterator in one go. Unlike
+ * {@link ChunkingIterator}, whose chunks are lazy iterators, the chunks can be
+ * handed to bulk operations such as batched writes and lookups.
+ * 
+ * With reuseBuffer, every chunk is the same list view of a single array, so
+ * chunking allocates nothing, but each call to next() overwrites the previous
+ * chunk. Otherwise each chunk has its own array, and can be kept.
+ * 
+ * A chunk can also be ended early, once a maximum delay has passed since its
+ * first element was read, to bound the latency of batching a slow source. The
+ * delay is only checked between elements: a chunk is not ended while the
+ * underlying iterator blocks.
+ * 
+ * @param <E>
+ */
+public class ArrayChunkingIterator<E> implements Iterator<List<E>> {
+  private final Iterator<E> it;
+  private final int chunkSize;
+  private final boolean reuseBuffer;
+  private final long maxDelayNanos;
+  private Object[] buffer;
+  private Chunk<E> chunk;
+
+  /**
+   * @param it
+   *          The underlying iterator.
+   * @param chunkSize
+   *          The maximum number of elements in a chunk.
+   * @param reuseBuffer
+   *          Whether all chunks share one buffer.
+   */
+  public ArrayChunkingIterator(Iterator<E> it, int chunkSize,
+      boolean reuseBuffer) {
+    this(it, chunkSize, Long.MAX_VALUE, TimeUnit.NANOSECONDS, reuseBuffer);
+  }
+
+  /**
+   * @param it
+   *          The underlying iterator.
+   * @param chunkSize
+   *          The maximum number of elements in a chunk.
+   * @param maxDelay
+   *          The time after reading a chunk's first element at which the
+   *          chunk is ended, even if it isn't full.
+   * @param unit
+   *          The unit of maxDelay.
+   * @param reuseBuffer
+   *          Whether all chunks share one buffer.
+   */
+  public ArrayChunkingIterator(Iterator<E> it, int chunkSize, long maxDelay,
+      TimeUnit unit, boolean reuseBuffer) {
+    if (chunkSize < 1) throw new IllegalArgumentException("chunkSize < 1");
+    this.it = it;
+    this.chunkSize = chunkSize;
+    this.reuseBuffer = reuseBuffer;
+    this.maxDelayNanos = unit.toNanos(maxDelay);
+    if (reuseBuffer) {
+      buffer = new Object[chunkSize];
+      chunk = new Chunk<E>(buffer);
+    }
+  }
+
+  public boolean hasNext() {
+    return it.hasNext();
+  }
+
+  /**
+   * Returns the next chunk. With reuseBuffer, this overwrites the previously
+   * returned chunk.
+   */
+  public List<E> next() {
+    if (!it.hasNext()) { throw new NoSuchElementException(); }
+    if (!reuseBuffer) {
+      buffer = new Object[chunkSize];
+      chunk = new Chunk<E>(buffer);
+    }
+    int size;
+    if (it instanceof IndexedIterator<?>) {
+      size = ((IndexedIterator<?>) it).next(buffer, 0, chunkSize);
+    } else if (maxDelayNanos == Long.MAX_VALUE) {
+      size = 0;
+      while (size < chunkSize && it.hasNext()) {
+        buffer[size++] = it.next();
+      }
+    } else {
+      size = 0;
+      long deadline = System.nanoTime() + maxDelayNanos;
+      do {
+        buffer[size++] = it.next();
+      } while (size < chunkSize && System.nanoTime() - deadline < 0
+          && it.hasNext());
+    }
+    if (reuseBuffer) {
+      // drop references to the previous chunk's elements
+      for (int i = size; i < chunk.size; ++i) {
+        buffer[i] = null;
+      }
+    }
+    chunk.size = size;
+    return chunk;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * A list view of the start of an array.
+   */
+  private static class Chunk<E> extends AbstractList<E> implements
+      RandomAccess {
+    private final Object[] items;
+    int size = 0;
+
+    Chunk(Object[] items) {
+      this.items = items;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+      if (index < 0 || index >= size) { throw new IndexOutOfBoundsException(); }
+      return (E) items[index];
+    }
+
+    @Override
+    public E set(int index, E element) {
+      E old = get(index);
+      items[index] = element;
+      return old;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+
+import java.io.Closeable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Like {@link ZippingIterator}, but reads up to batchSize rows at a time into a
+ * {@link Batch} with one array per input iterator (column). Each column is
+ * filled from its iterator in one loop, random-access lists are copied in bulk,
+ * and with reuseBatch the same batch and arrays are reused for every call to
+ * {@link #next()}, so zipping allocates nothing per row.
+ * 
+ * When the iteration ends, or {@link #close()} is called, the underlying
+ * iterators are closed with {@link Itertools#close(Iterator)}.
+ * 
+ * When zipping to the end of the shortest iterator, the rows the other
+ * iterators have beyond it in the last batch are read and dropped.
+ * 
+ * @param <E>
+ *          Type of objects in each of the iterators.
+ */
+public class BatchZippingIterator<E> implements
+    Iterator<BatchZippingIterator.Batch<E>>, Closeable {
+
+  /**
+   * Rows of zipped elements, stored by column. Valid until the next call to
+   * {@link BatchZippingIterator#next()} when batches are reused.
+   * 
+   * @param <E>
+   */
+  public static class Batch<E> {
+    private final Object[][] columns;
+    private final List<List<E>> views;
+    private int size;
+
+    Batch(int width, int batchSize) {
+      columns = new Object[width][batchSize];
+      views = new ArrayList<List<E>>(width);
+      for (int c = 0; c < width; ++c) {
+        views.add(new Column(columns[c]));
+      }
+    }
+
+    /**
+     * @return The number of rows.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * @return The number of columns, one per zipped iterator.
+     */
+    public int width() {
+      return columns.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int column, int row) {
+      if (row >= size) throw new IndexOutOfBoundsException();
+      return (E) columns[column][row];
+    }
+
+    /**
+     * @return An unmodifiable view of the rows of a column.
+     */
+    public List<E> column(int column) {
+      return views.get(column);
+    }
+
+    private class Column extends AbstractList<E> implements RandomAccess {
+      private final Object[] items;
+
+      Column(Object[] items) {
+        this.items = items;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E get(int i) {
+        if (i >= size) throw new IndexOutOfBoundsException();
+        return (E) items[i];
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    }
+  }
+
+  private final List<Iterator<E>> iterators = new ArrayList<Iterator<E>>();
+  private final boolean[] exhausted;
+  private final int[] counts;
+  private final int batchSize;
+  private final boolean longest;
+  private final E fill;
+  private final boolean reuseBatch;
+  private Batch<E> batch;
+
+  /**
+   * @param iterators
+   *          The iterables to zip.
+   * @param batchSize
+   *          The maximum number of rows in a batch.
+   * @param longest
+   *          If true, iterate until all the iterators are exhausted, filling in
+   *          for the exhausted ones. If false, stop as soon as any one is
+   *          exhausted.
+   * @param fill
+   *          The value used for exhausted iterators.
+   * @param reuseBatch
+   *          If true, each call to {@link #next()} overwrites and returns the
+   *          same batch.
+   */
+  public BatchZippingIterator(Iterator<? extends Iterable<E>> iterators,
+      int batchSize, boolean longest, E fill, boolean reuseBatch) {
+    if (batchSize < 1) throw new IllegalArgumentException("batchSize < 1");
+    while (iterators.hasNext()) {
+      Iterable<E> i = iterators.next();
+      if (i instanceof List<?> && i instanceof RandomAccess) {
+        this.iterators.add(new IndexedIterator<E>((List<E>) i));
+      } else {
+        this.iterators.add(i.iterator());
+      }
+    }
+    this.exhausted = new boolean[this.iterators.size()];
+    this.counts = new int[this.iterators.size()];
+    this.batchSize = batchSize;
+    this.longest = longest;
+    this.fill = fill;
+    this.reuseBatch = reuseBatch;
+  }
+
+  public boolean hasNext() {
+    boolean any = false, all = true;
+    for (int i = 0; i < exhausted.length; ++i) {
+      if (!exhausted[i] && !iterators.get(i).hasNext()) exhausted[i] = true;
+      any |= !exhausted[i];
+      all &= !exhausted[i];
+    }
+    if (longest ? any : all && any) return true;
+    close();
+    return false;
+  }
+
+  /**
+   * Closes the underlying iterators.
+   */
+  public void close() {
+    for (Iterator<E> it : iterators) {
+      Itertools.close(it);
+    }
+  }
+
+  public Batch<E> next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    Batch<E> b = (reuseBatch && batch != null) ? batch : new Batch<E>(
+        iterators.size(), batchSize);
+    batch = b;
+
+    int size = longest ? 0 : batchSize;
+    for (int c = 0; c < counts.length; ++c) {
+      counts[c] = read(c, b.columns[c]);
+      size = longest ? Math.max(size, counts[c]) : Math.min(size, counts[c]);
+    }
+    for (int c = 0; c < counts.length; ++c) {
+      Object[] column = b.columns[c];
+      if (counts[c] < size) Arrays.fill(column, counts[c], size, fill);
+      // don't hold on to dropped or stale elements
+      Arrays.fill(column, size, batchSize, null);
+    }
+    b.size = size;
+    return b;
+  }
+
+  /**
+   * Reads up to batchSize elements of a column.
+   * 
+   * @return The number of elements read.
+   */
+  private int read(int c, Object[] column) {
+    if (exhausted[c]) return 0;
+    Iterator<E> it = iterators.get(c);
+    int n;
+    if (it instanceof IndexedIterator<?>) {
+      n = ((IndexedIterator<E>) it).next(column, 0, batchSize);
+    } else {
+      n = 0;
+      while (n < batchSize && it.hasNext()) {
+        column[n++] = it.next();
+      }
+    }
+    if (n < batchSize) exhausted[c] = true;
+    return n;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
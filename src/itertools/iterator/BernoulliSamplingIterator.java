@@ -0,0 +1,89 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Returns each element of the underlying iterator independently with
+ * probability p, in order. Rather than drawing a random number for every
+ * element, the number of elements to pass over before the next one kept is
+ * drawn from a geometric distribution, so about one random number is drawn per
+ * element kept. Elements passed over are skipped with
+ * {@link Skippable#skip(long)} when the underlying iterator supports it.
+ * 
+ * @param <E>
+ */
+public class BernoulliSamplingIterator<E> implements Iterator<E> {
+  private final Iterator<E> it;
+  private final double logOneMinusP;
+  private final Random random;
+  private E next;
+  private boolean hasNext = false;
+  private boolean done = false;
+
+  public BernoulliSamplingIterator(Iterator<E> it, double p) {
+    this(it, p, new Random());
+  }
+
+  /**
+   * @param it
+   *          The underlying iterator.
+   * @param p
+   *          The probability of keeping each element, between 0 and 1.
+   * @param random
+   *          The source of randomness.
+   */
+  public BernoulliSamplingIterator(Iterator<E> it, double p, Random random) {
+    if (p < 0 || p > 1) { throw new IllegalArgumentException(
+        "p must be between 0 and 1"); }
+    this.it = it;
+    this.logOneMinusP = Math.log(1 - p);
+    this.random = random;
+    this.done = (p == 0);
+  }
+
+  public boolean hasNext() {
+    if (hasNext) return true;
+    if (done) return false;
+    // log(1 - p) is -Infinity for p = 1, making every gap 0
+    double gap = Math.floor(Math.log(1.0 - random.nextDouble()) / logOneMinusP);
+    long skip = (gap >= Long.MAX_VALUE) ? Long.MAX_VALUE : (long) gap;
+    if (Itertools.skip(it, skip) < skip || !it.hasNext()) {
+      done = true;
+      return false;
+    }
+    next = it.next();
+    hasNext = true;
+    return true;
+  }
+
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    hasNext = false;
+    E e = next;
+    next = null;
+    return e;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -15,18 +15,21 @@
  */
 package itertools.iterator;
 
+import itertools.Itertools;
+
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
 
 /**
- * Chains a set of iterators together.
+ * Chains a set of iterators together. Skipping is delegated to the chained
+ * iterators.
  * 
  * @author jelsas
  * 
  * @param <E>
  */
-public class ChainedIterator<E> implements Iterator<E> {
+public class ChainedIterator<E> implements Skippable<E> {
   private LinkedList<Iterator<E>> iterator_chain = new LinkedList<Iterator<E>>();
   private E next;
 
@@ -48,6 +51,19 @@ public class ChainedIterator<E> implements Iterator<E> {
     return advanceIterator();
   }
 
+  public long skip(long n) {
+    if (n <= 0 || next == null) return 0;
+    // the first skipped element is the one already read ahead
+    long skipped = 1;
+    while (skipped < n && !iterator_chain.isEmpty()) {
+      skipped += Itertools.skip(iterator_chain.getFirst(), n - skipped);
+      if (skipped < n) iterator_chain.removeFirst();
+    }
+    next = null;
+    advanceIterator();
+    return skipped;
+  }
+
   public void remove() {
     // We can't suport this since its possible the last returned item is from an
     // interator we no longer have a handle on.
@@ -19,14 +19,15 @@ package itertools.iterator;
 import java.util.Iterator;
 
 /**
- * An iterator that chunks elements into chunkSize iterators.
+ * An iterator that chunks elements into chunkSize iterators. See
+ * {@link CountWindowIterator} for aggregating sliding or tumbling windows.
  * 
  * @author jelsas
  * 
  */
 public class ChunkingIterator<E> extends LazyGroupingIterator<E> {
   EnumeratingIterator<E> it;
-  private int chunkSize;
+  private long chunkSize;
 
   /**
    * @param it
@@ -35,6 +36,14 @@ public class ChunkingIterator<E> extends LazyGroupingIterator<E> {
    *          The maximum number of items in the chunk
    */
   public ChunkingIterator(Iterator<E> it, int chunkSize) {
+    this(it, (long) chunkSize);
+  }
+
+  /**
+   * See {@link #ChunkingIterator(Iterator, int)}, for chunks of more than
+   * Integer.MAX_VALUE items.
+   */
+  public ChunkingIterator(Iterator<E> it, long chunkSize) {
     super(new EnumeratingIterator<E>(it));
     this.it = (EnumeratingIterator<E>) super.it.it;
     this.chunkSize = chunkSize;
@@ -42,7 +51,7 @@ public class ChunkingIterator<E> extends LazyGroupingIterator<E> {
 
   @Override
   public boolean group(E e1, E e2) {
-    return (it.currentCount() % chunkSize != 0);
+    return (it.currentLongCount() % chunkSize != 0);
   }
 
 }
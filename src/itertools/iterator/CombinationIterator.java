@@ -0,0 +1,132 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.List;
+
+/**
+ * Iterates over the r-length combinations of a pool's elements, in
+ * lexicographic order of their (increasing) indices. Elements are
+ * distinguished by position, not value. Equivalent to python's
+ * <tt>itertools.combinations</tt>, or with replacement,
+ * <tt>itertools.combinations_with_replacement</tt>, where an element may be
+ * repeated. See {@link CombinatoricIterator}.
+ * 
+ * @param <E>
+ */
+public class CombinationIterator<E> extends CombinatoricIterator<E> {
+  private final List<E> pool;
+  private final int n;
+  private final boolean replacement;
+
+  public CombinationIterator(List<E> pool, int r) {
+    this(pool, r, false);
+  }
+
+  public CombinationIterator(List<E> pool, int r, boolean replacement) {
+    this(pool, r, replacement, 0, count(pool.size(), r, replacement));
+  }
+
+  /**
+   * Iterates over the combinations with ranks in [from, to).
+   */
+  public CombinationIterator(List<E> pool, int r, boolean replacement,
+      long from, long to) {
+    super(r, count(pool.size(), r, replacement), from, to);
+    this.pool = randomAccess(pool);
+    this.n = pool.size();
+    this.replacement = replacement;
+  }
+
+  /**
+   * The number of r-length combinations of n elements.
+   */
+  private static long count(int n, int r, boolean replacement) {
+    if (r < 0) throw new IllegalArgumentException("r < 0");
+    if (r == 0) return 1;
+    return replacement ? binomial(n + r - 1, r) : binomial(n, r);
+  }
+
+  /**
+   * The number of ways to fill the remaining positions when the element at
+   * position i of r is v.
+   */
+  private long completions(int v, int i) {
+    int r = indices.length;
+    return replacement ? count(n - v, r - i - 1, true) : binomial(n - v - 1, r
+        - i - 1);
+  }
+
+  @Override
+  public long size() {
+    return count(n, indices.length, replacement);
+  }
+
+  @Override
+  public void unrank(long rank, int[] indices) {
+    int v = 0;
+    for (int i = 0; i < indices.length; ++i) {
+      long c;
+      while (rank >= (c = completions(v, i))) {
+        rank -= c;
+        ++v;
+      }
+      indices[i] = v;
+      if (!replacement) ++v;
+    }
+  }
+
+  @Override
+  public long rank(int[] indices) {
+    long rank = 0;
+    int v = 0;
+    for (int i = 0; i < indices.length; ++i) {
+      for (; v < indices[i]; ++v) {
+        rank += completions(v, i);
+      }
+      if (!replacement) ++v;
+    }
+    return rank;
+  }
+
+  @Override
+  protected void increment(int[] indices) {
+    int r = indices.length;
+    int i = r - 1;
+    if (replacement) {
+      while (indices[i] == n - 1) {
+        --i;
+      }
+      int v = indices[i] + 1;
+      for (int j = i; j < r; ++j) {
+        indices[j] = v;
+      }
+    } else {
+      while (indices[i] == n - r + i) {
+        --i;
+      }
+      ++indices[i];
+      for (int j = i + 1; j < r; ++j) {
+        indices[j] = indices[j - 1] + 1;
+      }
+    }
+  }
+
+  @Override
+  protected E element(int position, int index) {
+    return pool.get(index);
+  }
+}
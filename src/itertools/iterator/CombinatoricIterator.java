@@ -0,0 +1,196 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Base class for iterators over tuples of elements chosen from pools, such as
+ * {@link ProductIterator} and {@link CombinationIterator}. Tuples are
+ * enumerated in lexicographic order of their indices into the pools, by
+ * updating an internal array of indices in place. {@link #next()} returns the
+ * same list view of that array each time, and {@link #nextIndices()} returns
+ * the array itself, so no objects are created per tuple. Copy the returned
+ * list, e.g. with <tt>new ArrayList(list)</tt>, to keep a tuple.
+ * 
+ * Each tuple has a rank, its position in the enumeration. An iterator can be
+ * created over a range of ranks, and {@link #skip(long)} jumps directly to a
+ * rank, so the enumeration can be split between parallel workers:
+ * 
+ * <pre>
+ * long size = new CombinationIterator&lt;E&gt;(pool, r).size();
+ * // worker w of n:
+ * new CombinationIterator&lt;E&gt;(pool, r, size * w / n, size * (w + 1) / n)
+ * </pre>
+ * 
+ * @param <E>
+ */
+public abstract class CombinatoricIterator<E> implements Skippable<List<E>> {
+  /** The indices of the last tuple returned. */
+  protected final int[] indices;
+  private long rank;
+  private final long end;
+  /** whether indices holds the tuple of rank - 1 */
+  private boolean positioned = false;
+  private final List<E> view = new TupleView();
+
+  /**
+   * @param length
+   *          The length of each tuple.
+   * @param size
+   *          The total number of tuples.
+   * @param from
+   *          The rank of the first tuple to return.
+   * @param to
+   *          One past the rank of the last tuple to return.
+   */
+  protected CombinatoricIterator(int length, long size, long from, long to) {
+    if (from < 0 || to > size || from > to) { throw new IndexOutOfBoundsException(
+        "range [" + from + ", " + to + ") of " + size + " tuples"); }
+    this.indices = new int[length];
+    this.rank = from;
+    this.end = to;
+  }
+
+  /**
+   * @return The total number of tuples, ignoring the iterator's range.
+   */
+  public abstract long size();
+
+  /**
+   * Sets indices to the tuple with the given rank.
+   */
+  public abstract void unrank(long rank, int[] indices);
+
+  /**
+   * @return The rank of the tuple with the given indices.
+   */
+  public abstract long rank(int[] indices);
+
+  /**
+   * Advances indices to the next tuple. Only called when there is one.
+   */
+  protected abstract void increment(int[] indices);
+
+  /**
+   * @return The element at the given index of the pool for a position of the
+   *         tuple.
+   */
+  protected abstract E element(int position, int index);
+
+  public boolean hasNext() {
+    return rank < end;
+  }
+
+  /**
+   * Advances to the next tuple, and returns its indices. The returned array is
+   * updated in place by later calls, and must not be modified.
+   */
+  public int[] nextIndices() {
+    if (rank >= end) throw new NoSuchElementException();
+    if (positioned) {
+      increment(indices);
+    } else {
+      unrank(rank, indices);
+      positioned = true;
+    }
+    ++rank;
+    return indices;
+  }
+
+  /**
+   * Returns the next tuple, as a view that is updated in place by later calls.
+   */
+  public List<E> next() {
+    nextIndices();
+    return view;
+  }
+
+  /**
+   * Skips n tuples in O(length) time, rather than enumerating them.
+   */
+  public long skip(long n) {
+    if (n <= 0) return 0;
+    long skipped = Math.min(n, end - rank);
+    rank += skipped;
+    positioned = false;
+    return skipped;
+  }
+
+  /**
+   * @return The rank of the next tuple.
+   */
+  public long nextRank() {
+    return rank;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  private class TupleView extends AbstractList<E> implements RandomAccess {
+    @Override
+    public E get(int position) {
+      return element(position, indices[position]);
+    }
+
+    @Override
+    public int size() {
+      return indices.length;
+    }
+  }
+
+  /**
+   * Copies the pool if it doesn't support fast random access.
+   */
+  static <E> List<E> randomAccess(List<E> pool) {
+    return (pool instanceof RandomAccess) ? pool : new ArrayList<E>(pool);
+  }
+
+  static long multiply(long a, long b) {
+    if (a != 0 && b > Long.MAX_VALUE / a) { throw new ArithmeticException(
+        "too many tuples"); }
+    return a * b;
+  }
+
+  /**
+   * The binomial coefficient C(n, k), or 0 if k &lt; 0 or k &gt; n.
+   */
+  static long binomial(long n, long k) {
+    if (k < 0 || k > n) return 0;
+    k = Math.min(k, n - k);
+    long c = 1;
+    for (long i = 1; i <= k; ++i) {
+      // c * (n - k + i) / i, dividing first so as not to overflow
+      long g = gcd(c, i);
+      c = multiply(c / g, (n - k + i) / (i / g));
+    }
+    return c;
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Pair;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.InvertibleAggregator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Aggregates windows of size consecutive elements, starting every slide
+ * elements: tumbling windows when slide == size, sliding windows when slide &lt;
+ * size, and hopping windows, which skip elements, when slide &gt; size. Produces
+ * one (start position, aggregate) pair per window, where the first element is
+ * at position 0.
+ * 
+ * Only full windows are produced, except that a final partial window is
+ * produced if the iterator ends with elements that aren't in any full window.
+ * 
+ * If the aggregators are {@link InvertibleAggregator}s (e.g. count, sum or
+ * average), each slide costs O(slide): elements leaving the window are removed
+ * from a single aggregate. Otherwise the window's elements are kept in a ring
+ * buffer and re-aggregated for each window, which costs O(size).
+ * 
+ * @param <E>
+ *          Element type.
+ * @param <R>
+ *          Aggregate type.
+ */
+public class CountWindowIterator<E, R> implements Iterator<Pair<Long, R>> {
+  private final Iterator<E> it;
+  private final int size;
+  private final int slide;
+  private final WindowBuffer<E, R> buffer;
+  /** the position of the next element read from it */
+  private long position = 0;
+  /** the start of the next window */
+  private long start = 0;
+  /** the end of the last window produced */
+  private long end = 0;
+
+  public CountWindowIterator(Iterator<E> it, int size, int slide,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    if (size < 1 || slide < 1) { throw new IllegalArgumentException(
+        "size and slide must be positive"); }
+    this.it = it;
+    this.size = size;
+    this.slide = slide;
+    this.buffer = new WindowBuffer<E, R>(factory, Math.min(size, 1024));
+  }
+
+  /**
+   * Reads the next window's elements into the buffer.
+   */
+  private void fill() {
+    // skip elements between hopping windows
+    while (position < start && it.hasNext()) {
+      it.next();
+      ++position;
+    }
+    while (position < start + size && it.hasNext()) {
+      buffer.add(it.next(), position++);
+    }
+  }
+
+  public boolean hasNext() {
+    fill();
+    // a full window, or a partial one with elements not produced yet
+    return !buffer.isEmpty() && (position == start + size || position > end);
+  }
+
+  public Pair<Long, R> next() {
+    if (!hasNext()) { throw new NoSuchElementException(); }
+    Pair<Long, R> window = new Pair<Long, R>(start, buffer.result());
+    end = position;
+    start += slide;
+    buffer.removeBefore(start);
+    return window;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
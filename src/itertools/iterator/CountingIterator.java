@@ -15,9 +15,7 @@
  */
 package itertools.iterator;
 
-import java.util.Iterator;
-
-public class CountingIterator implements Iterator<Integer> {
+public class CountingIterator implements Skippable<Integer> {
   private int count;
 
   public CountingIterator() {
@@ -39,6 +37,21 @@ public class CountingIterator implements Iterator<Integer> {
     return new Integer(count++);
   }
 
+  /**
+   * Moves the count forward by n in O(1). Use a {@link LongCountingIterator}
+   * for counts beyond the range of an int.
+   * 
+   * @throws ArithmeticException
+   *           If the count would pass Integer.MAX_VALUE.
+   */
+  public long skip(long n) {
+    if (n <= 0) return 0;
+    if (n > (long) Integer.MAX_VALUE - count) { throw new ArithmeticException(
+        "count > Integer.MAX_VALUE"); }
+    count += n;
+    return n;
+  }
+
   public void remove() {
     throw new UnsupportedOperationException();
   }
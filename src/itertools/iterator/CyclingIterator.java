@@ -15,54 +15,165 @@
 */
 package itertools.iterator;
 
+import itertools.io.Codec;
+import itertools.io.SpillableList;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
- * Cycles through the provided iterator forever.
+ * Cycles through the provided elements, forever or a given number of times.
+ * 
+ * Given an {@link Iterable} that returns a fresh iterator on every call to
+ * {@link Iterable#iterator()}, such as a {@link java.util.Collection}, each
+ * cycle simply iterates over it again. Given a one-shot {@link Iterator}, the
+ * elements of the first cycle are buffered for the later ones: in an
+ * {@link ArrayList}, or in a {@link SpillableList} that writes the elements
+ * beyond a memory budget to disk. Nothing is buffered when there is only one
+ * cycle.
+ * 
+ * Cycling over no elements ends immediately.
+ * 
+ * The buffer is released when the last cycle ends. Callers that stop early,
+ * in particular when cycling forever, must call {@link #close()} to delete the
+ * temporary file of a {@link SpillableList} buffer.
  * 
  * @author jelsas
  * 
  * @param <E>
  */
-public class CyclingIterator<E> implements Iterator<E> {
-  private LinkedList<E> storage = new LinkedList<E>();
+public class CyclingIterator<E> implements Iterator<E>, Closeable {
+  private Iterable<E> source;
+  private List<E> storage;
   private Iterator<E> it;
+  private int maxCycles;
   private int cycles = 0;
+  private boolean done = false;
 
+  /**
+   * Cycles through it forever, buffering its elements in memory.
+   */
   public CyclingIterator(Iterator<E> it) {
+    this(it, -1);
+  }
+
+  /**
+   * Cycles through it the given number of times, buffering its elements in
+   * memory.
+   * 
+   * @param it
+   *          The elements.
+   * @param cycles
+   *          The number of cycles, or &lt;0 to cycle forever.
+   */
+  public CyclingIterator(Iterator<E> it, int cycles) {
+    this.it = it;
+    this.maxCycles = cycles;
+    if (cycles != 1) storage = new ArrayList<E>();
+  }
+
+  /**
+   * Cycles through it the given number of times, buffering up to budget bytes
+   * of its elements in memory and the rest on disk.
+   * 
+   * @param it
+   *          The elements.
+   * @param cycles
+   *          The number of cycles, or &lt;0 to cycle forever.
+   * @param codec
+   *          Converts elements to bytes, both for estimating their size and
+   *          for the temporary file.
+   * @param budget
+   *          The memory budget, in bytes.
+   * @param tempDirectory
+   *          Where to create the temporary file, or null for the system
+   *          default.
+   */
+  public CyclingIterator(Iterator<E> it, int cycles, Codec<E> codec,
+      long budget, File tempDirectory) {
     this.it = it;
+    this.maxCycles = cycles;
+    if (cycles != 1) {
+      storage = new SpillableList<E>(codec, budget, tempDirectory);
+    }
   }
 
   /**
-   * Always returns true.
+   * Cycles through source the given number of times, calling
+   * {@link Iterable#iterator()} once per cycle. Nothing is buffered, so source
+   * must return a new iterator over the same elements on every call.
+   * 
+   * @param source
+   *          The elements.
+   * @param cycles
+   *          The number of cycles, or &lt;0 to cycle forever.
    */
+  public CyclingIterator(Iterable<E> source, int cycles) {
+    this.source = source;
+    this.it = source.iterator();
+    this.maxCycles = cycles;
+  }
+
   public boolean hasNext() {
+    if (done) return false;
+    if (maxCycles == 0) {
+      finish();
+      return false;
+    }
+    if (it.hasNext()) return true;
+    if (cycles + 1 == maxCycles) {
+      finish();
+      return false;
+    }
+    it = (source != null) ? source.iterator() : storage.iterator();
+    if (!it.hasNext()) {
+      finish();
+      return false;
+    }
+    ++cycles;
     return true;
   }
 
   public E next() {
-    if (it.hasNext()) {
-      if (cycles == 0) {
-        E next = it.next();
-        storage.add(next);
-        return next;
-      } else {
-        return it.next();
-      }
-    } else {
-      ++cycles;
-      it = storage.iterator();
-      return it.next();
-    }
+    if (!hasNext()) throw new NoSuchElementException();
+    E next = it.next();
+    if (cycles == 0 && storage != null) storage.add(next);
+    return next;
   }
 
+  /**
+   * Removes the last element from the current cycle, when cycling through an
+   * {@link Iterable}. Elements are not removed from the buffer of a one-shot
+   * iterator.
+   */
   public void remove() {
+    if (source == null) throw new UnsupportedOperationException();
     it.remove();
   }
 
+  /**
+   * @return The number of times the elements have been started over.
+   */
   public int getNumCycles() {
     return cycles;
   }
 
+  /**
+   * Ends the cycling and releases the buffer, deleting its temporary file.
+   */
+  public void close() {
+    finish();
+  }
+
+  private void finish() {
+    done = true;
+    if (storage instanceof SpillableList<?>) {
+      ((SpillableList<?>) storage).close();
+    }
+    storage = null;
+  }
 }
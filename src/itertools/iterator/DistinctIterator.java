@@ -0,0 +1,331 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+import itertools.aggregate.Hashing;
+import itertools.functions.Mapper;
+import itertools.io.Codec;
+import itertools.io.RunReader;
+import itertools.io.SpillPartitions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Returns the elements of an unsorted iterator whose keys haven't been seen
+ * before, keeping the first element with each key. Elements are returned as
+ * they are read, and the keys seen so far are kept in a hash set.
+ * 
+ * The set is limited to <tt>maxKeys</tt> keys. Once it is full, elements with
+ * keys not in the set are partitioned by hash into temporary files. After the
+ * rest of the input has been read, each partition is deduplicated in turn,
+ * recursively partitioning again if needed. Elements from partitions are
+ * returned after all the others, so the order of first occurrence is only
+ * kept while the set isn't full. Partitions are deleted as they are read; call
+ * {@link #close()} to delete the rest when stopping early.
+ * 
+ * Instead of the keys themselves, the set can hold 64- or 128-bit fingerprints
+ * of them, which take less memory but make distinct keys collide with a small
+ * probability (about n^2 / 2^65 for n keys with 64-bit fingerprints).
+ * Fingerprints are computed by {@link Hashing}, which hashes strings over all
+ * their characters and other objects from their hashCode(); only use
+ * fingerprints with keys whose hashCode() identifies them, such as strings and
+ * numbers.
+ * 
+ * @param <E>
+ */
+public class DistinctIterator<E> implements Iterator<E>, Closeable {
+  /** How the keys seen so far are stored. */
+  public enum KeySet {
+    /** The keys themselves, compared with equals(). */
+    EXACT,
+    /** 64-bit fingerprints of the keys. */
+    FINGERPRINT_64,
+    /** 128-bit fingerprints of the keys. */
+    FINGERPRINT_128
+  }
+
+  /** Number of partitions to spill to when the set is full. */
+  static final int PARTITIONS = 16;
+
+  private Iterator<E> input;
+  private Mapper<? super E, ?> keyMapper;
+  private KeySet keySet;
+  private Codec<E> codec;
+  private int maxKeys;
+  private File tempDirectory;
+  private int level;
+
+  private Keys seen;
+  private E next;
+  private boolean hasNext = false;
+
+  private SpillPartitions<E> spill;
+  private List<File> partitions = Collections.emptyList();
+  private int partitionIdx = 0;
+  private DistinctIterator<E> sub;
+
+  /**
+   * Creates a DistinctIterator that keeps every key in memory.
+   * 
+   * @param input
+   *          The elements.
+   * @param keyMapper
+   *          Extracts the key of an element.
+   */
+  public DistinctIterator(Iterator<E> input, Mapper<? super E, ?> keyMapper) {
+    this(input, keyMapper, KeySet.EXACT, null, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * Creates a DistinctIterator that keeps at most maxKeys keys in memory,
+   * spilling the rest to disk.
+   * 
+   * @param input
+   *          The elements.
+   * @param keyMapper
+   *          Extracts the key of an element.
+   * @param keySet
+   *          Whether to keep keys or fingerprints of keys.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   * @param maxKeys
+   *          The maximum number of keys to keep in memory at once.
+   * @param tempDirectory
+   *          Where to create temporary files, or null for the system default.
+   */
+  public DistinctIterator(Iterator<E> input, Mapper<? super E, ?> keyMapper,
+      KeySet keySet, Codec<E> codec, int maxKeys, File tempDirectory) {
+    this(input, keyMapper, keySet, codec, maxKeys, tempDirectory, 0);
+  }
+
+  private DistinctIterator(Iterator<E> input, Mapper<? super E, ?> keyMapper,
+      KeySet keySet, Codec<E> codec, int maxKeys, File tempDirectory, int level) {
+    if (maxKeys < 1) throw new IllegalArgumentException("maxKeys < 1");
+    this.input = input;
+    this.keyMapper = keyMapper;
+    this.keySet = keySet;
+    this.codec = codec;
+    this.maxKeys = maxKeys;
+    this.tempDirectory = tempDirectory;
+    this.level = level;
+    switch (keySet) {
+      case EXACT:
+        seen = new ExactKeys();
+        break;
+      default:
+        seen = new FingerprintKeys(keySet == KeySet.FINGERPRINT_128);
+    }
+  }
+
+  public boolean hasNext() {
+    if (hasNext) return true;
+    try {
+      if (seen != null) {
+        while (input.hasNext()) {
+          E e = input.next();
+          Object k = keyMapper.map(e);
+          if (seen.size() < maxKeys) {
+            if (seen.add(k)) {
+              next = e;
+              hasNext = true;
+              return true;
+            }
+          } else if (!seen.contains(k)) {
+            spill(e, k);
+          }
+        }
+        // the input is done: let the set be garbage collected
+        seen = null;
+        if (spill != null) {
+          partitions = spill.close();
+          spill = null;
+        }
+      }
+      while (true) {
+        if (sub != null && sub.hasNext()) {
+          next = sub.next();
+          hasNext = true;
+          return true;
+        }
+        if (partitionIdx >= partitions.size()) return false;
+        RunReader<E> reader = new RunReader<E>(partitions.get(partitionIdx++),
+            codec);
+        reader.setDeleteOnClose(true);
+        sub = new DistinctIterator<E>(reader, keyMapper, keySet, codec,
+            maxKeys, tempDirectory, level + 1);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void spill(E e, Object k) throws IOException {
+    if (codec == null) throw new IllegalStateException("No codec to spill with");
+    if (spill == null) {
+      spill = new SpillPartitions<E>(codec, PARTITIONS, tempDirectory);
+    }
+    long h = Hashing.hash64(k, level);
+    spill.add((int) ((h >>> 1) % PARTITIONS), e);
+  }
+
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    hasNext = false;
+    E e = next;
+    next = null;
+    return e;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Deletes the partitions that haven't been read yet, including any still
+   * being written, and closes the input.
+   */
+  public void close() {
+    seen = null;
+    hasNext = false;
+    next = null;
+    if (spill != null) {
+      spill.delete();
+      spill = null;
+    }
+    if (sub != null) {
+      sub.close();
+      sub = null;
+    }
+    for (; partitionIdx < partitions.size(); ++partitionIdx) {
+      partitions.get(partitionIdx).delete();
+    }
+    if (input instanceof RunReader<?>) {
+      ((RunReader<?>) input).close();
+    } else {
+      Itertools.close(input);
+    }
+  }
+
+  private interface Keys {
+    /** @return true if the key was not in the set. */
+    boolean add(Object key);
+
+    boolean contains(Object key);
+
+    int size();
+  }
+
+  private static class ExactKeys implements Keys {
+    private Set<Object> keys = new HashSet<Object>();
+
+    public boolean add(Object key) {
+      return keys.add(key);
+    }
+
+    public boolean contains(Object key) {
+      return keys.contains(key);
+    }
+
+    public int size() {
+      return keys.size();
+    }
+  }
+
+  /**
+   * An open-addressing set of 64- or 128-bit fingerprints. An all-zero
+   * fingerprint marks an empty slot, so zero is stored as one.
+   */
+  private static class FingerprintKeys implements Keys {
+    private long[] high = new long[16];
+    private long[] low;
+    private int size = 0;
+
+    FingerprintKeys(boolean wide) {
+      if (wide) low = new long[16];
+    }
+
+    private long high(Object key) {
+      long h = Hashing.hash64(key);
+      return (h == 0 && low == null) ? 1 : h;
+    }
+
+    private long low(Object key) {
+      return (low == null) ? 0 : Hashing.hash64Alt(key);
+    }
+
+    /**
+     * Returns the slot holding the fingerprint, or the empty slot where it
+     * should go.
+     */
+    private int find(long h, long l) {
+      int mask = high.length - 1;
+      int i = (int) h & mask;
+      while (high[i] != 0 || (low != null && low[i] != 0)) {
+        if (high[i] == h && (low == null || low[i] == l)) return i;
+        i = (i + 1) & mask;
+      }
+      return i;
+    }
+
+    private boolean isEmpty(int slot) {
+      return high[slot] == 0 && (low == null || low[slot] == 0);
+    }
+
+    public boolean add(Object key) {
+      long h = high(key), l = low(key);
+      if (h == 0 && l == 0) l = 1;
+      int slot = find(h, l);
+      if (!isEmpty(slot)) return false;
+      high[slot] = h;
+      if (low != null) low[slot] = l;
+      if (++size * 2 > high.length) resize();
+      return true;
+    }
+
+    public boolean contains(Object key) {
+      long h = high(key), l = low(key);
+      if (h == 0 && l == 0) l = 1;
+      return !isEmpty(find(h, l));
+    }
+
+    public int size() {
+      return size;
+    }
+
+    private void resize() {
+      long[] oldHigh = high, oldLow = low;
+      high = new long[oldHigh.length * 2];
+      if (oldLow != null) low = new long[oldHigh.length * 2];
+      for (int i = 0; i < oldHigh.length; ++i) {
+        long h = oldHigh[i], l = (oldLow == null) ? 0 : oldLow[i];
+        if (h != 0 || l != 0) {
+          int slot = find(h, l);
+          high[slot] = h;
+          if (low != null) low[slot] = l;
+        }
+      }
+    }
+  }
+}
@@ -15,19 +15,23 @@
  */
 package itertools.iterator;
 
+import itertools.Itertools;
+
 import java.util.Iterator;
 
 /**
  * Iterator that keeps a count of the number of times next() has been called
- * (starting at zero). {@link #currentCount()} retrieves this count.
+ * (starting at zero). {@link #currentCount()} retrieves this count, or
+ * {@link #currentLongCount()} once it passes {@link Integer#MAX_VALUE}. Skipped
+ * elements are counted too.
  * 
  * @author jelsas
  * 
  * @param <E>
  */
-public class EnumeratingIterator<E> implements Iterator<E> {
+public class EnumeratingIterator<E> implements Skippable<E> {
   Iterator<E> it;
-  private int count = -1;
+  private long count = -1;
 
   public EnumeratingIterator(Iterator<E> it) {
     this.it = it;
@@ -42,11 +46,27 @@ public class EnumeratingIterator<E> implements Iterator<E> {
     return it.next();
   }
 
+  public long skip(long n) {
+    long skipped = Itertools.skip(it, n);
+    count += skipped;
+    return skipped;
+  }
+
   public void remove() {
     it.remove();
   }
 
+  /**
+   * @throws ArithmeticException
+   *           If the count does not fit in an <tt>int</tt>.
+   */
   public int currentCount() {
+    if (count > Integer.MAX_VALUE)
+      throw new ArithmeticException("count > Integer.MAX_VALUE");
+    return (int) count;
+  }
+
+  public long currentLongCount() {
     return count;
   }
 
@@ -0,0 +1,95 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Pair;
+import itertools.aggregate.Aggregator;
+import itertools.aggregate.AggregatorFactory;
+import itertools.functions.Mapper;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Folds each group of adjacent elements with equal keys into an
+ * {@link Aggregator}, producing one (key, result) pair per group. Elements are
+ * added to the aggregator as they are read, so no group is buffered and no
+ * per-group iterator is created. Each element's key is computed once, and keys
+ * are compared with {@link Object#equals(Object)}; null keys are equal to each
+ * other.
+ * 
+ * For unsorted input, see {@link HashAggregatingIterator}.
+ * 
+ * @param <K>
+ *          Key type.
+ * @param <E>
+ *          Element type.
+ * @param <R>
+ *          Result type.
+ */
+public class GroupAggregatingIterator<K, E, R> implements Iterator<Pair<K, R>> {
+  private final Iterator<E> it;
+  private final Mapper<? super E, ? extends K> keyMapper;
+  private final AggregatorFactory<? super E, ? extends R> factory;
+  private boolean started = false;
+  private E pending;
+  private K pendingKey;
+  private boolean hasPending = false;
+
+  public GroupAggregatingIterator(Iterator<E> it,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    this.it = it;
+    this.keyMapper = keyMapper;
+    this.factory = factory;
+  }
+
+  private void advance() {
+    started = true;
+    if (it.hasNext()) {
+      pending = it.next();
+      pendingKey = keyMapper.map(pending);
+      hasPending = true;
+    } else {
+      pending = null;
+      pendingKey = null;
+      hasPending = false;
+    }
+  }
+
+  public boolean hasNext() {
+    if (!started) {
+      advance();
+    }
+    return hasPending;
+  }
+
+  public Pair<K, R> next() {
+    if (!hasNext()) { throw new NoSuchElementException(); }
+    K key = pendingKey;
+    Aggregator<? super E, ? extends R> agg = factory.create();
+    do {
+      agg.add(pending);
+      advance();
+    } while (hasPending
+        && ((key == null) ? pendingKey == null : key.equals(pendingKey)));
+    return new Pair<K, R>(key, agg.result());
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
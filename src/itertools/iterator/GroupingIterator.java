@@ -26,8 +26,9 @@ import java.util.NoSuchElementException;
  * 'uniq' or python's itertools.groupby.
  * 
  * Note: This iterator reads the entire next group into memory. See
- * {@link #GroupingIterator(Iterator, int)} for limiting the group size or
- * {@link LazyGroupingIterator} for avoiding this memory allocation.
+ * {@link #GroupingIterator(Iterator, int)} for limiting the group size,
+ * {@link LazyGroupingIterator} for avoiding this memory allocation, or
+ * {@link SpillingGroupingIterator} for spilling large groups to disk.
  * 
  * @author jelsas
  * 
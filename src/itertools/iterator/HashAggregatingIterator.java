@@ -0,0 +1,257 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+import itertools.Pair;
+import itertools.aggregate.Aggregator;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.Hashing;
+import itertools.functions.Mapper;
+import itertools.io.Codec;
+import itertools.io.RunReader;
+import itertools.io.SpillPartitions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Aggregates the elements of an unsorted iterator by key, producing one
+ * (key, result) pair per distinct key. Unlike grouping with
+ * {@link GroupingIterator}, the input doesn't need to be sorted: one
+ * {@link Aggregator} per key is kept in an open-addressing hash table.
+ * 
+ * The table is limited to <tt>maxKeys</tt> keys. Once it is full, elements
+ * with keys not already in the table are partitioned by hash into temporary
+ * files (Grace hash aggregation). After the table's results have been
+ * returned, each partition is aggregated in turn, recursively partitioning
+ * again if needed.
+ * 
+ * Note: the whole input is consumed by the first call to {@link #hasNext()}
+ * or {@link #next()}. Results are returned in no particular order. Partitions
+ * are deleted as they are read; call {@link #close()} to delete the rest when
+ * stopping early.
+ * 
+ * @param <K>
+ *          Key type
+ * @param <E>
+ *          Element type
+ * @param <R>
+ *          Result type
+ */
+public class HashAggregatingIterator<K, E, R> implements
+    Iterator<Pair<K, R>>, Closeable {
+  /** Number of partitions to spill to when the table is full. */
+  static final int PARTITIONS = 16;
+  private static final Object NULL_KEY = new Object();
+
+  private Iterator<E> input;
+  private Mapper<? super E, ? extends K> keyMapper;
+  private AggregatorFactory<? super E, ? extends R> factory;
+  private Codec<E> codec;
+  private int maxKeys;
+  private File tempDirectory;
+  private int level;
+
+  private boolean aggregated = false;
+  private Object[] keys = new Object[16];
+  private Object[] aggs = new Object[16];
+  private int size = 0;
+  private int outIdx = 0;
+
+  private List<File> partitions = Collections.emptyList();
+  private int partitionIdx = 0;
+  private HashAggregatingIterator<K, E, R> sub;
+
+  /**
+   * Creates a HashAggregatingIterator that keeps every key in memory.
+   * 
+   * @param input
+   *          The elements to aggregate.
+   * @param keyMapper
+   *          Extracts the key from an element.
+   * @param factory
+   *          Creates an aggregator for each key.
+   */
+  public HashAggregatingIterator(Iterator<E> input,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory) {
+    this(input, keyMapper, factory, null, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * Creates a HashAggregatingIterator that keeps at most maxKeys keys in
+   * memory, spilling the rest to disk.
+   * 
+   * @param input
+   *          The elements to aggregate.
+   * @param keyMapper
+   *          Extracts the key from an element.
+   * @param factory
+   *          Creates an aggregator for each key.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   * @param maxKeys
+   *          The maximum number of keys to aggregate in memory at once.
+   * @param tempDirectory
+   *          Where to create temporary files, or null for the system default.
+   */
+  public HashAggregatingIterator(Iterator<E> input,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory, Codec<E> codec,
+      int maxKeys, File tempDirectory) {
+    this(input, keyMapper, factory, codec, maxKeys, tempDirectory, 0);
+  }
+
+  private HashAggregatingIterator(Iterator<E> input,
+      Mapper<? super E, ? extends K> keyMapper,
+      AggregatorFactory<? super E, ? extends R> factory, Codec<E> codec,
+      int maxKeys, File tempDirectory, int level) {
+    if (maxKeys < 1) throw new IllegalArgumentException("maxKeys < 1");
+    this.input = input;
+    this.keyMapper = keyMapper;
+    this.factory = factory;
+    this.codec = codec;
+    this.maxKeys = maxKeys;
+    this.tempDirectory = tempDirectory;
+    this.level = level;
+  }
+
+  public boolean hasNext() {
+    if (!aggregated) aggregate();
+    while (true) {
+      if (keys != null) {
+        while (outIdx < keys.length && keys[outIdx] == null) {
+          ++outIdx;
+        }
+        if (outIdx < keys.length) return true;
+        // let the table be garbage collected
+        keys = null;
+        aggs = null;
+      }
+      if (sub != null && sub.hasNext()) return true;
+      if (partitionIdx >= partitions.size()) return false;
+      try {
+        RunReader<E> reader = new RunReader<E>(partitions.get(partitionIdx++),
+            codec);
+        reader.setDeleteOnClose(true);
+        sub = new HashAggregatingIterator<K, E, R>(reader, keyMapper, factory,
+            codec, maxKeys, tempDirectory, level + 1);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public Pair<K, R> next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    if (keys == null) return sub.next();
+    Object k = keys[outIdx];
+    Aggregator<? super E, ? extends R> agg = (Aggregator<? super E, ? extends R>) aggs[outIdx];
+    ++outIdx;
+    return new Pair<K, R>(k == NULL_KEY ? null : (K) k, agg.result());
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Deletes the partitions that haven't been aggregated yet, and closes the
+   * input.
+   */
+  public void close() {
+    aggregated = true;
+    keys = null;
+    aggs = null;
+    if (sub != null) {
+      sub.close();
+      sub = null;
+    }
+    for (; partitionIdx < partitions.size(); ++partitionIdx) {
+      partitions.get(partitionIdx).delete();
+    }
+    if (input instanceof RunReader<?>) {
+      ((RunReader<?>) input).close();
+    } else {
+      Itertools.close(input);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void aggregate() {
+    aggregated = true;
+    SpillPartitions<E> spill = null;
+    try {
+      while (input.hasNext()) {
+        E e = input.next();
+        Object k = keyMapper.map(e);
+        if (k == null) k = NULL_KEY;
+        int slot = find(k);
+        if (keys[slot] != null) {
+          ((Aggregator<? super E, ? extends R>) aggs[slot]).add(e);
+        } else if (size < maxKeys) {
+          Aggregator<? super E, ? extends R> agg = factory.create();
+          agg.add(e);
+          keys[slot] = k;
+          aggs[slot] = agg;
+          if (++size * 2 > keys.length) resize();
+        } else {
+          if (codec == null) throw new IllegalStateException("No codec to spill with");
+          if (spill == null) {
+            spill = new SpillPartitions<E>(codec, PARTITIONS, tempDirectory);
+          }
+          long h = Hashing.hash64(k, level);
+          spill.add((int) ((h >>> 1) % PARTITIONS), e);
+        }
+      }
+      if (spill != null) partitions = spill.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the slot holding k, or the empty slot where it should go.
+   */
+  private int find(Object k) {
+    int mask = keys.length - 1;
+    int i = Hashing.mix32(k.hashCode()) & mask;
+    while (keys[i] != null && !keys[i].equals(k)) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  private void resize() {
+    Object[] oldKeys = keys, oldAggs = aggs;
+    keys = new Object[oldKeys.length * 2];
+    aggs = new Object[oldKeys.length * 2];
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (oldKeys[i] != null) {
+        int slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        aggs[slot] = oldAggs[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over a random-access list (or an array via
+ * {@link java.util.Arrays#asList(Object...)}) by index. If the list is sorted,
+ * {@link #seek(Object, Comparator)} skips ahead with an exponential (galloping)
+ * search, costing O(log d) comparisons to move d elements forward, and
+ * {@link #skip(long)} moves the index in O(1). {@link #remove()} removes from
+ * the list, if it supports that.
+ * 
+ * @param <E>
+ */
+public class IndexedIterator<E> implements Seekable<E>, Skippable<E> {
+  private List<E> list;
+  private int pos, end;
+  /** index of the element last returned by next(), or -1 */
+  private int last = -1;
+
+  /**
+   * @param list
+   *          The list to iterate over. Should support fast random access.
+   */
+  public IndexedIterator(List<E> list) {
+    this(list, 0, list.size());
+  }
+
+  /**
+   * @param list
+   *          The list to iterate over. Should support fast random access.
+   * @param start
+   *          The first index to return.
+   * @param end
+   *          One past the last index to return.
+   */
+  public IndexedIterator(List<E> list, int start, int end) {
+    if (start < 0 || end > list.size() || start > end)
+      throw new IndexOutOfBoundsException();
+    this.list = list;
+    this.pos = start;
+    this.end = end;
+  }
+
+  public boolean hasNext() {
+    return pos < end;
+  }
+
+  public E next() {
+    if (pos >= end) throw new NoSuchElementException();
+    last = pos;
+    return list.get(pos++);
+  }
+
+  public long skip(long n) {
+    if (n <= 0) return 0;
+    int skipped = (int) Math.min(n, end - pos);
+    pos += skipped;
+    return skipped;
+  }
+
+  /**
+   * Copies up to len of the remaining elements into buf, for bulk consumers
+   * such as {@link ArrayChunkingIterator}.
+   * 
+   * @return The number of elements copied.
+   */
+  int next(Object[] buf, int off, int len) {
+    int n = Math.min(len, end - pos);
+    last = -1;
+    for (int i = 0; i < n; ++i) {
+      buf[off + i] = list.get(pos++);
+    }
+    return n;
+  }
+
+  public void remove() {
+    if (last < 0) throw new IllegalStateException();
+    list.remove(last);
+    last = -1;
+    --pos;
+    --end;
+  }
+
+  public void seek(E target, Comparator<? super E> comp) {
+    if (pos >= end || comp.compare(list.get(pos), target) >= 0) return;
+
+    // gallop: list[lo] < target, double the step until list[hi] >= target
+    int lo = pos, step = 1, hi = pos + 1;
+    while (hi < end && comp.compare(list.get(hi), target) < 0) {
+      lo = hi;
+      step <<= 1;
+      hi = (end - lo > step) ? lo + step : end;
+    }
+
+    // binary search for the first element >= target in (lo, hi]
+    ++lo;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comp.compare(list.get(mid), target) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    pos = lo;
+  }
+}
@@ -53,4 +53,16 @@ public abstract class IteratorWrapper<E> implements Iterator<E> {
   }
 
   public abstract E getNext();
+
+  /**
+   * Discards the element read ahead by {@link #hasNext()}, if any, for
+   * subclasses that skip ahead in their source.
+   * 
+   * @return true if an element was discarded.
+   */
+  protected boolean discardNext() {
+    boolean discarded = (next != null);
+    next = null;
+    return discarded;
+  }
 }
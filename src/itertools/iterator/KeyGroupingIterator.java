@@ -0,0 +1,152 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Pair;
+import itertools.functions.Mapper;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Groups adjacent elements that have equal keys, producing (key, group) pairs.
+ * Unlike {@link LazyGroupingIterator}, whose group function sees two elements
+ * at a time, the key of each element is computed exactly once, and the key of
+ * the current group is cached and compared with {@link Object#equals(Object)}.
+ * Null keys are equal to each other.
+ * 
+ * Groups are read lazily from the underlying iterator: advancing to the next
+ * group skips whatever remains of the current one, and invalidates its
+ * iterator.
+ * 
+ * @param <K>
+ *          Key type.
+ * @param <E>
+ *          Element type.
+ */
+public class KeyGroupingIterator<K, E> implements Iterator<Pair<K, Iterator<E>>> {
+  private final Iterator<E> it;
+  private final Mapper<? super E, ? extends K> keyMapper;
+  private boolean started = false;
+  /** the next unread element, and whether there is one */
+  private E pending;
+  private boolean hasPending = false;
+  private K pendingKey;
+  private K groupKey;
+  private Group currentGroup;
+
+  public KeyGroupingIterator(Iterator<E> it,
+      Mapper<? super E, ? extends K> keyMapper) {
+    this.it = it;
+    this.keyMapper = keyMapper;
+  }
+
+  /**
+   * For subclasses keeping their keys in primitive fields.
+   */
+  KeyGroupingIterator(Iterator<E> it) {
+    this(it, null);
+  }
+
+  /**
+   * Computes and stores the key of the pending element.
+   */
+  void readKey(E item) {
+    pendingKey = keyMapper.map(item);
+  }
+
+  /**
+   * Makes the pending element's key the key of the group.
+   */
+  void startGroup() {
+    groupKey = pendingKey;
+  }
+
+  /**
+   * Whether the pending element's key equals the group's key.
+   */
+  boolean sameKey() {
+    return (groupKey == null) ? pendingKey == null : groupKey.equals(pendingKey);
+  }
+
+  /**
+   * The key of the group, as returned to callers.
+   */
+  K groupKey() {
+    return groupKey;
+  }
+
+  private void advance() {
+    started = true;
+    if (it.hasNext()) {
+      pending = it.next();
+      hasPending = true;
+      readKey(pending);
+    } else {
+      pending = null;
+      hasPending = false;
+    }
+  }
+
+  public boolean hasNext() {
+    if (!started) {
+      advance();
+    }
+    if (currentGroup != null) {
+      while (currentGroup.hasNext()) {
+        currentGroup.next();
+      }
+      currentGroup = null;
+    }
+    return hasPending;
+  }
+
+  /**
+   * Returns the key and the elements of the next group. Note: this invalidates
+   * the previously returned group's iterator.
+   */
+  public Pair<K, Iterator<E>> next() {
+    if (!hasNext()) { throw new NoSuchElementException(); }
+    startGroup();
+    currentGroup = new Group();
+    return new Pair<K, Iterator<E>>(groupKey(), currentGroup);
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  private class Group implements Iterator<E> {
+    private boolean first = true;
+
+    public boolean hasNext() {
+      if (currentGroup != this || !hasPending) { return false; }
+      return first || sameKey();
+    }
+
+    public E next() {
+      if (!hasNext()) { throw new NoSuchElementException(); }
+      first = false;
+      E item = pending;
+      advance();
+      return item;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -33,7 +33,7 @@ import java.util.NoSuchElementException;
  */
 public abstract class LazyGroupingIterator<E> implements Iterator<Iterator<E>> {
   PushbackIterator<E> it;
-  TakewhileIterator<E> currentGroup;
+  private final Group currentGroup = new Group();
 
   /**
    * Creates a new GroupingIterator wrapping it.
@@ -44,51 +44,26 @@ public abstract class LazyGroupingIterator<E> implements Iterator<Iterator<E>> {
     this.it = new PushbackIterator<E>(it);
   }
 
-  private void consumeCurrentGroup() {
-    if (currentGroup != null) {
-      while (currentGroup.hasNext()) {
-        currentGroup.next();
-      }
-
-      // push the last one back into the iterator
-      E last = currentGroup.getLast();
-      if (last != null) {
-        it.pushBack(currentGroup.getLast());
-      }
-
-      // and null the current group iterator so we don't do this again
-      currentGroup = null;
-    }
-  }
-
   /**
    * Note: this invalides the previously returned group's iterator.
    */
   public boolean hasNext() {
-    consumeCurrentGroup();
+    // skip the rest of the current group. The element ending it is pushed
+    // back.
+    while (currentGroup.hasNext()) {
+      currentGroup.next();
+    }
     return it.hasNext();
   }
 
   /**
-   * Returns the next group of data as an iterator. Note: this invalides the
-   * previously returned group's iterator.
+   * Returns the next group of data as an iterator. Note: the same iterator
+   * object is returned for every group, so this invalides the previously
+   * returned group's iterator.
    */
   public Iterator<E> next() {
     if (!hasNext()) { throw new NoSuchElementException(); }
-
-    final E first = it.next();
-    it.pushBack(first);
-    currentGroup = new TakewhileIterator<E>(it) {
-      @Override
-      public boolean condition(E item) {
-        // Ensure no groups are empty.
-        if (item == first) {
-          return true;
-        } else {
-          return group(first, item);
-        }
-      }
-    };
+    currentGroup.reset(it.next());
     return currentGroup;
   }
 
@@ -97,6 +72,59 @@ public abstract class LazyGroupingIterator<E> implements Iterator<Iterator<E>> {
     it.remove();
   }
 
+  /**
+   * The cursor over the current group. group(first, item) is called once for
+   * each item after the first.
+   */
+  private class Group implements Iterator<E> {
+    private E first;
+    private boolean firstReturned = true;
+    private E next;
+    private boolean hasNext = false;
+    private boolean done = true;
+
+    void reset(E first) {
+      this.first = first;
+      firstReturned = false;
+      next = null;
+      hasNext = false;
+      done = false;
+    }
+
+    public boolean hasNext() {
+      if (done) { return false; }
+      if (!firstReturned || hasNext) { return true; }
+      if (it.hasNext()) {
+        E item = it.next();
+        if (group(first, item)) {
+          next = item;
+          hasNext = true;
+          return true;
+        }
+        it.pushBack(item);
+      }
+      done = true;
+      first = null;
+      return false;
+    }
+
+    public E next() {
+      if (!hasNext()) { throw new NoSuchElementException(); }
+      if (!firstReturned) {
+        firstReturned = true;
+        return first;
+      }
+      E item = next;
+      next = null;
+      hasNext = false;
+      return item;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
   /**
    * The function to define the groups in this iterator.
    * 
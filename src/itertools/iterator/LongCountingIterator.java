@@ -0,0 +1,66 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+/**
+ * A {@link CountingIterator} over <tt>long</tt>s, for counts that pass
+ * {@link Integer#MAX_VALUE}. Use {@link #nextLong()} to avoid boxing.
+ */
+public class LongCountingIterator implements Skippable<Long> {
+  private long count;
+
+  public LongCountingIterator() {
+    this(0);
+  }
+
+  public LongCountingIterator(long start) {
+    count = start;
+  }
+
+  /**
+   * Always returns true.
+   */
+  public boolean hasNext() {
+    return true;
+  }
+
+  public Long next() {
+    return Long.valueOf(count++);
+  }
+
+  /**
+   * Moves the count forward by n in O(1).
+   */
+  public long skip(long n) {
+    if (n <= 0) return 0;
+    count += n;
+    return n;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * An unboxed version of {@link #next()}.
+   * 
+   * @return The next <tt>long</tt>.
+   */
+  public long nextLong() {
+    return count++;
+  }
+
+}
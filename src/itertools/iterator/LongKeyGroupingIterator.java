@@ -0,0 +1,59 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.functions.LongMapper;
+
+import java.util.Iterator;
+
+/**
+ * A {@link KeyGroupingIterator} over primitive long keys, compared with
+ * <tt>==</tt>. Keys are only boxed once per group, when the group is returned.
+ * 
+ * @param <E>
+ *          Element type.
+ */
+public class LongKeyGroupingIterator<E> extends KeyGroupingIterator<Long, E> {
+  private final LongMapper<? super E> keyMapper;
+  private long pendingKey;
+  private long groupKey;
+
+  public LongKeyGroupingIterator(Iterator<E> it,
+      LongMapper<? super E> keyMapper) {
+    super(it);
+    this.keyMapper = keyMapper;
+  }
+
+  @Override
+  void readKey(E item) {
+    pendingKey = keyMapper.map(item);
+  }
+
+  @Override
+  void startGroup() {
+    groupKey = pendingKey;
+  }
+
+  @Override
+  boolean sameKey() {
+    return groupKey == pendingKey;
+  }
+
+  @Override
+  Long groupKey() {
+    return groupKey;
+  }
+}
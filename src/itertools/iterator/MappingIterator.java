@@ -15,10 +15,13 @@
 */
 package itertools.iterator;
 
+import itertools.Itertools;
+
 import java.util.Iterator;
 
 /**
- * Wraps an interator producing I's and produces O's
+ * Wraps an interator producing I's and produces O's. Skipped elements are
+ * skipped in the underlying iterator, without being mapped.
  * 
  * @author jelsas
  * 
@@ -27,7 +30,7 @@ import java.util.Iterator;
  * @param <O>
  *          Output type
  */
-public abstract class MappingIterator<I, O> implements Iterator<O> {
+public abstract class MappingIterator<I, O> implements Skippable<O> {
   private Iterator<I> in;
 
   public MappingIterator(Iterator<I> in) {
@@ -42,6 +45,10 @@ public abstract class MappingIterator<I, O> implements Iterator<O> {
     return map(in.next());
   }
 
+  public long skip(long n) {
+    return Itertools.skip(in, n);
+  }
+
   public void remove() {
     in.remove();
   }
@@ -0,0 +1,234 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.functions.Combiner;
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Joins two iterators that are both sorted by a key, like a database
+ * sort-merge join. Each output element is built by the provided
+ * {@link Combiner} from a left and right element with equal keys. For outer
+ * joins, the missing side is passed to the combiner as null.
+ * 
+ * Both sides are read sequentially and only once. The left side is streamed;
+ * the right side's elements for the current key are buffered so that they can
+ * be joined against every left element with that key. Memory use is therefore
+ * bounded by the largest run of equal keys in the right iterator -- put the
+ * side with fewer duplicates on the right.
+ * 
+ * @param <K>
+ *          Key type
+ * @param <L>
+ *          Left element type
+ * @param <R>
+ *          Right element type
+ * @param <O>
+ *          Output type
+ */
+public class MergeJoinIterator<K, L, R, O> implements Iterator<O> {
+  public enum JoinType {
+    /** Only emit elements with keys present on both sides. */
+    INNER,
+    /** Also emit left elements that have no match, with a null right. */
+    LEFT_OUTER,
+    /** Also emit unmatched elements from either side. */
+    FULL_OUTER
+  }
+
+  private Iterator<L> left;
+  private Iterator<R> right;
+  private Mapper<? super L, ? extends K> leftKey;
+  private Mapper<? super R, ? extends K> rightKey;
+  private Comparator<? super K> comp;
+  private Combiner<? super L, ? super R, ? extends O> combiner;
+  private JoinType type;
+
+  // the next unread element on each side, and its key
+  private L leftHead;
+  private K leftHeadKey;
+  private boolean leftHasHead;
+  private R rightHead;
+  private K rightHeadKey;
+  private boolean rightHasHead;
+
+  // the buffered right elements sharing the key groupKey
+  private ArrayList<R> group = new ArrayList<R>();
+  private K groupKey;
+  private boolean groupMatched;
+
+  // state while joining currentLeft against the group
+  private L currentLeft;
+  private boolean joining = false;
+  private int groupIdx;
+
+  // state while emitting an unmatched group (full outer joins only)
+  private boolean flushing = false;
+
+  private O next;
+  private boolean ready = false;
+
+  public MergeJoinIterator(Iterator<L> left, Iterator<R> right,
+      Mapper<? super L, ? extends K> leftKey,
+      Mapper<? super R, ? extends K> rightKey, Comparator<? super K> comp,
+      Combiner<? super L, ? super R, ? extends O> combiner, JoinType type) {
+    this.left = left;
+    this.right = right;
+    this.leftKey = leftKey;
+    this.rightKey = rightKey;
+    this.comp = comp;
+    this.combiner = combiner;
+    this.type = type;
+    advanceLeft();
+    advanceRight();
+  }
+
+  public boolean hasNext() {
+    if (!ready) ready = advance();
+    return ready;
+  }
+
+  public O next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    ready = false;
+    O tmp = next;
+    next = null;
+    return tmp;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  private void advanceLeft() {
+    leftHasHead = left.hasNext();
+    leftHead = leftHasHead ? left.next() : null;
+    leftHeadKey = leftHasHead ? leftKey.map(leftHead) : null;
+  }
+
+  private void advanceRight() {
+    rightHasHead = right.hasNext();
+    rightHead = rightHasHead ? right.next() : null;
+    rightHeadKey = rightHasHead ? rightKey.map(rightHead) : null;
+  }
+
+  /**
+   * Reads all the right elements with the same key as the right head into the
+   * group buffer.
+   */
+  private void loadGroup() {
+    group.clear();
+    groupKey = rightHeadKey;
+    groupMatched = false;
+    do {
+      group.add(rightHead);
+      advanceRight();
+    } while (rightHasHead && comp.compare(rightHeadKey, groupKey) == 0);
+  }
+
+  private void clearGroup() {
+    group.clear();
+    groupKey = null;
+  }
+
+  /**
+   * Computes the next output element, storing it in next.
+   * 
+   * @return false if the join is finished.
+   */
+  private boolean advance() {
+    while (true) {
+      if (joining) {
+        if (groupIdx < group.size()) {
+          next = combiner.combine(currentLeft, group.get(groupIdx++));
+          return true;
+        }
+        joining = false;
+        currentLeft = null;
+      }
+
+      if (flushing) {
+        if (groupIdx < group.size()) {
+          next = combiner.combine(null, group.get(groupIdx++));
+          return true;
+        }
+        flushing = false;
+        clearGroup();
+      }
+
+      if (!leftHasHead) {
+        if (type != JoinType.FULL_OUTER) return false;
+        if (!group.isEmpty() && !groupMatched) {
+          flushing = true;
+          groupIdx = 0;
+          continue;
+        }
+        clearGroup();
+        if (!rightHasHead) return false;
+        next = combiner.combine(null, rightHead);
+        advanceRight();
+        return true;
+      }
+
+      if (!group.isEmpty()) {
+        if (comp.compare(leftHeadKey, groupKey) == 0) {
+          currentLeft = leftHead;
+          advanceLeft();
+          groupMatched = true;
+          joining = true;
+          groupIdx = 0;
+          continue;
+        }
+        // the left side has moved past this group
+        if (type == JoinType.FULL_OUTER && !groupMatched) {
+          flushing = true;
+          groupIdx = 0;
+          continue;
+        }
+        clearGroup();
+      }
+
+      if (rightHasHead) {
+        int c = comp.compare(rightHeadKey, leftHeadKey);
+        if (c < 0) {
+          R r = rightHead;
+          advanceRight();
+          if (type == JoinType.FULL_OUTER) {
+            next = combiner.combine(null, r);
+            return true;
+          }
+          continue;
+        } else if (c == 0) {
+          loadGroup();
+          continue;
+        }
+      }
+
+      // no match for the left head
+      L l = leftHead;
+      advanceLeft();
+      if (type != JoinType.INNER) {
+        next = combiner.combine(l, null);
+        return true;
+      }
+    }
+  }
+}
@@ -15,6 +15,9 @@
  */
 package itertools.iterator;
 
+import itertools.functions.KeyNormalizer;
+import itertools.functions.Normalizers;
+
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -32,14 +35,35 @@ import java.util.PriorityQueue;
  * @param <E>
  */
 public class MergingIterator<E> implements Iterator<E> {
-  private PriorityQueue<QueueElement<E>> q;
+  private PriorityQueue<QueueElement> q;
+  private Comparator<? super E> comparator;
+  private KeyNormalizer<? super E> normalizer;
 
   public MergingIterator(Iterator<? extends Iterable<E>> iterators,
       Comparator<? super E> comparator) {
-    q = new PriorityQueue<QueueElement<E>>();
+    this.comparator = comparator;
+    init(iterators);
+  }
+
+  /**
+   * Merges the iterators by their normalized keys. Each element's key is
+   * computed once, and comparisons compare the raw key bytes. The provided
+   * iterators must be in sorted order by these keys.
+   * 
+   * @param iterators
+   * @param normalizer
+   */
+  public MergingIterator(Iterator<? extends Iterable<E>> iterators,
+      KeyNormalizer<? super E> normalizer) {
+    this.normalizer = normalizer;
+    init(iterators);
+  }
+
+  private void init(Iterator<? extends Iterable<E>> iterators) {
+    q = new PriorityQueue<QueueElement>();
     while (iterators.hasNext()) {
       Iterator<E> ii = iterators.next().iterator();
-      if (ii.hasNext()) q.add(new QueueElement<E>(ii, comparator));
+      if (ii.hasNext()) q.add(new QueueElement(ii));
     }
   }
 
@@ -49,9 +73,12 @@ public class MergingIterator<E> implements Iterator<E> {
 
   public E next() {
     if (q.isEmpty()) throw new NoSuchElementException();
-    QueueElement<E> e = q.poll();
-    E next = e.it.next();
-    if (e.it.hasNext()) q.add(e);
+    QueueElement e = q.poll();
+    E next = e.head;
+    if (e.it.hasNext()) {
+      e.advance();
+      q.add(e);
+    }
     return next;
   }
 
@@ -61,22 +88,32 @@ public class MergingIterator<E> implements Iterator<E> {
 
   /**
    * Private utility class to provide custom comparator to the PriorityQueue.
+   * Holds the next element of an iterator, and its normalized key if merging
+   * by key.
    * 
    * @author jelsas
-   * 
-   * @param <F>
    */
-  private class QueueElement<F> implements Comparable<QueueElement<F>> {
-    PeekableIterator<F> it;
-    Comparator<? super F> comp;
+  private class QueueElement implements Comparable<QueueElement> {
+    Iterator<E> it;
+    E head;
+    byte[] key;
+
+    public QueueElement(Iterator<E> it) {
+      this.it = it;
+      advance();
+    }
 
-    public QueueElement(Iterator<F> it, Comparator<? super F> comp) {
-      this.it = new PeekableIterator<F>(it);
-      this.comp = comp;
+    void advance() {
+      head = it.next();
+      if (normalizer != null) key = normalizer.normalize(head);
     }
 
-    public int compareTo(QueueElement<F> o) {
-      return comp.compare(it.peek(), o.it.peek());
+    public int compareTo(QueueElement o) {
+      if (normalizer != null) {
+        return Normalizers.compare(key, o.key);
+      } else {
+        return comparator.compare(head, o.head);
+      }
     }
 
   }
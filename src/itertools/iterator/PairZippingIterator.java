@@ -0,0 +1,94 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+import itertools.Pair;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over two iterators of possibly different types in parallel,
+ * returning a {@link Pair} of their next elements. Stops at the end of the
+ * shorter iterator, or, given fill values, at the end of the longer one. When
+ * the iteration ends, or {@link #close()} is called, the underlying iterators
+ * are closed with {@link Itertools#close(Iterator)}.
+ * 
+ * @param <A>
+ *          Type of the first elements.
+ * @param <B>
+ *          Type of the second elements.
+ */
+public class PairZippingIterator<A, B> implements Iterator<Pair<A, B>>,
+    Closeable {
+  private final Iterator<A> a;
+  private final Iterator<B> b;
+  private final boolean longest;
+  private final A fillA;
+  private final B fillB;
+
+  /**
+   * Stops at the end of the shorter iterator.
+   */
+  public PairZippingIterator(Iterator<A> a, Iterator<B> b) {
+    this(a, b, false, null, null);
+  }
+
+  /**
+   * Stops at the end of the longer iterator, pairing the remaining elements of
+   * the other with a fill value.
+   */
+  public PairZippingIterator(Iterator<A> a, Iterator<B> b, A fillA, B fillB) {
+    this(a, b, true, fillA, fillB);
+  }
+
+  private PairZippingIterator(Iterator<A> a, Iterator<B> b, boolean longest,
+      A fillA, B fillB) {
+    this.a = a;
+    this.b = b;
+    this.longest = longest;
+    this.fillA = fillA;
+    this.fillB = fillB;
+  }
+
+  public boolean hasNext() {
+    if (longest ? a.hasNext() || b.hasNext() : a.hasNext() && b.hasNext()) {
+      return true;
+    }
+    close();
+    return false;
+  }
+
+  /**
+   * Closes the underlying iterators.
+   */
+  public void close() {
+    Itertools.close(a);
+    Itertools.close(b);
+  }
+
+  public Pair<A, B> next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    return new Pair<A, B>(a.hasNext() ? a.next() : fillA, b.hasNext() ? b
+        .next() : fillB);
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
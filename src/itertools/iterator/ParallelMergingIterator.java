@@ -0,0 +1,403 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+import itertools.io.Codec;
+import itertools.io.RunIndex;
+import itertools.io.RunReader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges a set of sorted inputs using several threads. Splitter elements are
+ * sampled from all the inputs to divide the key space into disjoint ranges.
+ * Each input is searched for the range boundaries, and each range is merged on
+ * its own thread with a {@link MergingIterator}. The merged ranges are returned
+ * in order, so the result is the same as merging on one thread.
+ * 
+ * The inputs are either random-access lists, which are binary searched, or run
+ * files, which are read from the block their range starts in with a
+ * {@link RunIndex} (see
+ * {@link #mergeRuns(List, Codec, Comparator, int, boolean)}). Each range streams through a {@link PrefetchingIterator} holding at most
+ * capacity merged elements, so memory use is bounded by the number of ranges
+ * times the capacity. Ranges after the current one merge only until their
+ * buffer is full; to merge every range at full speed, write each of the ranges
+ * returned by {@link #partition(List, Comparator, int)} to its own output
+ * instead.
+ * 
+ * A merge that is not read to the end must be closed, to stop its threads.
+ * 
+ * @param <E>
+ */
+public class ParallelMergingIterator<E> implements Iterator<E>, Closeable {
+  /** Number of samples taken from each input per range. */
+  static final int OVERSAMPLING = 32;
+  /** Default number of merged elements buffered per range. */
+  public static final int DEFAULT_CAPACITY =
+      16 * PrefetchingIterator.CHUNK_SIZE;
+
+  private final List<PrefetchingIterator<E>> ranges =
+      new ArrayList<PrefetchingIterator<E>>();
+  private int currentRange = 0;
+
+  /**
+   * @param runs
+   *          The sorted inputs. These should support fast random access.
+   * @param comp
+   *          The order of the inputs.
+   * @param parallelism
+   *          The number of ranges (and threads) to merge with.
+   */
+  public ParallelMergingIterator(List<? extends List<E>> runs,
+      Comparator<? super E> comp, int parallelism) {
+    this(runs, comp, parallelism, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * See {@link #ParallelMergingIterator(List, Comparator, int)}.
+   * 
+   * @param capacity
+   *          The number of merged elements to buffer per range.
+   */
+  public ParallelMergingIterator(List<? extends List<E>> runs,
+      Comparator<? super E> comp, int parallelism, int capacity) {
+    this(merges(partition(runs, comp, parallelism), comp), capacity);
+  }
+
+  private ParallelMergingIterator(List<? extends Iterator<E>> merges,
+      int capacity) {
+    for (Iterator<E> merge : merges) {
+      ranges.add(new PrefetchingIterator<E>(merge, capacity));
+    }
+  }
+
+  /**
+   * Merges sorted run files written by a {@link itertools.io.RunWriter}. Each
+   * range reads each run from the block it starts in, found with the run's
+   * index, and stops at the range's upper bound. The block first records serve
+   * as the samples for choosing the ranges.
+   * 
+   * @param runs
+   *          The indexes of the sorted runs.
+   * @param codec
+   *          Reads the run files.
+   * @param comp
+   *          The order of the runs.
+   * @param parallelism
+   *          The number of ranges (and threads) to merge with.
+   * @param deleteRuns
+   *          If true, each run file is deleted once every range has finished
+   *          reading it.
+   */
+  public static <E> ParallelMergingIterator<E> mergeRuns(
+      List<RunIndex<E>> runs, Codec<? extends E> codec,
+      Comparator<? super E> comp, int parallelism, boolean deleteRuns) {
+    List<E> samples = new ArrayList<E>();
+    int perRun = parallelism * OVERSAMPLING;
+    for (RunIndex<E> run : runs) {
+      int n = run.blocks();
+      int step = Math.max(1, n / perRun);
+      for (int i = 0; i < n; i += step) {
+        samples.add(run.first(i));
+      }
+    }
+    List<E> splitters = splitters(samples, comp, parallelism);
+
+    List<SharedRun> shared = new ArrayList<SharedRun>(runs.size());
+    for (RunIndex<E> run : runs) {
+      shared.add(new SharedRun(run.getFile(), splitters.size() + 1,
+          deleteRuns));
+    }
+    List<Iterator<E>> merges = new ArrayList<Iterator<E>>();
+    for (int i = 0; i <= splitters.size(); ++i) {
+      E lo = (i > 0) ? splitters.get(i - 1) : null;
+      E hi = (i < splitters.size()) ? splitters.get(i) : null;
+      List<RunRange<E>> parts = new ArrayList<RunRange<E>>(runs.size());
+      for (int r = 0; r < runs.size(); ++r) {
+        RunIndex<E> run = runs.get(r);
+        if (run.count() == 0 || (lo != null && comp.compare(run.last(), lo) < 0)
+            || (hi != null && comp.compare(run.first(0), hi) >= 0)) {
+          // nothing in this range
+          shared.get(r).release();
+        } else {
+          parts.add(new RunRange<E>(run, shared.get(r), codec, lo, hi, comp));
+        }
+      }
+      merges.add(new RangeMerge<E>(parts, comp));
+    }
+    return new ParallelMergingIterator<E>(merges, DEFAULT_CAPACITY);
+  }
+
+  private static <E> List<Iterator<E>> merges(
+      List<List<Iterable<E>>> ranges, Comparator<? super E> comp) {
+    List<Iterator<E>> merges = new ArrayList<Iterator<E>>(ranges.size());
+    for (List<Iterable<E>> range : ranges) {
+      merges.add(new MergingIterator<E>(range.iterator(), comp));
+    }
+    return merges;
+  }
+
+  public boolean hasNext() {
+    while (currentRange < ranges.size()) {
+      if (ranges.get(currentRange).hasNext()) return true;
+      // let the range be garbage collected once we've moved past it
+      ranges.set(currentRange++, null);
+    }
+    return false;
+  }
+
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    return ranges.get(currentRange).next();
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Stops merging the ranges that have not been read to the end.
+   */
+  public void close() {
+    for (; currentRange < ranges.size(); ++currentRange) {
+      ranges.get(currentRange).close();
+      ranges.set(currentRange, null);
+    }
+  }
+
+  /**
+   * Divides the sorted inputs into disjoint ranges of the key space. Every
+   * element in range i sorts before every element of range i+1, so merging the
+   * sub-lists of each range independently and concatenating the results gives
+   * the full merge.
+   * 
+   * @param runs
+   *          The sorted inputs.
+   * @param comp
+   *          The order of the inputs.
+   * @param numRanges
+   *          The number of ranges to create.
+   * @return For each range, the sub-list of each input falling into it.
+   */
+  public static <E> List<List<Iterable<E>>> partition(
+      List<? extends List<E>> runs, Comparator<? super E> comp, int numRanges) {
+    // sample evenly spaced elements from each run
+    List<E> samples = new ArrayList<E>();
+    int perRun = numRanges * OVERSAMPLING;
+    for (List<E> run : runs) {
+      int n = run.size();
+      if (n == 0) continue;
+      int step = Math.max(1, n / perRun);
+      for (int i = step / 2; i < n; i += step) {
+        samples.add(run.get(i));
+      }
+    }
+    List<E> splitters = splitters(samples, comp, numRanges);
+
+    List<List<Iterable<E>>> ranges = new ArrayList<List<Iterable<E>>>();
+    for (int i = 0; i <= splitters.size(); ++i) {
+      ranges.add(new ArrayList<Iterable<E>>(runs.size()));
+    }
+    for (List<E> run : runs) {
+      int lo = 0;
+      for (int i = 0; i <= splitters.size(); ++i) {
+        int hi = (i < splitters.size()) ? lowerBound(run, lo, splitters.get(i),
+            comp) : run.size();
+        if (hi > lo) ranges.get(i).add(run.subList(lo, hi));
+        lo = hi;
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * Picks splitters evenly from the samples, which are sorted in place. Range i
+   * holds elements >= splitters[i-1] and < splitters[i].
+   */
+  private static <E> List<E> splitters(List<E> samples,
+      Comparator<? super E> comp, int numRanges) {
+    Collections.sort(samples, comp);
+    List<E> splitters = new ArrayList<E>();
+    for (int i = 1; i < numRanges && !samples.isEmpty(); ++i) {
+      E s = samples.get((int) ((long) i * samples.size() / numRanges));
+      if (splitters.isEmpty()
+          || comp.compare(splitters.get(splitters.size() - 1), s) < 0) {
+        splitters.add(s);
+      }
+    }
+    return splitters;
+  }
+
+  /**
+   * Returns the index of the first element in run[from..] not less than
+   * target.
+   */
+  private static <E> int lowerBound(List<E> run, int from, E target,
+      Comparator<? super E> comp) {
+    int lo = from, hi = run.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comp.compare(run.get(mid), target) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * A run file read by several ranges, deleted after the last one is done.
+   */
+  private static class SharedRun {
+    private final File file;
+    private final boolean delete;
+    private int readers;
+
+    SharedRun(File file, int readers, boolean delete) {
+      this.file = file;
+      this.readers = readers;
+      this.delete = delete;
+    }
+
+    synchronized void release() {
+      if (--readers == 0 && delete) file.delete();
+    }
+  }
+
+  /**
+   * The elements of a run file in [lo, hi), read from the block containing lo.
+   * The file is opened on first use, and closed at the end of the range.
+   */
+  private static class RunRange<E> implements Iterator<E>, Closeable {
+    private final RunIndex<E> run;
+    private final SharedRun shared;
+    private final Codec<? extends E> codec;
+    private final E lo, hi;
+    private final Comparator<? super E> comp;
+    private RunReader<E> reader;
+    private E pending;
+    private boolean hasPending = false;
+    private boolean done = false;
+
+    RunRange(RunIndex<E> run, SharedRun shared, Codec<? extends E> codec,
+        E lo, E hi, Comparator<? super E> comp) {
+      this.run = run;
+      this.shared = shared;
+      this.codec = codec;
+      this.lo = lo;
+      this.hi = hi;
+      this.comp = comp;
+    }
+
+    public boolean hasNext() {
+      if (done) return false;
+      if (hasPending) return true;
+      if (reader == null) {
+        try {
+          reader = run.open(codec, lo, comp);
+        } catch (IOException e) {
+          close();
+          throw new RuntimeException(e);
+        }
+        // skip the part of the first block before the range
+        while (reader.hasNext()) {
+          E e = reader.next();
+          if (lo == null || comp.compare(e, lo) >= 0) {
+            pending = e;
+            hasPending = true;
+            break;
+          }
+        }
+      } else if (reader.hasNext()) {
+        pending = reader.next();
+        hasPending = true;
+      }
+      if (hasPending && hi != null && comp.compare(pending, hi) >= 0) {
+        pending = null;
+        hasPending = false;
+      }
+      if (!hasPending) close();
+      return hasPending;
+    }
+
+    public E next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      E e = pending;
+      pending = null;
+      hasPending = false;
+      return e;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      if (done) return;
+      done = true;
+      pending = null;
+      hasPending = false;
+      if (reader != null) reader.close();
+      shared.release();
+    }
+  }
+
+  /**
+   * Merges the run ranges of one key range, closing them if abandoned.
+   */
+  private static class RangeMerge<E> implements Iterator<E>, Closeable {
+    private final List<RunRange<E>> parts;
+    private final MergingIterator<E> merge;
+
+    RangeMerge(List<RunRange<E>> parts, Comparator<? super E> comp) {
+      this.parts = parts;
+      List<Iterable<E>> inputs = new ArrayList<Iterable<E>>(parts.size());
+      for (RunRange<E> part : parts) {
+        inputs.add(new IBuilder<E>(part));
+      }
+      this.merge = new MergingIterator<E>(inputs.iterator(), comp);
+    }
+
+    public boolean hasNext() {
+      return merge.hasNext();
+    }
+
+    public E next() {
+      return merge.next();
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      for (RunRange<E> part : parts) {
+        Itertools.close(part);
+      }
+    }
+  }
+}
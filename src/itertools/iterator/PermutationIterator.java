@@ -0,0 +1,138 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Iterates over the r-length permutations of a pool's elements, in
+ * lexicographic order of their indices. Elements are distinguished by
+ * position, not value. Equivalent to python's
+ * <tt>itertools.permutations</tt>. See {@link CombinatoricIterator}.
+ * 
+ * @param <E>
+ */
+public class PermutationIterator<E> extends CombinatoricIterator<E> {
+  private final List<E> pool;
+  private final int n;
+  /** the pool indices in the current permutation */
+  private final boolean[] used;
+
+  /**
+   * The full-length permutations of the pool.
+   */
+  public PermutationIterator(List<E> pool) {
+    this(pool, pool.size());
+  }
+
+  public PermutationIterator(List<E> pool, int r) {
+    this(pool, r, 0, count(pool.size(), r));
+  }
+
+  /**
+   * Iterates over the permutations with ranks in [from, to).
+   */
+  public PermutationIterator(List<E> pool, int r, long from, long to) {
+    super(r, count(pool.size(), r), from, to);
+    this.pool = randomAccess(pool);
+    this.n = pool.size();
+    this.used = new boolean[n];
+  }
+
+  /**
+   * The number of r-length permutations of n elements, n! / (n - r)!.
+   */
+  private static long count(int n, int r) {
+    if (r < 0) throw new IllegalArgumentException("r < 0");
+    long count = 1;
+    for (int i = 0; i < r; ++i) {
+      count = multiply(count, n - i);
+    }
+    return count;
+  }
+
+  @Override
+  public long size() {
+    return count(n, indices.length);
+  }
+
+  @Override
+  public void unrank(long rank, int[] indices) {
+    int r = indices.length;
+    Arrays.fill(used, false);
+    for (int i = 0; i < r; ++i) {
+      long block = count(n - i - 1, r - i - 1);
+      int d = (int) (rank / block);
+      rank %= block;
+      // the d'th unused index
+      int v = 0;
+      while (used[v] || d-- > 0) {
+        ++v;
+      }
+      indices[i] = v;
+      used[v] = true;
+    }
+  }
+
+  @Override
+  public long rank(int[] indices) {
+    int r = indices.length;
+    boolean[] taken = new boolean[n];
+    long rank = 0;
+    for (int i = 0; i < r; ++i) {
+      int smaller = 0;
+      for (int v = 0; v < indices[i]; ++v) {
+        if (!taken[v]) ++smaller;
+      }
+      rank += smaller * count(n - i - 1, r - i - 1);
+      taken[indices[i]] = true;
+    }
+    return rank;
+  }
+
+  @Override
+  protected void increment(int[] indices) {
+    int r = indices.length;
+    for (int i = r - 1; i >= 0; --i) {
+      used[indices[i]] = false;
+      // the smallest unused index greater than the current one
+      int v = indices[i] + 1;
+      while (v < n && used[v]) {
+        ++v;
+      }
+      if (v < n) {
+        indices[i] = v;
+        used[v] = true;
+        // fill the rest with the smallest unused indices
+        int next = 0;
+        for (int j = i + 1; j < r; ++j) {
+          while (used[next]) {
+            ++next;
+          }
+          indices[j] = next;
+          used[next] = true;
+        }
+        return;
+      }
+    }
+  }
+
+  @Override
+  protected E element(int position, int index) {
+    return pool.get(index);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the underlying iterator on a background thread, up to a given number
+ * of elements ahead of the caller, so that slow sources such as files on
+ * different disks can be read concurrently, e.g. when zipped together. Elements
+ * are handed over in chunks to keep the synchronization cost per element low.
+ * 
+ * The underlying iterator must not be used by anything else. An exception
+ * thrown by it is rethrown by {@link #hasNext()} or {@link #next()}. The
+ * background thread is a daemon thread, and exits when the underlying iterator
+ * is exhausted or {@link #close()} is called, after closing the underlying
+ * iterator if it is {@link Closeable}. An iterator that is not read to the end
+ * must be closed, or the thread waits forever holding on to its buffered
+ * elements and the underlying iterator.
+ * 
+ * @param <E>
+ */
+public class PrefetchingIterator<E> implements Iterator<E>, Closeable {
+  /** Maximum number of elements handed over at a time. */
+  static final int CHUNK_SIZE = 256;
+  private static final Object[] END = new Object[0];
+
+  private final BlockingQueue<Object[]> queue;
+  private final Thread thread;
+  private volatile Throwable error;
+  private Object[] chunk = new Object[0];
+  private int pos = 0;
+
+  /**
+   * @param it
+   *          The iterator to read ahead.
+   * @param capacity
+   *          The maximum number of elements to read ahead.
+   */
+  public PrefetchingIterator(final Iterator<E> it, int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+    final int chunkSize = Math.min(capacity, CHUNK_SIZE);
+    queue = new ArrayBlockingQueue<Object[]>(Math.max(1, capacity / chunkSize));
+    thread = new Thread("PrefetchingIterator") {
+      public void run() {
+        try {
+          produce(it, chunkSize);
+        } finally {
+          try {
+            Itertools.close(it);
+          } catch (RuntimeException e) {
+            // nobody left to report it to
+          }
+        }
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Reads it into the queue, in the background thread.
+   */
+  private void produce(Iterator<E> it, int chunkSize) {
+    Object[] buf = new Object[chunkSize];
+    int n = 0;
+    try {
+      while (it.hasNext()) {
+        Object item = it.next();
+        buf[n++] = item;
+        if (n == chunkSize) {
+          queue.put(buf);
+          buf = new Object[chunkSize];
+          n = 0;
+        }
+      }
+    } catch (InterruptedException e) {
+      // closed
+      return;
+    } catch (Throwable t) {
+      // hand over the elements read before the error first
+      error = t;
+    }
+    try {
+      if (n > 0) queue.put(Arrays.copyOf(buf, n));
+      queue.put(END);
+    } catch (InterruptedException e) {
+      // closed
+    }
+  }
+
+  public boolean hasNext() {
+    if (pos < chunk.length) return true;
+    if (chunk == END) return false;
+    try {
+      chunk = queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    pos = 0;
+    if (chunk == END) {
+      if (error instanceof RuntimeException) throw (RuntimeException) error;
+      if (error instanceof Error) throw (Error) error;
+      if (error != null) throw new RuntimeException(error);
+      return false;
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    E item = (E) chunk[pos];
+    chunk[pos++] = null;
+    return item;
+  }
+
+  /**
+   * Stops reading ahead. Further calls to {@link #hasNext()} return false.
+   * Does nothing if the iterator has been read to the end.
+   */
+  public void close() {
+    thread.interrupt();
+    chunk = END;
+    queue.clear();
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,106 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Iterates over the cartesian product of pools: every tuple with one element
+ * from each pool, the last position varying fastest. Equivalent to python's
+ * <tt>itertools.product</tt>. See {@link CombinatoricIterator}.
+ * 
+ * @param <E>
+ */
+public class ProductIterator<E> extends CombinatoricIterator<E> {
+  private final List<List<E>> pools;
+  private final int[] sizes;
+
+  public ProductIterator(List<? extends List<E>> pools) {
+    this(pools, 0, count(sizes(pools)));
+  }
+
+  /**
+   * Iterates over the tuples with ranks in [from, to).
+   */
+  public ProductIterator(List<? extends List<E>> pools, long from, long to) {
+    super(pools.size(), count(sizes(pools)), from, to);
+    this.pools = new ArrayList<List<E>>(pools.size());
+    for (List<E> pool : pools) {
+      this.pools.add(randomAccess(pool));
+    }
+    this.sizes = sizes(pools);
+  }
+
+  /**
+   * The product of a pool with itself, repeat times.
+   */
+  public ProductIterator(List<E> pool, int repeat) {
+    this(Collections.nCopies(repeat, pool));
+  }
+
+  private static int[] sizes(List<? extends List<?>> pools) {
+    int[] sizes = new int[pools.size()];
+    for (int i = 0; i < sizes.length; ++i) {
+      sizes[i] = pools.get(i).size();
+    }
+    return sizes;
+  }
+
+  private static long count(int[] sizes) {
+    long count = 1;
+    for (int size : sizes) {
+      count = multiply(count, size);
+    }
+    return count;
+  }
+
+  @Override
+  public long size() {
+    return count(sizes);
+  }
+
+  @Override
+  public void unrank(long rank, int[] indices) {
+    for (int i = sizes.length - 1; i >= 0; --i) {
+      indices[i] = (int) (rank % sizes[i]);
+      rank /= sizes[i];
+    }
+  }
+
+  @Override
+  public long rank(int[] indices) {
+    long rank = 0;
+    for (int i = 0; i < sizes.length; ++i) {
+      rank = rank * sizes[i] + indices[i];
+    }
+    return rank;
+  }
+
+  @Override
+  protected void increment(int[] indices) {
+    int i = sizes.length - 1;
+    while (++indices[i] == sizes[i]) {
+      indices[i--] = 0;
+    }
+  }
+
+  @Override
+  protected E element(int position, int index) {
+    return pools.get(position).get(index);
+  }
+}
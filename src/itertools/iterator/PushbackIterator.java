@@ -15,18 +15,19 @@
 */
 package itertools.iterator;
 
-import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 /**
- * An iterator that allows pushing elements back into the iteration.
+ * An iterator that allows pushing elements back into the iteration. Pushed
+ * back elements are kept on a small array-backed stack, so pushing back does
+ * not allocate unless more elements are pushed back at once than ever before.
  * @author jelsas
  *
  * @param <E>
  */
 public class PushbackIterator<E> implements Iterator<E> {
-  private Deque<E> q = new LinkedList<E>();
+  private Object[] stack = new Object[2];
+  private int size = 0;
   Iterator<E> it;
 
   public PushbackIterator(Iterator<E> it) {
@@ -34,18 +35,21 @@ public class PushbackIterator<E> implements Iterator<E> {
   }
 
   public boolean hasNext() {
-    if (q.isEmpty()) {
+    if (size == 0) {
       return it.hasNext();
     } else {
       return true;
     }
   }
 
+  @SuppressWarnings("unchecked")
   public E next() {
-    if (q.isEmpty()) {
+    if (size == 0) {
       return it.next();
     } else {
-      return q.pop();
+      E e = (E) stack[--size];
+      stack[size] = null;
+      return e;
     }
   }
 
@@ -54,7 +58,12 @@ public class PushbackIterator<E> implements Iterator<E> {
    * @param e
    */
   public void pushBack(E e) {
-    q.push(e);
+    if (size == stack.length) {
+      Object[] tmp = new Object[size * 2];
+      System.arraycopy(stack, 0, tmp, 0, size);
+      stack = tmp;
+    }
+    stack[size++] = e;
   }
 
   public void remove() {
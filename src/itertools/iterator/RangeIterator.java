@@ -0,0 +1,127 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over <tt>start, start + step, ...</tt> up to but not including
+ * <tt>stop</tt>, like python's <tt>range</tt>. A negative step counts down.
+ * Use {@link #nextLong()} to avoid boxing. The number of remaining elements is
+ * known, so {@link #skip(long)} and {@link #size()} are O(1), and the remaining
+ * elements can be {@link #split(int)} into sub-ranges, e.g. to scan partitions
+ * on separate threads.
+ */
+public class RangeIterator implements Skippable<Long> {
+  private long next;
+  private long remaining;
+  private final long step;
+
+  /**
+   * @param start
+   *          The first element.
+   * @param stop
+   *          The end of the range, exclusive.
+   * @param step
+   *          The difference between consecutive elements, not zero.
+   * @throws IllegalArgumentException
+   *           If step is zero, or the range has more than
+   *           {@link Long#MAX_VALUE} elements.
+   */
+  public RangeIterator(long start, long stop, long step) {
+    if (step == 0) throw new IllegalArgumentException("step == 0");
+    this.next = start;
+    this.step = step;
+    if (step > 0 ? start < stop : start > stop) {
+      // (stop - start) / step, rounded up, without overflow
+      BigInteger size = BigInteger.valueOf(stop).subtract(
+          BigInteger.valueOf(start)).add(BigInteger.valueOf(step))
+          .subtract(BigInteger.valueOf(step > 0 ? 1 : -1)).divide(
+              BigInteger.valueOf(step));
+      if (size.bitLength() > 63)
+        throw new IllegalArgumentException("range too large");
+      this.remaining = size.longValue();
+    }
+  }
+
+  public boolean hasNext() {
+    return remaining > 0;
+  }
+
+  public Long next() {
+    return Long.valueOf(nextLong());
+  }
+
+  /**
+   * An unboxed version of {@link #next()}.
+   * 
+   * @return The next <tt>long</tt>.
+   */
+  public long nextLong() {
+    if (remaining == 0) throw new NoSuchElementException();
+    --remaining;
+    long n = next;
+    next += step;
+    return n;
+  }
+
+  public long skip(long n) {
+    if (n <= 0) return 0;
+    long skipped = Math.min(n, remaining);
+    // wraps around only past the end of the range
+    next += skipped * step;
+    remaining -= skipped;
+    return skipped;
+  }
+
+  /**
+   * @return The number of remaining elements.
+   */
+  public long size() {
+    return remaining;
+  }
+
+  /**
+   * Splits the remaining elements into consecutive sub-ranges whose sizes
+   * differ by at most one. This iterator is not advanced.
+   * 
+   * @param parts
+   *          The number of sub-ranges.
+   * @return The sub-ranges, fewer than parts if there are fewer remaining
+   *         elements.
+   */
+  public List<RangeIterator> split(int parts) {
+    if (parts < 1) throw new IllegalArgumentException("parts < 1");
+    int n = (int) Math.min(parts, remaining);
+    List<RangeIterator> ranges = new ArrayList<RangeIterator>(n);
+    long start = next;
+    for (int i = 0; i < n; ++i) {
+      long size = remaining / n + (i < remaining % n ? 1 : 0);
+      RangeIterator r = new RangeIterator(start, start, step);
+      r.remaining = size;
+      ranges.add(r);
+      start += size * step;
+    }
+    return ranges;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
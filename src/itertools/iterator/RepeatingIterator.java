@@ -15,8 +15,6 @@
 */
 package itertools.iterator;
 
-import java.util.Iterator;
-
 /**
  * Repeats the same item forever.
  * 
@@ -24,7 +22,7 @@ import java.util.Iterator;
  * 
  * @param <E>
  */
-public class RepeatingIterator<E> implements Iterator<E> {
+public class RepeatingIterator<E> implements Skippable<E> {
   private E item;
 
   public RepeatingIterator(E item) {
@@ -45,6 +43,10 @@ public class RepeatingIterator<E> implements Iterator<E> {
     return item;
   }
 
+  public long skip(long n) {
+    return Math.max(n, 0);
+  }
+
   public void remove() {
     throw new UnsupportedOperationException();
   }
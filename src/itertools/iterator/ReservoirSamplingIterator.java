@@ -0,0 +1,99 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Itertools;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Returns a uniform random sample of k elements of the underlying iterator
+ * (or all of them, if there are fewer), chosen by reservoir sampling with
+ * Algorithm L. Rather than drawing a random number for every element, the
+ * algorithm draws the geometrically distributed number of elements to pass
+ * over before the next one enters the reservoir, so only O(k log(n/k)) random
+ * numbers are drawn for n elements. Elements passed over are skipped with
+ * {@link Skippable#skip(long)} when the underlying iterator supports it.
+ * 
+ * Note: the whole input is consumed by the first call to {@link #hasNext()}
+ * or {@link #next()}. The sample is returned in no particular order.
+ * 
+ * @param <E>
+ */
+public class ReservoirSamplingIterator<E> implements Iterator<E> {
+  private Iterator<E> input;
+  private final int k;
+  private final Random random;
+  private Object[] reservoir;
+  private int size = 0;
+  private int outIdx = 0;
+
+  public ReservoirSamplingIterator(Iterator<E> input, int k) {
+    this(input, k, new Random());
+  }
+
+  public ReservoirSamplingIterator(Iterator<E> input, int k, Random random) {
+    if (k < 0) throw new IllegalArgumentException("k < 0");
+    this.input = input;
+    this.k = k;
+    this.random = random;
+  }
+
+  /**
+   * A uniform random number in (0, 1].
+   */
+  private double uniform() {
+    return 1.0 - random.nextDouble();
+  }
+
+  private void sample() {
+    reservoir = new Object[k];
+    while (size < k && input.hasNext()) {
+      reservoir[size++] = input.next();
+    }
+    if (size == k && k > 0) {
+      double w = Math.exp(Math.log(uniform()) / k);
+      while (true) {
+        double gap = Math.floor(Math.log(uniform()) / Math.log(1 - w));
+        // a gap beyond the range of long just means the input ends first
+        long skip = (gap >= Long.MAX_VALUE) ? Long.MAX_VALUE : (long) gap;
+        if (Itertools.skip(input, skip) < skip || !input.hasNext()) break;
+        reservoir[random.nextInt(k)] = input.next();
+        w *= Math.exp(Math.log(uniform()) / k);
+      }
+    }
+    input = null;
+  }
+
+  public boolean hasNext() {
+    if (reservoir == null) sample();
+    return outIdx < size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    E e = (E) reservoir[outIdx];
+    reservoir[outIdx++] = null;
+    return e;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
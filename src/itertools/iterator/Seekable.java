@@ -0,0 +1,39 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * An iterator over sorted elements that can skip ahead to a target element
+ * faster than calling {@link #next()} repeatedly, e.g. by searching an array.
+ * 
+ * @param <E>
+ */
+public interface Seekable<E> extends Iterator<E> {
+  /**
+   * Advances the iterator so that the next element returned is the first
+   * remaining element not less than target. Does nothing if the next element
+   * is already at or past target.
+   * 
+   * @param target
+   *          The element to seek to.
+   * @param comp
+   *          The order the iterator's elements are sorted in.
+   */
+  public void seek(E target, Comparator<? super E> comp);
+}
@@ -0,0 +1,184 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Computes a set operation over two sorted iterators, each assumed to be in
+ * ascending order without duplicates (e.g. posting lists). The result is also
+ * sorted.
+ * 
+ * If an input implements {@link Seekable}, it is skipped ahead with
+ * {@link Seekable#seek(Object, Comparator)} instead of being stepped through
+ * one element at a time wherever the operation allows it: for
+ * {@link Operation#INTERSECTION} either side may be skipped, for
+ * {@link Operation#DIFFERENCE} the second side may be. Intersecting a short
+ * list with a long seekable one then costs O(short * log(long)) comparisons.
+ * 
+ * @param <E>
+ */
+public class SetOperationIterator<E> implements Iterator<E> {
+  public enum Operation {
+    /** Elements in either input. */
+    UNION,
+    /** Elements in both inputs. */
+    INTERSECTION,
+    /** Elements in the first input but not the second. */
+    DIFFERENCE,
+    /** Elements in exactly one of the inputs. */
+    SYMMETRIC_DIFFERENCE
+  }
+
+  private Cursor a, b;
+  private Comparator<? super E> comp;
+  private Operation op;
+  private E next;
+  private boolean ready = false;
+
+  public SetOperationIterator(Iterator<E> a, Iterator<E> b,
+      Comparator<? super E> comp, Operation op) {
+    this.a = new Cursor(a);
+    this.b = new Cursor(b);
+    this.comp = comp;
+    this.op = op;
+  }
+
+  public boolean hasNext() {
+    if (!ready) ready = advance();
+    return ready;
+  }
+
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    ready = false;
+    E tmp = next;
+    next = null;
+    return tmp;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Computes the next element, storing it in next.
+   * 
+   * @return false if there are no more elements.
+   */
+  private boolean advance() {
+    while (true) {
+      if (!a.hasHead) {
+        if (op == Operation.INTERSECTION || op == Operation.DIFFERENCE
+            || !b.hasHead) return false;
+        next = b.pop();
+        return true;
+      }
+      if (!b.hasHead) {
+        if (op == Operation.INTERSECTION) return false;
+        next = a.pop();
+        return true;
+      }
+
+      int c = comp.compare(a.head, b.head);
+      switch (op) {
+      case UNION:
+        if (c <= 0) {
+          if (c == 0) b.advance();
+          next = a.pop();
+        } else {
+          next = b.pop();
+        }
+        return true;
+      case INTERSECTION:
+        if (c == 0) {
+          b.advance();
+          next = a.pop();
+          return true;
+        } else if (c < 0) {
+          a.seek(b.head);
+        } else {
+          b.seek(a.head);
+        }
+        break;
+      case DIFFERENCE:
+        if (c < 0) {
+          next = a.pop();
+          return true;
+        } else if (c == 0) {
+          a.advance();
+          b.advance();
+        } else {
+          b.seek(a.head);
+        }
+        break;
+      case SYMMETRIC_DIFFERENCE:
+        if (c == 0) {
+          a.advance();
+          b.advance();
+        } else {
+          next = (c < 0) ? a.pop() : b.pop();
+          return true;
+        }
+        break;
+      }
+    }
+  }
+
+  /**
+   * Holds the next element of an input.
+   */
+  private class Cursor {
+    Iterator<E> it;
+    Seekable<E> seekable;
+    E head;
+    boolean hasHead;
+
+    Cursor(Iterator<E> it) {
+      this.it = it;
+      if (it instanceof Seekable<?>) seekable = (Seekable<E>) it;
+      advance();
+    }
+
+    void advance() {
+      hasHead = it.hasNext();
+      head = hasHead ? it.next() : null;
+    }
+
+    E pop() {
+      E tmp = head;
+      advance();
+      return tmp;
+    }
+
+    /**
+     * Advances until the head is not less than target.
+     */
+    void seek(E target) {
+      if (!hasHead || comp.compare(head, target) >= 0) return;
+      if (seekable != null) {
+        seekable.seek(target, comp);
+        advance();
+      } else {
+        do {
+          advance();
+        } while (hasHead && comp.compare(head, target) < 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.Iterator;
+
+/**
+ * An iterator that can skip over elements faster than calling {@link #next()}
+ * repeatedly, e.g. by moving an index forward. See
+ * {@link itertools.Itertools#skip(Iterator, long)}.
+ * 
+ * @param <E>
+ */
+public interface Skippable<E> extends Iterator<E> {
+  /**
+   * Skips over up to n elements.
+   * 
+   * @return The number of elements skipped, which is less than n only if the
+   *         iterator is exhausted.
+   */
+  public long skip(long n);
+}
@@ -15,7 +15,10 @@
 */
 package itertools.iterator;
 
+import itertools.Itertools;
+
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * An iterator that slices (selects a subset of) the provided iterator.
@@ -28,14 +31,21 @@ import java.util.Iterator;
  * }
  * </code>
  * 
+ * Nothing is read until the first call to {@link #hasNext()} or
+ * {@link #next()}. The elements between the selected ones are passed over with
+ * {@link Itertools#skip(Iterator, long)}, so a {@link Skippable} iterator jumps
+ * straight to them.
+ * 
  * @author jelsas
  * 
  * @param <E>
  */
 public class SlicingIterator<E> implements Iterator<E> {
-  EnumeratingIterator<E> it;
-  int sliceStart = 0, sliceStop = Integer.MAX_VALUE, sliceBy = 1;
-  private E next = null;
+  Iterator<E> it;
+  long sliceStart = 0, sliceStop = Long.MAX_VALUE, sliceBy = 1;
+  /** the number of elements read from it, and the index of the next slice */
+  private long pos = 0, nextIndex;
+  private boolean ready = false, hasNext;
 
   /**
    * Create a SlicingIterator.
@@ -54,52 +64,55 @@ public class SlicingIterator<E> implements Iterator<E> {
    */
   public SlicingIterator(Iterator<E> it, int sliceStart, int sliceStop,
       int sliceBy) {
-    this.it = new EnumeratingIterator<E>(it);
+    this(it, (long) sliceStart, (long) sliceStop, (long) sliceBy);
+  }
+
+  /**
+   * See {@link #SlicingIterator(Iterator, int, int, int)}, with 64-bit
+   * positions.
+   */
+  public SlicingIterator(Iterator<E> it, long sliceStart, long sliceStop,
+      long sliceBy) {
+    this.it = it;
     this.sliceStart = (sliceStart >= 0) ? sliceStart : 0;
-    this.sliceStop = (sliceStop >= 0) ? sliceStop : Integer.MAX_VALUE;
+    this.sliceStop = (sliceStop >= 0) ? sliceStop : Long.MAX_VALUE;
     this.sliceBy = (sliceBy > 0) ? sliceBy : 1;
 
     if (this.sliceStart > this.sliceStop)
       throw new IllegalArgumentException("sliceStart > sliceStop");
 
-    next = advanceNext();
+    nextIndex = this.sliceStart;
   }
 
   public boolean hasNext() {
-    return (next != null);
+    if (!ready) {
+      if (nextIndex >= sliceStop) {
+        hasNext = false;
+      } else {
+        pos += Itertools.skip(it, nextIndex - pos);
+        hasNext = (pos == nextIndex && it.hasNext());
+      }
+      ready = true;
+    }
+    return hasNext;
   }
 
   public E next() {
-    E tmp = next;
-    next = advanceNext();
-    return tmp;
+    if (!hasNext()) throw new NoSuchElementException();
+    ready = false;
+    ++pos;
+    // stop rather than overflow
+    nextIndex = (sliceStop - nextIndex > sliceBy) ? nextIndex + sliceBy
+        : sliceStop;
+    return it.next();
   }
 
+  /**
+   * Removes the last element from the underlying iterator, if it supports
+   * that. Must be called before {@link #hasNext()}, which may move past it.
+   */
   public void remove() {
-    // TODO: can we support this? Not with the current implementation of caching
-    // the next element.
-    throw new UnsupportedOperationException();
-  }
-
-  private E advanceNext() {
-    if (!it.hasNext()) return null;
-
-    E tmp = it.next();
-
-    // advance past sliceStart
-    while (it.currentCount() < sliceStart && it.hasNext()) {
-      tmp = it.next();
-    }
-
-    // skip by sliceBy, making sure we don't proceed past sliceStop
-    while ((it.currentCount() - sliceStart) % sliceBy != 0 && it.hasNext()) {
-      tmp = it.next();
-    }
-
-    if (it.currentCount() >= sliceStop) {
-      tmp = null;
-    }
-
-    return tmp;
+    if (ready) throw new IllegalStateException();
+    it.remove();
   }
 }
@@ -0,0 +1,134 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.io.Codec;
+import itertools.io.SpillableList;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator that groups items based on the group(E, E) function, like
+ * {@link GroupingIterator}. Each group is returned as a list that can be
+ * iterated over repeatedly and accessed by index. Groups are held in memory
+ * up to a byte budget, and any remaining elements of a group are written to a
+ * temporary file (see {@link SpillableList}). Very large groups therefore
+ * don't run out of memory, and unlike
+ * {@link GroupingIterator#GroupingIterator(Iterator, int)} they are never
+ * split.
+ * 
+ * Note: calling {@link #next()} closes the previously returned group, deleting
+ * its temporary file, and the last group is closed once {@link #hasNext()}
+ * returns false. Copy any spilled group that must outlive the iteration, and
+ * call {@link #close()} when stopping before the end.
+ * 
+ * @param <E>
+ */
+public abstract class SpillingGroupingIterator<E> implements
+    Iterator<List<E>>, Closeable {
+  private Iterator<E> it;
+  private Codec<E> codec;
+  private long memoryBudget;
+  private File tempDirectory;
+  private E current = null;
+  private SpillableList<E> group = null;
+
+  /**
+   * @param it
+   *          The underlying iterator.
+   * @param codec
+   *          Converts elements to bytes, for estimating their size and writing
+   *          them to disk.
+   * @param memoryBudget
+   *          The approximate number of bytes of each group to keep in memory.
+   */
+  public SpillingGroupingIterator(Iterator<E> it, Codec<E> codec,
+      long memoryBudget) {
+    this(it, codec, memoryBudget, null);
+  }
+
+  /**
+   * See {@link #SpillingGroupingIterator(Iterator, Codec, long)}.
+   * 
+   * @param tempDirectory
+   *          Where to create temporary files, or null for the system default.
+   */
+  public SpillingGroupingIterator(Iterator<E> it, Codec<E> codec,
+      long memoryBudget, File tempDirectory) {
+    this.it = it;
+    this.codec = codec;
+    this.memoryBudget = memoryBudget;
+    this.tempDirectory = tempDirectory;
+    if (it.hasNext()) {
+      current = it.next();
+    }
+  }
+
+  public boolean hasNext() {
+    if (current == null) close();
+    return (current != null);
+  }
+
+  /**
+   * Returns the next group. Note: this consumes the underlying iterator up to
+   * the end of the group, and closes the previously returned group.
+   */
+  public List<E> next() {
+    if (current == null) { throw new NoSuchElementException(); }
+    if (group != null) group.close();
+    group = new SpillableList<E>(codec, memoryBudget, tempDirectory);
+    group.add(current);
+    E next = null;
+    while (it.hasNext()) {
+      next = it.next();
+      if (group(current, next)) {
+        group.add(next);
+        next = null;
+      } else {
+        break;
+      }
+    }
+    current = next;
+    return group;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Closes the last returned group, deleting its temporary file.
+   */
+  public void close() {
+    if (group != null) group.close();
+    group = null;
+  }
+
+  /**
+   * The function to define the groups in this iterator.
+   * 
+   * @param e1
+   *          The first item to compare.
+   * @param e2
+   *          The second item to compare.
+   * @return true if the two items should be in the same group, false otherwise.
+   */
+  public abstract boolean group(E e1, E e2);
+}
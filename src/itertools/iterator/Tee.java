@@ -0,0 +1,276 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.io.Codec;
+import itertools.io.RunReader;
+import itertools.io.RunWriter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits one source iterator into n independent iterators, like python's
+ * <tt>itertools.tee</tt>. The source is read once: each element is appended to
+ * a shared buffer of fixed-size segments, and every iterator reads the buffer
+ * at its own position. A segment is garbage collected once every iterator has
+ * passed it, so memory use follows the distance between the fastest and the
+ * slowest iterator.
+ * 
+ * That distance can be limited to a budget of elements, either by blocking the
+ * fastest iterator until the slowest catches up, when the iterators are read
+ * on different threads, or by spilling further segments to a temporary file,
+ * from which the slower iterators read them back. Spilled segments are
+ * appended to a single file, which is deleted as soon as every spilled segment
+ * has been read back, and a new one started for the next spill. Blocking with
+ * all the iterators on one thread deadlocks.
+ * 
+ * An iterator that is never read holds on to every element, so every iterator
+ * should be read to the end, or the Tee closed to delete its spill file.
+ * 
+ * @param <E>
+ */
+public class Tee<E> implements Closeable {
+  /** Number of elements in a buffer segment. */
+  static final int SEGMENT_SIZE = 4096;
+
+  private final Iterator<E> source;
+  private final long budget;
+  private final Codec<E> codec;
+  private final File tempDirectory;
+  private final List<Consumer> consumers;
+  private Segment tail = new Segment();
+  private long produced = 0;
+  private boolean exhausted = false;
+  private int waiting = 0;
+  private File spillFile;
+  private RunWriter<E> spillWriter;
+  /** the number of segment loads still to be read from the spill file */
+  private int pendingLoads = 0;
+
+  /**
+   * Creates n iterators over source, buffering as many elements as needed.
+   */
+  public Tee(Iterator<E> source, int n) {
+    this(source, n, Long.MAX_VALUE, null, null);
+  }
+
+  /**
+   * Creates n iterators over source, for use on separate threads. An iterator
+   * more than budget elements ahead of the slowest waits for it to catch up.
+   */
+  public Tee(Iterator<E> source, int n, long budget) {
+    this(source, n, budget, null, null);
+  }
+
+  /**
+   * Creates n iterators over source. While an iterator is more than budget
+   * elements ahead of the slowest, further segments are spilled to disk.
+   * 
+   * @param source
+   *          The iterator to split.
+   * @param n
+   *          The number of iterators.
+   * @param budget
+   *          The number of elements to buffer in memory.
+   * @param codec
+   *          Converts elements to bytes for the temporary files, or null to
+   *          block instead of spilling.
+   * @param tempDirectory
+   *          Where to create temporary files, or null for the system default.
+   */
+  public Tee(Iterator<E> source, int n, long budget, Codec<E> codec,
+      File tempDirectory) {
+    if (n < 0) throw new IllegalArgumentException("n < 0");
+    if (budget < 1) throw new IllegalArgumentException("budget < 1");
+    this.source = source;
+    this.budget = budget;
+    this.codec = codec;
+    this.tempDirectory = tempDirectory;
+    List<Consumer> c = new ArrayList<Consumer>(n);
+    for (int i = 0; i < n; ++i) {
+      c.add(new Consumer());
+    }
+    this.consumers = Collections.unmodifiableList(c);
+  }
+
+  /**
+   * @return The n iterators.
+   */
+  public List<? extends Iterator<E>> iterators() {
+    return consumers;
+  }
+
+  private class Segment {
+    Object[] items = new Object[SEGMENT_SIZE];
+    int size = 0;
+    Segment next;
+    /** the offset of the segment in the spill file, once items is null */
+    long offset;
+  }
+
+  private long slowest() {
+    long min = produced;
+    for (Consumer c : consumers) {
+      min = Math.min(min, c.pos);
+    }
+    return min;
+  }
+
+  /**
+   * Reads the next element of the source into the buffer.
+   * 
+   * @return false if the source is exhausted.
+   */
+  private boolean produce() {
+    if (exhausted) return false;
+    if (!source.hasNext()) {
+      exhausted = true;
+      return false;
+    }
+    E item = source.next();
+    if (tail.size == SEGMENT_SIZE) {
+      Segment s = new Segment();
+      tail.next = s;
+      tail = s;
+    }
+    tail.items[tail.size++] = item;
+    ++produced;
+    if (tail.size == SEGMENT_SIZE && codec != null
+        && produced - slowest() > budget) {
+      spill(tail);
+    }
+    return true;
+  }
+
+  private void spill(Segment s) {
+    // iterators already in the segment keep reading its array
+    int loads = 0;
+    for (Consumer c : consumers) {
+      if (c.segment != s && c.pos < produced) ++loads;
+    }
+    try {
+      if (loads > 0) {
+        if (spillWriter == null) {
+          spillFile = File.createTempFile(getClass().getName(), ".run",
+              tempDirectory);
+          spillWriter = new RunWriter<E>(spillFile, codec, true);
+          spillWriter.setIndexed(false);
+        }
+        s.offset = spillWriter.position();
+        for (int i = 0; i < s.size; ++i) {
+          @SuppressWarnings("unchecked")
+          E e = (E) s.items[i];
+          spillWriter.write(e);
+        }
+        spillWriter.flush();
+        pendingLoads += loads;
+      }
+      s.items = null;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Object[] load(Segment s) {
+    if (s.items != null) return s.items;
+    try {
+      Object[] items = new Object[s.size];
+      RunReader<E> r = new RunReader<E>(spillFile, codec, s.offset);
+      for (int i = 0; i < s.size; ++i) {
+        items[i] = r.next();
+      }
+      r.close();
+      if (--pendingLoads == 0) close();
+      return items;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Deletes the spill file, if any. Iterators that have not been read to the
+   * end can no longer read the segments spilled so far.
+   */
+  public synchronized void close() {
+    if (spillWriter == null) return;
+    try {
+      spillWriter.close();
+    } catch (IOException e) {
+      // ignore, the file is deleted anyway
+    }
+    spillFile.delete();
+    spillWriter = null;
+    spillFile = null;
+    pendingLoads = 0;
+  }
+
+  private class Consumer implements Iterator<E> {
+    Segment segment = tail;
+    Object[] items = tail.items;
+    int offset = 0;
+    long pos = 0;
+
+    public boolean hasNext() {
+      synchronized (Tee.this) {
+        while (pos == produced) {
+          if (codec == null && budget != Long.MAX_VALUE
+              && produced - slowest() >= budget) {
+            // too far ahead: wait for the slowest iterator
+            ++waiting;
+            try {
+              Tee.this.wait();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new RuntimeException(e);
+            } finally {
+              --waiting;
+            }
+          } else if (!produce()) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E next() {
+      synchronized (Tee.this) {
+        if (!hasNext()) throw new NoSuchElementException();
+        if (offset == SEGMENT_SIZE) {
+          segment = segment.next;
+          items = load(segment);
+          offset = 0;
+        }
+        E item = (E) items[offset++];
+        ++pos;
+        if (waiting > 0) Tee.this.notifyAll();
+        return item;
+      }
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
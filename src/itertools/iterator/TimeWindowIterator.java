@@ -0,0 +1,138 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.Pair;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.InvertibleAggregator;
+import itertools.functions.LongMapper;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Aggregates windows of event time: each window covers the times [start, start
+ * + size), and windows start at every multiple of slide. Tumbling windows have
+ * slide == size, sliding windows slide &lt; size, and hopping windows, which
+ * skip times, slide &gt; size. The elements must be ordered
+ * by time. Produces one (start time, aggregate) pair for each window that
+ * holds at least one element.
+ * 
+ * If the aggregators are {@link InvertibleAggregator}s (e.g. count, sum or
+ * average), elements leaving the window are removed from a single aggregate,
+ * so each element costs O(1). Otherwise the window's elements are kept in a
+ * ring buffer and re-aggregated for each window.
+ * 
+ * @param <E>
+ *          Element type.
+ * @param <R>
+ *          Aggregate type.
+ */
+public class TimeWindowIterator<E, R> implements Iterator<Pair<Long, R>> {
+  private final Iterator<E> it;
+  private final LongMapper<? super E> time;
+  private final long size;
+  private final long slide;
+  private final WindowBuffer<E, R> buffer;
+  private long start;
+  /** the next element, which is not in the buffer yet */
+  private E pending;
+  private long pendingTime;
+  private boolean hasPending = false;
+  private boolean started = false;
+
+  /**
+   * @param it
+   *          The elements, ordered by time.
+   * @param time
+   *          Extracts the time of an element.
+   * @param size
+   *          The length of a window.
+   * @param slide
+   *          The time between the starts of consecutive windows.
+   * @param factory
+   *          Creates the aggregators.
+   */
+  public TimeWindowIterator(Iterator<E> it, LongMapper<? super E> time,
+      long size, long slide, AggregatorFactory<? super E, ? extends R> factory) {
+    if (size < 1 || slide < 1) { throw new IllegalArgumentException(
+        "size and slide must be positive"); }
+    this.it = it;
+    this.time = time;
+    this.size = size;
+    this.slide = slide;
+    this.buffer = new WindowBuffer<E, R>(factory, 16);
+  }
+
+  private void advance() {
+    started = true;
+    if (it.hasNext()) {
+      E item = it.next();
+      long t = time.map(item);
+      if (hasPending && t < pendingTime) { throw new IllegalStateException(
+          "elements are not ordered by time"); }
+      pending = item;
+      pendingTime = t;
+      hasPending = true;
+    } else {
+      pending = null;
+      hasPending = false;
+    }
+  }
+
+  /**
+   * @return The start of the first window holding time t.
+   */
+  private long firstWindow(long t) {
+    long s = t - size;
+    // the smallest multiple of slide greater than t - size
+    long floor = s / slide * slide;
+    if (floor > s) floor -= slide;
+    return floor + slide;
+  }
+
+  public boolean hasNext() {
+    if (!started) {
+      advance();
+      if (hasPending) start = firstWindow(pendingTime);
+    }
+    while (true) {
+      while (hasPending && pendingTime < start + size) {
+        // elements between hopping windows are dropped
+        if (pendingTime >= start) {
+          buffer.add(pending, pendingTime);
+        }
+        advance();
+      }
+      if (!buffer.isEmpty()) { return true; }
+      if (!hasPending) { return false; }
+      // skip windows without elements
+      start = Math.max(start, firstWindow(pendingTime));
+    }
+  }
+
+  public Pair<Long, R> next() {
+    if (!hasNext()) { throw new NoSuchElementException(); }
+    Pair<Long, R> window = new Pair<Long, R>(start, buffer.result());
+    start += slide;
+    buffer.removeBefore(start);
+    return window;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
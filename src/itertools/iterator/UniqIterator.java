@@ -0,0 +1,106 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Collapses runs of equal adjacent elements into their first element, like
+ * unix's <tt>uniq</tt>. Each element is compared once with the one before it,
+ * and the length of the run of the element last returned by {@link #next()} is
+ * available as a primitive from {@link #count()}, like <tt>uniq -c</tt>. No
+ * objects are created per run.
+ * 
+ * @param <E>
+ */
+public class UniqIterator<E> implements Iterator<E> {
+  private final Iterator<E> it;
+  private final Comparator<? super E> comp;
+  private boolean started = false;
+  private E pending;
+  private boolean hasPending = false;
+  private long count = 0;
+
+  /**
+   * Compares elements with {@link Object#equals(Object)}.
+   */
+  public UniqIterator(Iterator<E> it) {
+    this(it, null);
+  }
+
+  /**
+   * @param it
+   *          The underlying iterator.
+   * @param comp
+   *          Elements are equal if they compare as 0, or by equals() if comp is
+   *          null.
+   */
+  public UniqIterator(Iterator<E> it, Comparator<? super E> comp) {
+    this.it = it;
+    this.comp = comp;
+  }
+
+  private void advance() {
+    started = true;
+    if (it.hasNext()) {
+      pending = it.next();
+      hasPending = true;
+    } else {
+      pending = null;
+      hasPending = false;
+    }
+  }
+
+  private boolean same(E e1, E e2) {
+    if (comp != null) return comp.compare(e1, e2) == 0;
+    return (e1 == null) ? e2 == null : e1.equals(e2);
+  }
+
+  public boolean hasNext() {
+    if (!started) advance();
+    return hasPending;
+  }
+
+  /**
+   * Returns the first element of the next run, and reads the rest of the run.
+   */
+  public E next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    E first = pending;
+    long n = 1;
+    advance();
+    while (hasPending && same(first, pending)) {
+      ++n;
+      advance();
+    }
+    count = n;
+    return first;
+  }
+
+  /**
+   * @return The number of elements in the run of the element last returned by
+   *         {@link #next()}.
+   */
+  public long count() {
+    return count;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,116 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import itertools.aggregate.Aggregator;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.InvertibleAggregator;
+
+/**
+ * The elements of a window, in a ring buffer, with a position or time for
+ * each, and their aggregate. If the factory's aggregators are
+ * {@link InvertibleAggregator}s, a single aggregator is updated as elements
+ * enter and leave the window. Otherwise a new aggregator is filled from the
+ * buffer for each result.
+ * 
+ * @param <E>
+ * @param <R>
+ */
+class WindowBuffer<E, R> {
+  private final AggregatorFactory<? super E, ? extends R> factory;
+  private final InvertibleAggregator<? super E, ? extends R> aggregator;
+  private Object[] items;
+  private long[] keys;
+  private int head = 0;
+  private int size = 0;
+
+  @SuppressWarnings("unchecked")
+  WindowBuffer(AggregatorFactory<? super E, ? extends R> factory,
+      int initialCapacity) {
+    this.factory = factory;
+    Aggregator<? super E, ? extends R> agg = factory.create();
+    this.aggregator = (agg instanceof InvertibleAggregator<?, ?>) ? (InvertibleAggregator<? super E, ? extends R>) agg
+        : null;
+    initialCapacity = Math.max(initialCapacity, 2);
+    this.items = new Object[initialCapacity];
+    this.keys = new long[initialCapacity];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Adds an element with the given position or time, which must not be less
+   * than those of the elements already in the buffer.
+   */
+  void add(E item, long key) {
+    if (size == items.length) {
+      grow();
+    }
+    int tail = (head + size) % items.length;
+    items[tail] = item;
+    keys[tail] = key;
+    ++size;
+    if (aggregator != null) {
+      aggregator.add(item);
+    }
+  }
+
+  /**
+   * Removes the elements whose position or time is less than key.
+   */
+  @SuppressWarnings("unchecked")
+  void removeBefore(long key) {
+    while (size > 0 && keys[head] < key) {
+      if (aggregator != null) {
+        aggregator.remove((E) items[head]);
+      }
+      items[head] = null;
+      head = (head + 1) % items.length;
+      --size;
+    }
+  }
+
+  /**
+   * @return The aggregate of the elements in the buffer.
+   */
+  @SuppressWarnings("unchecked")
+  R result() {
+    if (aggregator != null) { return aggregator.result(); }
+    Aggregator<? super E, ? extends R> agg = factory.create();
+    for (int i = 0; i < size; ++i) {
+      agg.add((E) items[(head + i) % items.length]);
+    }
+    return agg.result();
+  }
+
+  private void grow() {
+    Object[] newItems = new Object[items.length * 2];
+    long[] newKeys = new long[items.length * 2];
+    for (int i = 0; i < size; ++i) {
+      newItems[i] = items[(head + i) % items.length];
+      newKeys[i] = keys[(head + i) % keys.length];
+    }
+    items = newItems;
+    keys = newKeys;
+    head = 0;
+  }
+}
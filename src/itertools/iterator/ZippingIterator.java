@@ -15,6 +15,9 @@
  */
 package itertools.iterator;
 
+import itertools.Itertools;
+
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -23,56 +26,107 @@ import java.util.NoSuchElementException;
 
 /**
  * Wraps a few iterators, iterating over each in parallel. Note: all the wrapped
- * iterators must be of the same type. At each iteration, returns an array
- * containing the next element from each iterator, or null if that iterator has
- * reached the end. {@link ZippingIterator#hasNext()} returns true if at least
- * one of the underlying iterators returns true.
+ * iterators must be of the same type. At each iteration, returns a list
+ * containing the next element from each iterator, or a fill value (null by
+ * default) if that iterator has reached the end. By default
+ * {@link ZippingIterator#hasNext()} returns true if at least one of the
+ * underlying iterators returns true; it can also stop at the end of the
+ * shortest iterator.
+ * 
+ * When the iteration ends, or {@link #close()} is called, the underlying
+ * iterators are closed with {@link Itertools#close(Iterator)}, so that
+ * prefetched inputs that were not read to the end are released.
+ * 
+ * The returned list is an unmodifiable view of internal storage, which the
+ * next call to {@link #next()} overwrites. To retain a row, it must be copied.
+ * See {@link PairZippingIterator} for zipping two iterators of different
+ * types, and {@link BatchZippingIterator} for zipping many rows at a time.
  * 
  * @author jelsas
  * 
  * @param <E>
  *          Type of objecs in each of the iterators.
  */
-public class ZippingIterator<E> implements Iterator<List<E>> {
+public class ZippingIterator<E> implements Iterator<List<E>>, Closeable {
   List<Iterator<E>> iterators;
   ArrayList<E> internalStorage;
+  private final List<E> view;
+  /** iterators known to be exhausted, which are not asked again */
+  private final boolean[] exhausted;
+  private final boolean longest;
+  private final E fill;
 
   public ZippingIterator(Iterator<? extends Iterable<E>> iterators) {
-    this.iterators = new ArrayList<Iterator<E>>();
-    while (iterators.hasNext()) {
-      this.iterators.add(iterators.next().iterator());
-    }
-    internalStorage = new ArrayList<E>(this.iterators.size());
+    this(iterators, true, null);
   }
 
   public ZippingIterator(Iterable<? extends Iterable<E>> iterators) {
     this(iterators.iterator());
   }
 
+  /**
+   * @param iterators
+   *          The iterables to zip.
+   * @param longest
+   *          If true, iterate until all the iterators are exhausted, filling in
+   *          for the exhausted ones. If false, stop as soon as any one is
+   *          exhausted.
+   * @param fill
+   *          The value returned for exhausted iterators.
+   */
+  public ZippingIterator(Iterator<? extends Iterable<E>> iterators,
+      boolean longest, E fill) {
+    this.iterators = new ArrayList<Iterator<E>>();
+    while (iterators.hasNext()) {
+      this.iterators.add(iterators.next().iterator());
+    }
+    internalStorage = new ArrayList<E>(Collections.<E> nCopies(this.iterators
+        .size(), null));
+    view = Collections.unmodifiableList(internalStorage);
+    exhausted = new boolean[this.iterators.size()];
+    this.longest = longest;
+    this.fill = fill;
+  }
+
   public boolean hasNext() {
-    // see if at least one of the iterators has next.
-    for (Iterator<E> it : iterators) {
-      if (it.hasNext()) return true;
+    if (longest) {
+      // see if at least one of the iterators has next.
+      for (int i = 0; i < exhausted.length; ++i) {
+        if (exhausted[i]) continue;
+        if (iterators.get(i).hasNext()) return true;
+        exhausted[i] = true;
+      }
+    } else {
+      boolean all = !iterators.isEmpty();
+      for (Iterator<E> it : iterators) {
+        all = all && it.hasNext();
+      }
+      if (all) return true;
     }
+    close();
     return false;
   }
 
   public List<E> next() {
-    internalStorage.clear();
-    boolean found = false;
-    for (int i = 0; i < iterators.size(); ++i) {
-      if (iterators.get(i).hasNext()) {
-        found = true;
-        internalStorage.add(iterators.get(i).next());
+    if (!hasNext()) throw new NoSuchElementException();
+    for (int i = 0; i < exhausted.length; ++i) {
+      Iterator<E> it = iterators.get(i);
+      if (!exhausted[i] && it.hasNext()) {
+        internalStorage.set(i, it.next());
       } else {
-        internalStorage.add(null);
+        exhausted[i] = true;
+        internalStorage.set(i, fill);
       }
     }
+    return view;
+  }
 
-    if (!found) {
-      throw new NoSuchElementException();
-    } else {
-      return Collections.unmodifiableList(internalStorage);
+  /**
+   * Closes the underlying iterators.
+   */
+  public void close() {
+    for (Iterator<E> it : iterators) {
+      Itertools.close(it);
     }
   }
 
@@ -0,0 +1,401 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.sort;
+
+import itertools.IBuilder;
+import itertools.functions.KeyNormalizer;
+import itertools.functions.Normalizers;
+import itertools.io.Codec;
+import itertools.io.RunIndex;
+import itertools.io.RunReader;
+import itertools.io.RunWriter;
+import itertools.iterator.IndexedIterator;
+import itertools.iterator.MergingIterator;
+import itertools.iterator.ParallelMergingIterator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts an iterator that may not fit in memory. The input is split into sorted
+ * runs of at least <tt>bufferSize</tt> elements, which are written to
+ * temporary run files with a {@link RunWriter} and then merged with a
+ * {@link MergingIterator}. If the whole input fits in memory, nothing is
+ * written to disk.
+ * 
+ * Runs are generated in one of two ways (see {@link RunGeneration}):
+ * <ul>
+ * <li>{@link RunGeneration#LOAD_SORT} reads <tt>bufferSize</tt> elements at a
+ * time and sorts them in memory. Chunks that arrive already sorted are not
+ * re-sorted, and a sorted chunk whose smallest element is not less than the
+ * last element written is appended to the current run instead of starting a
+ * new one.</li>
+ * <li>{@link RunGeneration#REPLACEMENT_SELECTION} (the default) keeps a heap of
+ * <tt>bufferSize</tt> elements, repeatedly writing out the smallest element
+ * that can still extend the current run and replacing it with the next input
+ * element. Runs average twice the buffer size on random input.</li>
+ * </ul>
+ * In both cases already-sorted input produces a single run, which is read
+ * back directly without a merge. Sorted {@link Collection}s passed to
+ * {@link #sort(Iterable)} are detected up front and not copied at all.
+ * 
+ * Elements are ordered either by a Comparator or by a {@link KeyNormalizer}.
+ * With a normalizer, each element's binary key is computed once, comparisons
+ * compare key bytes, and in-memory chunks are sorted with a {@link RadixSort}.
+ * 
+ * With a parallelism above one, the runs are merged by a
+ * {@link ParallelMergingIterator}, which reads each range of the key space
+ * from every run using the runs' {@link RunIndex}es. Its range boundaries are
+ * compared with the Comparator, or by normalizing each element on each
+ * comparison when sorting by a normalizer.
+ * 
+ * Temporary files are deleted once they have been read to the end.
+ * 
+ * @param <E>
+ */
+public class ExternalSort<E> {
+  public static final int DEFAULT_BUFFER_SIZE = 100000;
+
+  /**
+   * How sorted runs are produced from the input.
+   */
+  public enum RunGeneration {
+    /** Sort fixed-size chunks of the input. */
+    LOAD_SORT,
+    /** Use a heap to produce runs longer than the buffer. */
+    REPLACEMENT_SELECTION
+  }
+
+  private Comparator<? super E> comparator;
+  private KeyNormalizer<? super E> normalizer;
+  private Codec<E> codec;
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+  private File tempDirectory = null;
+  private boolean compress = true;
+  private RunGeneration runGeneration = RunGeneration.REPLACEMENT_SELECTION;
+  private int parallelism = 1;
+
+  /**
+   * @param comparator
+   *          The sort order.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   */
+  public ExternalSort(Comparator<? super E> comparator, Codec<E> codec) {
+    this.comparator = comparator;
+    this.codec = codec;
+  }
+
+  /**
+   * @param normalizer
+   *          Defines the sort order by the elements' normalized keys.
+   * @param codec
+   *          Converts elements to bytes for the temporary files.
+   */
+  public ExternalSort(KeyNormalizer<? super E> normalizer, Codec<E> codec) {
+    this.normalizer = normalizer;
+    this.codec = codec;
+  }
+
+  /**
+   * @param bufferSize
+   *          The number of elements to sort in memory at a time.
+   */
+  public void setBufferSize(int bufferSize) {
+    if (bufferSize < 1) throw new IllegalArgumentException("bufferSize < 1");
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * @param tempDirectory
+   *          Where to create temporary files, or null for the system default.
+   */
+  public void setTempDirectory(File tempDirectory) {
+    this.tempDirectory = tempDirectory;
+  }
+
+  /**
+   * @param compress
+   *          Whether to compress temporary files. Defaults to true.
+   */
+  public void setCompress(boolean compress) {
+    this.compress = compress;
+  }
+
+  /**
+   * @param runGeneration
+   *          How to produce sorted runs. Defaults to
+   *          {@link RunGeneration#REPLACEMENT_SELECTION}.
+   */
+  public void setRunGeneration(RunGeneration runGeneration) {
+    this.runGeneration = runGeneration;
+  }
+
+  /**
+   * @param parallelism
+   *          The number of threads to merge runs with. Defaults to 1.
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1");
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sorts the input. If the input is a Collection that is already sorted, its
+   * own iterator is returned. See {@link #sort(Iterator)}.
+   */
+  public Iterator<E> sort(Iterable<E> input) throws IOException {
+    if (input instanceof Collection<?> && isSorted(input.iterator())) {
+      return input.iterator();
+    }
+    return sort(input.iterator());
+  }
+
+  /**
+   * Sorts the input. Note: the input is read completely before this method
+   * returns.
+   * 
+   * @param input
+   *          The elements to sort.
+   * @return An iterator over the sorted elements.
+   * @throws IOException
+   *           If an error occurred writing temporary files.
+   */
+  public Iterator<E> sort(Iterator<E> input) throws IOException {
+    List<RunIndex<E>> runs = new ArrayList<RunIndex<E>>();
+    try {
+      Object[] buffer = new Object[bufferSize];
+      byte[][] keys = (normalizer != null) ? new byte[bufferSize][] : null;
+      int n = fill(input, buffer, keys, 0);
+      if (!input.hasNext()) {
+        // everything fit in memory
+        sortBuffer(buffer, keys, n);
+        return bufferIterator(buffer, n);
+      }
+      if (runGeneration == RunGeneration.REPLACEMENT_SELECTION) {
+        replacementSelection(input, buffer, keys, runs);
+      } else {
+        loadSort(input, buffer, keys, n, runs);
+      }
+    } catch (IOException e) {
+      for (RunIndex<E> run : runs) {
+        run.getFile().delete();
+      }
+      throw e;
+    }
+    return merge(runs);
+  }
+
+  /**
+   * Reads elements into buffer[n..], computing their keys if needed.
+   * 
+   * @return The number of elements in the buffer.
+   */
+  private int fill(Iterator<E> input, Object[] buffer, byte[][] keys, int n) {
+    while (n < buffer.length && input.hasNext()) {
+      E e = input.next();
+      buffer[n] = e;
+      if (keys != null) keys[n] = normalizer.normalize(e);
+      ++n;
+    }
+    return n;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(Object o1, byte[] k1, Object o2, byte[] k2) {
+    if (normalizer != null) {
+      return Normalizers.compare(k1, k2);
+    } else {
+      return comparator.compare((E) o1, (E) o2);
+    }
+  }
+
+  private boolean isSorted(Iterator<E> it) {
+    if (!it.hasNext()) return true;
+    E prev = it.next();
+    byte[] prevKey = (normalizer != null) ? normalizer.normalize(prev) : null;
+    while (it.hasNext()) {
+      E e = it.next();
+      byte[] key = (normalizer != null) ? normalizer.normalize(e) : null;
+      if (compare(prev, prevKey, e, key) > 0) return false;
+      prev = e;
+      prevKey = key;
+    }
+    return true;
+  }
+
+  /**
+   * Sorts buffer[0..n), skipping the sort if it is already in order.
+   */
+  @SuppressWarnings("unchecked")
+  private void sortBuffer(Object[] buffer, byte[][] keys, int n) {
+    boolean sorted = true;
+    for (int i = 1; i < n && sorted; ++i) {
+      sorted = compare(buffer[i - 1], keys == null ? null : keys[i - 1],
+          buffer[i], keys == null ? null : keys[i]) <= 0;
+    }
+    if (sorted) return;
+    if (keys != null) {
+      RadixSort.sort(buffer, keys, 0, n);
+    } else {
+      Arrays.sort(buffer, 0, n, (Comparator<Object>) comparator);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Iterator<E> bufferIterator(Object[] buffer, int n) {
+    return new IndexedIterator<E>((List<E>) Arrays.asList(buffer), 0, n);
+  }
+
+  /**
+   * Generates runs by sorting one buffer at a time. The buffer initially
+   * holds n elements.
+   */
+  @SuppressWarnings("unchecked")
+  private void loadSort(Iterator<E> input, Object[] buffer, byte[][] keys,
+      int n, List<RunIndex<E>> runs) throws IOException {
+    RunWriter<E> out = null;
+    Object last = null;
+    byte[] lastKey = null;
+    try {
+      while (n > 0) {
+        sortBuffer(buffer, keys, n);
+        // start a new run unless this chunk can extend the current one
+        if (out == null
+            || compare(last, lastKey, buffer[0], keys == null ? null : keys[0]) > 0) {
+          if (out != null) out.close();
+          out = newRun(runs);
+        }
+        for (int i = 0; i < n; ++i) {
+          out.write((E) buffer[i]);
+        }
+        last = buffer[n - 1];
+        lastKey = (keys == null) ? null : keys[n - 1];
+        n = fill(input, buffer, keys, 0);
+      }
+    } finally {
+      if (out != null) out.close();
+    }
+  }
+
+  /**
+   * Generates runs by replacement selection, starting from a full buffer.
+   */
+  @SuppressWarnings("unchecked")
+  private void replacementSelection(Iterator<E> input, Object[] buffer,
+      byte[][] keys, List<RunIndex<E>> runs) throws IOException {
+    PriorityQueue<HeapEntry> heap = new PriorityQueue<HeapEntry>(
+        buffer.length);
+    for (int i = 0; i < buffer.length; ++i) {
+      heap.add(new HeapEntry(buffer[i], keys == null ? null : keys[i], 0));
+      buffer[i] = null;
+      if (keys != null) keys[i] = null;
+    }
+
+    RunWriter<E> out = null;
+    int currentRun = -1;
+    try {
+      while (!heap.isEmpty()) {
+        HeapEntry top = heap.poll();
+        if (top.run != currentRun) {
+          if (out != null) out.close();
+          out = newRun(runs);
+          currentRun = top.run;
+        }
+        out.write((E) top.item);
+
+        if (input.hasNext()) {
+          // reuse the entry for the next element. If it sorts before the
+          // element just written, it has to wait for the next run.
+          E e = input.next();
+          byte[] key = (normalizer != null) ? normalizer.normalize(e) : null;
+          int run = (compare(e, key, top.item, top.key) < 0) ? currentRun + 1
+              : currentRun;
+          top.item = e;
+          top.key = key;
+          top.run = run;
+          heap.add(top);
+        }
+      }
+    } finally {
+      if (out != null) out.close();
+    }
+  }
+
+  /**
+   * Creates a new temporary run file, adding it to runs.
+   */
+  private RunWriter<E> newRun(List<RunIndex<E>> runs) throws IOException {
+    File f = File.createTempFile(getClass().getName(), ".run", tempDirectory);
+    f.deleteOnExit();
+    RunWriter<E> out = new RunWriter<E>(f, codec, compress);
+    runs.add(out.getIndex());
+    return out;
+  }
+
+  /**
+   * Merges the run files, deleting each one when it has been read.
+   */
+  Iterator<E> merge(List<RunIndex<E>> runs) throws IOException {
+    if (parallelism > 1 && runs.size() > 1) {
+      Comparator<? super E> comp = (normalizer != null) ? Normalizers
+          .<E> comparator(normalizer) : comparator;
+      return ParallelMergingIterator.mergeRuns(runs, codec, comp, parallelism,
+          true);
+    }
+    List<Iterable<E>> readers = new ArrayList<Iterable<E>>(runs.size());
+    for (RunIndex<E> run : runs) {
+      RunReader<E> reader = new RunReader<E>(run.getFile(), codec);
+      reader.setDeleteOnClose(true);
+      readers.add(new IBuilder<E>(reader));
+    }
+    if (readers.size() == 1) {
+      return readers.get(0).iterator();
+    } else if (normalizer != null) {
+      return new MergingIterator<E>(readers.iterator(), normalizer);
+    } else {
+      return new MergingIterator<E>(readers.iterator(), comparator);
+    }
+  }
+
+  /**
+   * An element in the replacement selection heap, ordered by run and then by
+   * element.
+   */
+  private class HeapEntry implements Comparable<HeapEntry> {
+    Object item;
+    byte[] key;
+    int run;
+
+    HeapEntry(Object item, byte[] key, int run) {
+      this.item = item;
+      this.key = key;
+      this.run = run;
+    }
+
+    public int compareTo(HeapEntry o) {
+      if (run != o.run) return (run < o.run) ? -1 : 1;
+      return compare(item, key, o.item, o.key);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.sort;
+
+/**
+ * An MSD (most significant digit first) radix sort over normalized binary keys
+ * (see {@link itertools.functions.KeyNormalizer}). Items are sorted along
+ * with their keys, one key byte at a time, without comparing whole objects.
+ * Small buckets are finished with an insertion sort that compares key bytes
+ * from the current position on. The sort is stable.
+ */
+public class RadixSort {
+  /** Buckets smaller than this are insertion sorted. */
+  static final int INSERTION_CUTOFF = 16;
+
+  /**
+   * Sorts items[from..to) by keys[from..to), rearranging both arrays.
+   * 
+   * @param items
+   *          The items to sort.
+   * @param keys
+   *          The normalized key of each item.
+   * @param from
+   *          The first index to sort.
+   * @param to
+   *          One past the last index to sort.
+   */
+  public static void sort(Object[] items, byte[][] keys, int from, int to) {
+    if (to - from < 2) return;
+    Object[] auxItems = new Object[to - from];
+    byte[][] auxKeys = new byte[to - from][];
+    sort(items, keys, from, to, 0, auxItems, auxKeys);
+  }
+
+  /**
+   * Sorts keys[from..to), without any associated items.
+   */
+  public static void sort(byte[][] keys, int from, int to) {
+    sort(new Object[keys.length], keys, from, to);
+  }
+
+  private static void sort(Object[] items, byte[][] keys, int lo, int hi,
+      int d, Object[] auxItems, byte[][] auxKeys) {
+    if (hi - lo < INSERTION_CUTOFF) {
+      insertionSort(items, keys, lo, hi, d);
+      return;
+    }
+
+    // bucket 0 holds keys with no byte at position d, bucket b+1 holds byte b
+    int[] count = new int[258];
+    for (int i = lo; i < hi; ++i) {
+      ++count[digit(keys[i], d) + 1];
+    }
+    for (int r = 0; r < 257; ++r) {
+      count[r + 1] += count[r];
+    }
+    for (int i = lo; i < hi; ++i) {
+      int pos = count[digit(keys[i], d)]++;
+      auxItems[pos] = items[i];
+      auxKeys[pos] = keys[i];
+    }
+    System.arraycopy(auxItems, 0, items, lo, hi - lo);
+    System.arraycopy(auxKeys, 0, keys, lo, hi - lo);
+
+    // count[r] is now the end of bucket r. Bucket 0 is all equal keys.
+    for (int r = 1; r < 257; ++r) {
+      if (count[r] - count[r - 1] > 1) {
+        sort(items, keys, lo + count[r - 1], lo + count[r], d + 1, auxItems,
+            auxKeys);
+      }
+    }
+  }
+
+  private static int digit(byte[] key, int d) {
+    return (d < key.length) ? (key[d] & 0xff) + 1 : 0;
+  }
+
+  private static void insertionSort(Object[] items, byte[][] keys, int lo,
+      int hi, int d) {
+    for (int i = lo + 1; i < hi; ++i) {
+      byte[] key = keys[i];
+      Object item = items[i];
+      int j = i - 1;
+      while (j >= lo && less(key, keys[j], d)) {
+        keys[j + 1] = keys[j];
+        items[j + 1] = items[j];
+        --j;
+      }
+      keys[j + 1] = key;
+      items[j + 1] = item;
+    }
+  }
+
+  /**
+   * Compares two keys that are known to be equal before position d.
+   */
+  private static boolean less(byte[] k1, byte[] k2, int d) {
+    int n = Math.min(k1.length, k2.length);
+    for (int i = d; i < n; ++i) {
+      if (k1[i] != k2[i]) return (k1[i] & 0xff) < (k2[i] & 0xff);
+    }
+    return k1.length < k2.length;
+  }
+}
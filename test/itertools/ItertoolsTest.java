@@ -20,6 +20,7 @@ import static itertools.Itertools.*;
 import itertools.functions.Condition;
 import itertools.functions.Grouper;
 import itertools.functions.Mapper;
+import itertools.io.Codecs;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -193,6 +194,31 @@ public class ItertoolsTest {
     }
   }
 
+  @Test
+  public void testTopKIsLazy() {
+    List<Integer> input = new ArrayList<Integer>(Arrays.asList(3, 1, 2));
+    Iterator<Integer> top = topK(input.iterator(), 2,
+        Collections.<Integer> reverseOrder()).iterator();
+    // nothing has been read yet, so the list can still be changed
+    input.set(1, 0);
+    assertEquals(0, top.next().intValue());
+    assertEquals(2, top.next().intValue());
+    assertFalse(top.hasNext());
+  }
+
+  @Test
+  public void testSortIsLazy() {
+    List<Integer> input = new ArrayList<Integer>(Arrays.asList(3, 1, 2));
+    Iterator<Integer> sorted = sort(input.iterator(),
+        Collections.<Integer> reverseOrder(), Codecs.INT).iterator();
+    // nothing has been read yet, so the list can still be changed
+    input.set(1, 4);
+    assertEquals(4, sorted.next().intValue());
+    assertEquals(3, sorted.next().intValue());
+    assertEquals(2, sorted.next().intValue());
+    assertFalse(sorted.hasNext());
+  }
+
   @Test
   public void testZipCollectionOfIteratorOfE() {
     int group = 0;
@@ -0,0 +1,55 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+  @Test
+  public void testFalsePositives() {
+    BloomFilter<String> filter = new BloomFilter<String>(10000, 0.01);
+    int added = 0;
+    for (int i = 0; i < 10000; ++i) {
+      if (filter.put("in" + i)) ++added;
+    }
+    // a few may look like they were already added
+    assertTrue(added > 9900);
+    for (int i = 0; i < 10000; ++i) {
+      assertTrue(filter.mightContain("in" + i));
+      assertFalse(filter.put("in" + i));
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; ++i) {
+      if (filter.mightContain("out" + i)) ++falsePositives;
+    }
+    assertTrue(falsePositives < 200);
+  }
+
+  @Test
+  public void testMergeAndBytes() {
+    BloomFilter<Integer> a = new BloomFilter<Integer>(1000, 0.01);
+    BloomFilter<Integer> b = new BloomFilter<Integer>(1000, 0.01);
+    a.put(1);
+    b.put(2);
+    a.merge(BloomFilter.<Integer> fromBytes(b.toBytes()));
+    assertTrue(a.mightContain(1));
+    assertTrue(a.mightContain(2));
+    assertFalse(a.put(2));
+  }
+}
@@ -0,0 +1,53 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CountMinSketchTest {
+
+  @Test
+  public void testEstimate() {
+    CountMinSketch<String> cms = CountMinSketch.withError(0.001, 0.01);
+    for (int i = 0; i < 1000; ++i) {
+      for (int j = 0; j <= i % 10; ++j) {
+        cms.add("item" + i);
+      }
+    }
+    long total = cms.total();
+    for (int i = 0; i < 1000; ++i) {
+      long estimate = cms.estimate("item" + i);
+      assertTrue(estimate >= i % 10 + 1);
+      assertTrue(estimate <= i % 10 + 1 + 0.001 * Math.E * total);
+    }
+    assertEquals(0, cms.estimate("missing"), 0.001 * Math.E * total);
+  }
+
+  @Test
+  public void testMergeAndBytes() {
+    CountMinSketch<String> a = new CountMinSketch<String>(4, 256);
+    CountMinSketch<String> b = new CountMinSketch<String>(4, 256);
+    a.add("x", 3);
+    b.add("x", 4);
+    b.add("y");
+    a.merge(CountMinSketch.<String> fromBytes(b.toBytes()));
+    assertEquals(8, a.total());
+    assertEquals(7, a.estimate("x"));
+    assertEquals(1, a.estimate("y"));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+  @Test
+  public void testEstimate() {
+    HyperLogLog<String> hll = new HyperLogLog<String>();
+    assertEquals(0, hll.estimate());
+    for (int i = 0; i < 100000; ++i) {
+      hll.add("item" + (i % 50000));
+    }
+    assertEquals(50000, hll.estimate(), 50000 * 0.03);
+
+    HyperLogLog<String> small = new HyperLogLog<String>();
+    for (int i = 0; i < 100; ++i) {
+      small.add("x" + i);
+    }
+    assertEquals(100, small.estimate(), 3);
+  }
+
+  @Test
+  public void testMergeAndBytes() {
+    HyperLogLog<Integer> a = new HyperLogLog<Integer>(12);
+    HyperLogLog<Integer> b = new HyperLogLog<Integer>(12);
+    HyperLogLog<Integer> all = new HyperLogLog<Integer>(12);
+    for (int i = 0; i < 20000; ++i) {
+      ((i % 2 == 0) ? a : b).add(i);
+      all.add(i);
+    }
+    a.merge(HyperLogLog.<Integer> fromBytes(b.toBytes()));
+    assertEquals(all, a);
+    assertEquals(all.estimate(), a.estimate());
+    assertEquals(4097, a.toBytes().length);
+  }
+
+  @Test
+  public void testTerminal() {
+    long distinct = Itertools.slice(Itertools.count(), 0, 10000, 1).aggregate(
+        new HyperLogLog<Integer>());
+    assertEquals(10000, distinct, 300);
+  }
+}
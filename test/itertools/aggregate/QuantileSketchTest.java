@@ -0,0 +1,74 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+  @Test
+  public void testQuantiles() {
+    QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_K, 1);
+    assertTrue(Double.isNaN(sketch.quantile(0.5)));
+    Random r = new Random(1);
+    for (int i = 0; i < 100000; ++i) {
+      sketch.add(r.nextDouble());
+    }
+    assertEquals(100000, sketch.count());
+    for (double q = 0.1; q < 1; q += 0.1) {
+      assertEquals(q, sketch.quantile(q), 0.03);
+      assertEquals(q, sketch.rank(q), 0.03);
+    }
+    assertEquals(sketch.min(), sketch.quantile(0), 0);
+    assertEquals(sketch.max(), sketch.quantile(1), 0);
+    // the sketch stays small
+    assertTrue(sketch.toBytes().length < 8 * 1000);
+  }
+
+  @Test
+  public void testMergeAndBytes() {
+    QuantileSketch a = new QuantileSketch(100, 2);
+    QuantileSketch b = new QuantileSketch(100, 3);
+    for (int i = 0; i < 50000; ++i) {
+      a.add(i);
+      b.add(50000 + i);
+    }
+    a.merge(QuantileSketch.fromBytes(b.toBytes()));
+    assertEquals(100000, a.count());
+    assertEquals(50000, a.quantile(0.5), 100000 * 0.05);
+    assertEquals(90000, a.quantile(0.9), 100000 * 0.05);
+
+    QuantileSketch c = QuantileSketch.fromBytes(a.toBytes());
+    assertEquals(a.quantile(0.25), c.quantile(0.25), 0);
+    assertEquals(0, c.min(), 0);
+    assertEquals(99999, c.max(), 0);
+  }
+
+  @Test
+  public void testSeeded() {
+    QuantileSketch a = new QuantileSketch(50, 7);
+    QuantileSketch b = new QuantileSketch(50, 7);
+    for (int i = 0; i < 10000; ++i) {
+      a.add(i);
+      b.add(i);
+    }
+    assertArrayEquals(a.toBytes(), b.toBytes());
+  }
+}
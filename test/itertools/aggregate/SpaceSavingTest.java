@@ -0,0 +1,67 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import static org.junit.Assert.*;
+
+import itertools.Pair;
+import itertools.io.Codecs;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SpaceSavingTest {
+
+  private void fill(SpaceSaving<Integer> s, int n, long seed) {
+    Random r = new Random(seed);
+    for (int i = 0; i < n; ++i) {
+      // a few heavy hitters among many rare elements
+      s.add((i % 4 == 0) ? i % 3 : 100 + r.nextInt(100000));
+    }
+  }
+
+  @Test
+  public void testHeavyHitters() {
+    SpaceSaving<Integer> s = new SpaceSaving<Integer>(50);
+    fill(s, 120000, 1);
+    List<Pair<Integer, Long>> top = s.top(3);
+    assertEquals(3, top.size());
+    for (Pair<Integer, Long> p : top) {
+      assertTrue(p.getFirst() < 3);
+      // each occurs 10000 times
+      assertTrue(p.getSecond() >= 10000);
+      assertTrue(p.getSecond() - s.error(p.getFirst()) <= 10000);
+    }
+    assertEquals(50, s.result().size());
+    assertEquals(120000, s.total());
+  }
+
+  @Test
+  public void testMergeAndBytes() {
+    SpaceSaving<Integer> a = new SpaceSaving<Integer>(50);
+    SpaceSaving<Integer> b = new SpaceSaving<Integer>(50);
+    fill(a, 60000, 1);
+    fill(b, 60000, 2);
+    a.merge(SpaceSaving.fromBytes(b.toBytes(Codecs.INT), Codecs.INT));
+    assertEquals(120000, a.total());
+    for (Pair<Integer, Long> p : a.top(3)) {
+      assertTrue(p.getFirst() < 3);
+      assertTrue(p.getSecond() >= 10000);
+    }
+  }
+}
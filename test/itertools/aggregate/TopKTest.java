@@ -0,0 +1,87 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.aggregate;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TopKTest {
+  Comparator<Integer> comp = new Comparator<Integer>() {
+    public int compare(Integer o1, Integer o2) {
+      return o1.compareTo(o2);
+    }
+  };
+
+  private List<Integer> data(int n, int range) {
+    Random r = new Random(42);
+    List<Integer> l = new ArrayList<Integer>();
+    for (int i = 0; i < n; ++i) {
+      l.add(r.nextInt(range));
+    }
+    return l;
+  }
+
+  private List<Integer> expected(List<Integer> data, int k) {
+    List<Integer> sorted = new ArrayList<Integer>(data);
+    Collections.sort(sorted, Collections.reverseOrder());
+    return sorted.subList(0, Math.min(k, sorted.size()));
+  }
+
+  @Test
+  public void testHeap() {
+    List<Integer> d = data(10000, 1000000);
+    TopK<Integer> top = new TopK<Integer>(10, comp);
+    top.addAll(d.iterator());
+    assertEquals(expected(d, 10), top.result());
+  }
+
+  @Test
+  public void testSelect() {
+    int k = TopK.HEAP_LIMIT * 2;
+    List<Integer> d = data(50000, 1000);
+    TopK<Integer> top = new TopK<Integer>(k, comp);
+    top.addAll(d.iterator());
+    assertEquals(expected(d, k), top.result());
+  }
+
+  @Test
+  public void testFewerThanK() {
+    List<Integer> d = data(5, 100);
+    TopK<Integer> top = new TopK<Integer>(TopK.HEAP_LIMIT + 1, comp);
+    top.addAll(d.iterator());
+    assertEquals(expected(d, 5), top.result());
+  }
+
+  @Test
+  public void testMerge() {
+    for (int k : new int[] { 10, TopK.HEAP_LIMIT + 10 }) {
+      List<Integer> d = data(20000, 1000000);
+      TopK<Integer> a = new TopK<Integer>(k, comp), b = new TopK<Integer>(k,
+          comp);
+      a.addAll(d.subList(0, 5000).iterator());
+      b.addAll(d.subList(5000, d.size()).iterator());
+      a.merge(b);
+      assertEquals(expected(d, k), a.result());
+    }
+  }
+}
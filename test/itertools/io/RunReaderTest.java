@@ -0,0 +1,166 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RunReaderTest {
+  File tempFile;
+  List<String> lines;
+
+  @Before
+  public void setUp() throws Exception {
+    tempFile = File.createTempFile(this.getClass().getName(), null);
+    tempFile.deleteOnExit();
+    lines = new ArrayList<String>();
+    for (int i = 0; i < 20000; ++i) {
+      lines.add(String.format("user%08d\tsome/repeated/path/%d", i, i % 7));
+    }
+  }
+
+  private List<String> roundTrip(boolean compress, int blockSize)
+      throws IOException {
+    RunWriter<String> out = new RunWriter<String>(tempFile, Codecs.STRING,
+        compress, blockSize);
+    for (String l : lines) {
+      out.write(l);
+    }
+    out.close();
+    assertEquals(lines.size(), out.count());
+
+    List<String> read = new ArrayList<String>();
+    RunReader<String> in = new RunReader<String>(tempFile, Codecs.STRING);
+    while (in.hasNext()) {
+      read.add(in.next());
+    }
+    return read;
+  }
+
+  @Test
+  public void testRunReader() throws IOException {
+    assertEquals(lines, roundTrip(false, RunWriter.DEFAULT_BLOCK_SIZE));
+    long rawSize = 0;
+    for (String l : lines) {
+      rawSize += l.length() + 1;
+    }
+    // prefix compression alone should save space on sorted data
+    assertTrue(tempFile.length() < rawSize);
+  }
+
+  @Test
+  public void testRunReaderCompressed() throws IOException {
+    assertEquals(lines, roundTrip(true, RunWriter.DEFAULT_BLOCK_SIZE));
+    assertEquals(lines, roundTrip(true, 16));
+  }
+
+  @Test
+  public void testLongRecords() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; ++i) {
+      sb.append((char) ('a' + i % 26));
+    }
+    lines.clear();
+    lines.add("");
+    lines.add(sb.toString());
+    lines.add(sb.toString() + "x");
+    assertEquals(lines, roundTrip(true, 128));
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    lines.clear();
+    assertEquals(lines, roundTrip(true, RunWriter.DEFAULT_BLOCK_SIZE));
+  }
+
+  @Test
+  public void testNumericCodecs() throws IOException {
+    long[] values = { Long.MIN_VALUE, -5, 0, 3, Long.MAX_VALUE };
+    RunWriter<Long> out = new RunWriter<Long>(tempFile, Codecs.LONG, false);
+    for (long v : values) {
+      out.write(v);
+    }
+    out.close();
+    RunReader<Long> in = new RunReader<Long>(tempFile, Codecs.LONG);
+    for (long v : values) {
+      assertEquals(v, in.next().longValue());
+    }
+    assertFalse(in.hasNext());
+    assertEquals(-7, Codecs.INT.decode(Codecs.INT.encode(-7), 0, 4).intValue());
+  }
+
+  @Test
+  public void testSkip() throws IOException {
+    RunWriter<String> out = new RunWriter<String>(tempFile, Codecs.STRING,
+        true, 256);
+    for (String l : lines) {
+      out.write(l);
+    }
+    out.close();
+    RunReader<String> in = new RunReader<String>(tempFile, Codecs.STRING);
+    assertEquals(0, in.skip(0));
+    assertEquals(3, in.skip(3));
+    assertEquals(lines.get(3), in.next());
+    // spans many blocks and ends inside one
+    assertEquals(5000, in.skip(5000));
+    assertEquals(lines.get(5004), in.next());
+    assertTrue(in.hasNext());
+    // the element read ahead by hasNext counts as skipped
+    assertEquals(1, in.skip(1));
+    assertEquals(lines.get(5006), in.next());
+    assertEquals(lines.size() - 5007, in.skip(Long.MAX_VALUE));
+    assertFalse(in.hasNext());
+    assertEquals(0, in.skip(1));
+  }
+
+  @Test
+  public void testIndex() throws IOException {
+    RunWriter<String> out = new RunWriter<String>(tempFile, Codecs.STRING,
+        true, 256);
+    for (String l : lines) {
+      out.write(l);
+    }
+    out.close();
+    RunIndex<String> index = out.getIndex();
+    assertEquals(lines.size(), index.count());
+    assertEquals(lines.get(0), index.first(0));
+    assertEquals(lines.get(lines.size() - 1), index.last());
+    assertTrue(index.blocks() > 1);
+    Comparator<String> comp = String.CASE_INSENSITIVE_ORDER;
+    String target = lines.get(12345);
+    // reading from the target's block skips the blocks before it
+    RunReader<String> in = index.open(Codecs.STRING, target, comp);
+    String first = in.next();
+    assertTrue(comp.compare(first, lines.get(12000)) > 0);
+    assertTrue(comp.compare(first, target) <= 0);
+    while (comp.compare(first, target) < 0) {
+      first = in.next();
+    }
+    assertEquals(target, first);
+    in.close();
+    in = index.open(Codecs.STRING, null, comp);
+    assertEquals(lines.get(0), in.next());
+    in.close();
+  }
+}
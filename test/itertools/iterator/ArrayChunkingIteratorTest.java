@@ -0,0 +1,102 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ArrayChunkingIteratorTest {
+
+  private List<Integer> range(int n) {
+    return Itertools.slice(Itertools.count(), 0, n, 1).list();
+  }
+
+  private void check(Iterator<List<Integer>> chunks, int n, int chunkSize) {
+    int next = 0;
+    while (chunks.hasNext()) {
+      List<Integer> chunk = chunks.next();
+      assertEquals(Math.min(chunkSize, n - next), chunk.size());
+      for (Integer i : chunk) {
+        assertEquals(next++, i.intValue());
+      }
+    }
+    assertEquals(n, next);
+  }
+
+  @Test
+  public void testChunks() {
+    check(new ArrayChunkingIterator<Integer>(range(100).iterator(), 7, false),
+        100, 7);
+    check(new ArrayChunkingIterator<Integer>(range(100).iterator(), 7, true),
+        100, 7);
+    check(new ArrayChunkingIterator<Integer>(new IndexedIterator<Integer>(
+        range(100)), 10, true), 100, 10);
+    check(Itertools.chunked(range(5), 10, true).iterator(), 5, 10);
+    assertFalse(new ArrayChunkingIterator<Integer>(range(0).iterator(), 7,
+        false).hasNext());
+  }
+
+  @Test
+  public void testReuse() {
+    List<List<Integer>> kept = new ArrayList<List<Integer>>();
+    for (List<Integer> chunk : Itertools.chunked(range(10), 4, false)) {
+      kept.add(chunk);
+    }
+    assertEquals(3, kept.size());
+    assertEquals(0, kept.get(0).get(0).intValue());
+    assertEquals(8, kept.get(2).get(0).intValue());
+
+    ArrayChunkingIterator<Integer> reused = new ArrayChunkingIterator<Integer>(
+        range(10).iterator(), 4, true);
+    List<Integer> first = reused.next();
+    assertSame(first, reused.next());
+    assertEquals(4, first.get(0).intValue());
+  }
+
+  @Test
+  public void testMaxDelay() {
+    // a slow source: each element takes 5ms
+    Iterator<Integer> slow = new MappingIterator<Integer, Integer>(range(10)
+        .iterator()) {
+      @Override
+      public Integer map(Integer item) {
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        return item;
+      }
+    };
+    ArrayChunkingIterator<Integer> chunks = new ArrayChunkingIterator<Integer>(
+        slow, 100, 1, TimeUnit.MILLISECONDS, false);
+    int n = 0;
+    while (chunks.hasNext()) {
+      List<Integer> chunk = chunks.next();
+      assertTrue(chunk.size() < 10);
+      n += chunk.size();
+    }
+    assertEquals(10, n);
+  }
+}
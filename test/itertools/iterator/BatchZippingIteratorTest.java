@@ -0,0 +1,83 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchZippingIteratorTest {
+
+  private List<Iterable<Integer>> inputs() {
+    List<Integer> a = new ArrayList<Integer>();
+    List<Integer> b = new ArrayList<Integer>();
+    for (int i = 0; i < 10; ++i) {
+      a.add(i);
+    }
+    for (int i = 0; i < 7; ++i) {
+      b.add(-i);
+    }
+    List<Iterable<Integer>> inputs = new ArrayList<Iterable<Integer>>();
+    inputs.add(a);
+    // not random access, so read one element at a time
+    inputs.add(Itertools.map(b, new Mapper<Integer, Integer>() {
+      public Integer map(Integer i) {
+        return i;
+      }
+    }));
+    return inputs;
+  }
+
+  @Test
+  public void testLongest() {
+    Iterator<BatchZippingIterator.Batch<Integer>> it = Itertools.zipBatches(
+        inputs(), 4, true, 99, true).iterator();
+    BatchZippingIterator.Batch<Integer> b = it.next();
+    assertEquals(4, b.size());
+    assertEquals(2, b.width());
+    assertEquals(Arrays.asList(0, 1, 2, 3), b.column(0));
+    assertEquals(Arrays.asList(0, -1, -2, -3), b.column(1));
+    assertSame(b, it.next());
+    assertEquals(Arrays.asList(-4, -5, -6, 99), b.column(1));
+    b = it.next();
+    assertEquals(2, b.size());
+    assertEquals(Arrays.asList(8, 9), b.column(0));
+    assertEquals(Integer.valueOf(99), b.get(1, 1));
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testShortest() {
+    Iterator<BatchZippingIterator.Batch<Integer>> it = Itertools.zipBatches(
+        inputs(), 4, false, null, false).iterator();
+    BatchZippingIterator.Batch<Integer> first = it.next();
+    BatchZippingIterator.Batch<Integer> second = it.next();
+    assertNotSame(first, second);
+    assertEquals(Arrays.asList(0, 1, 2, 3), first.column(0));
+    assertEquals(3, second.size());
+    assertEquals(Arrays.asList(4, 5, 6), second.column(0));
+    assertEquals(Arrays.asList(-4, -5, -6), second.column(1));
+    assertFalse(it.hasNext());
+  }
+}
@@ -0,0 +1,58 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BernoulliSamplingIteratorTest {
+  private Integer[] range(int n) {
+    Integer[] a = new Integer[n];
+    for (int i = 0; i < n; ++i) {
+      a[i] = i;
+    }
+    return a;
+  }
+
+  @Test
+  public void testFraction() {
+    List<Integer> sample = new IBuilder<Integer>(range(100000))
+        .sampleFraction(0.01, new Random(1)).list();
+    assertEquals(1000, sample.size(), 150);
+    // in order
+    for (int i = 1; i < sample.size(); ++i) {
+      assertTrue(sample.get(i - 1) < sample.get(i));
+    }
+  }
+
+  @Test
+  public void testBounds() {
+    assertEquals(100, new IBuilder<Integer>(range(100)).sampleFraction(1)
+        .list().size());
+    assertEquals(0, new IBuilder<Integer>(range(100)).sampleFraction(0).list()
+        .size());
+    assertEquals(500, Itertools.sampleFraction(
+        Itertools.slice(Itertools.count(), 0, 1000, 1).iterator(), 0.5,
+        new Random(3)).list().size(), 80);
+  }
+}
@@ -49,4 +49,16 @@ public class ChainedIteratorTest {
     assertFalse(it.hasNext());
   }
 
+
+  @Test
+  public void testSkip() {
+    ChainedIterator<String> it = new ChainedIterator<String>(iters.iterator());
+    assertEquals(2, it.skip(2));
+    assertEquals("c", it.next());
+    assertEquals(4, it.skip(4));
+    assertEquals("x", it.next());
+    assertEquals(2, it.skip(5));
+    assertFalse(it.hasNext());
+    assertEquals(0, it.skip(1));
+  }
 }
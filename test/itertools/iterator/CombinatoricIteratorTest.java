@@ -0,0 +1,109 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CombinatoricIteratorTest {
+  List<String> pool = Arrays.asList("a", "b", "c", "d");
+
+  private List<String> join(Iterable<List<String>> tuples) {
+    List<String> result = new ArrayList<String>();
+    for (List<String> t : tuples) {
+      StringBuilder sb = new StringBuilder();
+      for (String s : t) {
+        sb.append(s);
+      }
+      result.add(sb.toString());
+    }
+    return result;
+  }
+
+  @Test
+  public void testTuples() {
+    assertEquals(Arrays.asList("aa", "ab", "ac", "ad", "ba", "bb", "bc", "bd",
+        "ca", "cb", "cc", "cd", "da", "db", "dc", "dd"), join(Itertools
+        .product(pool, 2)));
+    assertEquals(Arrays.asList("ax", "ay", "bx", "by"), join(Itertools
+        .product(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("x",
+            "y")))));
+    assertEquals(Arrays.asList("ab", "ac", "ad", "ba", "bc", "bd", "ca", "cb",
+        "cd", "da", "db", "dc"), join(Itertools.permutations(pool, 2)));
+    assertEquals(Arrays.asList("ab", "ac", "ad", "bc", "bd", "cd"), join(Itertools
+        .combinations(pool, 2)));
+    assertEquals(Arrays.asList("aa", "ab", "ac", "bb", "bc", "cc"), join(Itertools
+        .combinationsWithReplacement(pool.subList(0, 3), 2)));
+    assertEquals(24, join(Itertools.permutations(pool)).size());
+    assertEquals(Arrays.asList(""), join(Itertools.combinations(pool, 0)));
+    assertEquals(0, join(Itertools.combinations(pool, 5)).size());
+  }
+
+  private void checkRanks(CombinatoricIterator<String> all) {
+    long size = all.size();
+    int[] indices = new int[all.indices.length];
+    long rank = 0;
+    while (all.hasNext()) {
+      int[] next = all.nextIndices();
+      assertEquals(rank, all.rank(next));
+      all.unrank(rank, indices);
+      assertTrue(Arrays.equals(next, indices));
+      ++rank;
+    }
+    assertEquals(size, rank);
+  }
+
+  @Test
+  public void testRanks() {
+    checkRanks(new ProductIterator<String>(pool, 3));
+    checkRanks(new PermutationIterator<String>(pool, 3));
+    checkRanks(new CombinationIterator<String>(pool, 3));
+    checkRanks(new CombinationIterator<String>(pool, 3, true));
+  }
+
+  @Test
+  public void testSplitAndSkip() {
+    List<String> all = join(Itertools.permutations(pool));
+    List<String> parts = new ArrayList<String>();
+    long size = all.size();
+    for (int w = 0; w < 5; ++w) {
+      PermutationIterator<String> part = new PermutationIterator<String>(
+          pool, 4, size * w / 5, size * (w + 1) / 5);
+      parts.addAll(join(new IBuilder<List<String>>(part)));
+    }
+    assertEquals(all, parts);
+
+    CombinationIterator<String> c = new CombinationIterator<String>(pool, 2);
+    c.next();
+    assertEquals(3, c.skip(3));
+    assertEquals(Arrays.asList("b", "d"), c.next());
+    assertEquals(1, c.skip(10));
+    assertFalse(c.hasNext());
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testOverflow() {
+    new ProductIterator<String>(pool, 40);
+  }
+}
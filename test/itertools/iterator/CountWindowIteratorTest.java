@@ -0,0 +1,92 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+import itertools.Pair;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.Aggregators;
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CountWindowIteratorTest {
+  Mapper<Integer, Integer> identity = new Mapper<Integer, Integer>() {
+    public Integer map(Integer input) {
+      return input;
+    }
+  };
+
+  private Iterator<Integer> range(int n) {
+    return Itertools.slice(Itertools.count(), 0, n, 1).iterator();
+  }
+
+  private <R> List<Pair<Long, R>> windows(int n, int size, int slide,
+      AggregatorFactory<Integer, R> factory) {
+    List<Pair<Long, R>> result = new ArrayList<Pair<Long, R>>();
+    CountWindowIterator<Integer, R> it = new CountWindowIterator<Integer, R>(
+        range(n), size, slide, factory);
+    while (it.hasNext()) {
+      result.add(it.next());
+    }
+    return result;
+  }
+
+  @Test
+  public void testTumbling() {
+    List<Pair<Long, Long>> w = windows(10, 4, 4, Aggregators.sumLong(identity));
+    assertEquals(3, w.size());
+    assertEquals(new Pair<Long, Long>(0L, 6L), w.get(0));
+    assertEquals(new Pair<Long, Long>(4L, 22L), w.get(1));
+    // final partial window
+    assertEquals(new Pair<Long, Long>(8L, 17L), w.get(2));
+  }
+
+  @Test
+  public void testSliding() {
+    // invertible and non-invertible aggregators give the same sums
+    List<Pair<Long, Long>> sums = windows(100, 10, 3, Aggregators
+        .sumLong(identity));
+    // first() is not invertible, so neither is the composite
+    List<Pair<Long, List<Object>>> composed = windows(100, 10, 3, Aggregators
+        .compose(Aggregators.sumLong(identity), Aggregators.<Integer> first()));
+    assertEquals(31, sums.size());
+    assertEquals(sums.size(), composed.size());
+    for (int i = 0; i < sums.size(); ++i) {
+      long start = 3 * i;
+      long end = Math.min(start + 10, 100);
+      assertEquals(start, sums.get(i).getFirst().longValue());
+      assertEquals((start + end - 1) * (end - start) / 2, sums.get(i)
+          .getSecond().longValue());
+      assertEquals(sums.get(i).getSecond(), composed.get(i).getSecond().get(0));
+    }
+  }
+
+  @Test
+  public void testHopping() {
+    List<Pair<Long, Long>> w = windows(9, 2, 5, Aggregators.<Integer> count());
+    assertEquals(2, w.size());
+    assertEquals(new Pair<Long, Long>(5L, 2L), w.get(1));
+    assertEquals(1, windows(4, 2, 5, Aggregators.<Integer> count()).size());
+    assertEquals(0, windows(0, 2, 5, Aggregators.<Integer> count()).size());
+  }
+}
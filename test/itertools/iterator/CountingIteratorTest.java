@@ -40,4 +40,19 @@ public class CountingIteratorTest {
     }
   }
 
+  @Test
+  public void testSkip() {
+    CountingIterator it = new CountingIterator(-5);
+    assertEquals(10, it.skip(10));
+    assertEquals(5, it.nextInt());
+    it.skip(Integer.MAX_VALUE - 6L);
+    assertEquals(Integer.MAX_VALUE, it.nextInt());
+    try {
+      new CountingIterator().skip(3000000000L);
+      fail();
+    } catch (ArithmeticException e) {
+      // expected
+    }
+  }
+
 }
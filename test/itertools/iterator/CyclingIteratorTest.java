@@ -17,8 +17,15 @@ package itertools.iterator;
 
 import static org.junit.Assert.*;
 
+import itertools.Itertools;
+import itertools.io.Codecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -41,4 +48,77 @@ public class CyclingIteratorTest {
     }
   }
 
+  @Test
+  public void testCycles() {
+    CyclingIterator<String> it = new CyclingIterator<String>(dataIt, 3);
+    for (int i = 0; i < 3 * data.length; ++i) {
+      assertTrue(it.hasNext());
+      assertEquals(data[i % data.length], it.next());
+    }
+    assertFalse(it.hasNext());
+    assertEquals(2, it.getNumCycles());
+    assertFalse(new CyclingIterator<String>(dataIt, 0).hasNext());
+  }
+
+  @Test
+  public void testEmpty() {
+    assertFalse(new CyclingIterator<String>(new ArrayList<String>()
+        .iterator()).hasNext());
+    assertFalse(Itertools.cycle(new ArrayList<String>()).iterator().hasNext());
+  }
+
+  @Test
+  public void testReopening() {
+    final List<String> list = Arrays.asList(data);
+    final int[] opened = { 0 };
+    Iterable<String> source = new Iterable<String>() {
+      public Iterator<String> iterator() {
+        ++opened[0];
+        return list.iterator();
+      }
+    };
+    CyclingIterator<String> it = new CyclingIterator<String>(source, 2);
+    List<String> out = new ArrayList<String>();
+    while (it.hasNext()) {
+      out.add(it.next());
+    }
+    assertEquals(2 * data.length, out.size());
+    assertEquals(list, out.subList(data.length, out.size()));
+    assertEquals(2, opened[0]);
+  }
+
+  @Test
+  public void testSpill() {
+    List<String> list = new ArrayList<String>();
+    for (int i = 0; i < 1000; ++i) {
+      list.add("item" + i);
+    }
+    Iterator<String> it = Itertools.cycle(list.iterator(), 3, Codecs.STRING,
+        1024).iterator();
+    for (int i = 0; i < 3 * list.size(); ++i) {
+      assertEquals(list.get(i % list.size()), it.next());
+    }
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    List<String> list = new ArrayList<String>();
+    for (int i = 0; i < 1000; ++i) {
+      list.add("item" + i);
+    }
+    CyclingIterator<String> it = new CyclingIterator<String>(list.iterator(),
+        -1, Codecs.STRING, 1024, dir);
+    for (int i = 0; i < 1500; ++i) {
+      assertEquals(list.get(i % list.size()), it.next());
+    }
+    assertEquals(1, dir.listFiles().length);
+    it.close();
+    assertFalse(it.hasNext());
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
 }
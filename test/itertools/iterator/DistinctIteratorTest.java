@@ -0,0 +1,113 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+import itertools.functions.Mapper;
+import itertools.functions.Objects;
+import itertools.io.Codecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistinctIteratorTest {
+  List<String> data;
+  Set<String> distinct;
+
+  @Before
+  public void setUp() throws Exception {
+    Random r = new Random(3);
+    data = new ArrayList<String>();
+    for (int i = 0; i < 10000; ++i) {
+      data.add("line" + r.nextInt(3000));
+    }
+    distinct = new LinkedHashSet<String>(data);
+  }
+
+  @Test
+  public void testInMemory() {
+    // first occurrences, in order
+    assertEquals(new ArrayList<String>(distinct), Itertools.distinct(data)
+        .list());
+  }
+
+  @Test
+  public void testDistinctBy() {
+    Mapper<String, Integer> length = new Mapper<String, Integer>() {
+      public Integer map(String input) {
+        return input.length();
+      }
+    };
+    assertEquals(Arrays.asList("a", "bb", "ccc"), Itertools.distinctBy(
+        Arrays.asList("a", "bb", "b", "ccc", "aa").iterator(), length).list());
+  }
+
+  @Test
+  public void testSpilling() {
+    for (DistinctIterator.KeySet keySet : DistinctIterator.KeySet.values()) {
+      List<String> result = new IBuilder<String>(data).distinctBy(
+          Objects.IDENTITY, keySet, Codecs.STRING, 100).list();
+      assertEquals(distinct.size(), result.size());
+      assertEquals(distinct, new HashSet<String>(result));
+      // the first 100 are returned in order, before spilling
+      assertEquals(new ArrayList<String>(distinct).subList(0, 100), result
+          .subList(0, 100));
+    }
+  }
+
+  @Test
+  public void testApprox() {
+    List<String> result = Itertools.distinctApprox(data.iterator(),
+        Objects.IDENTITY, 3000, 0.01).list();
+    assertTrue(result.size() <= distinct.size());
+    assertTrue(result.size() > distinct.size() * 0.95);
+    assertEquals(result.size(), new HashSet<String>(result).size());
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    // stop while the partitions are being written, and while reading them
+    for (int n : new int[] { 200, distinct.size() - 10 }) {
+      DistinctIterator<String> it = new DistinctIterator<String>(data
+          .iterator(), Objects.IDENTITY, DistinctIterator.KeySet.EXACT,
+          Codecs.STRING, 100, dir);
+      for (int i = 0; i < n; ++i) {
+        it.next();
+      }
+      assertTrue(dir.listFiles().length > 0);
+      it.close();
+      assertFalse(it.hasNext());
+      assertEquals(0, dir.listFiles().length);
+    }
+    dir.delete();
+  }
+}
@@ -43,4 +43,19 @@ public class EnumeratingIteratorTest {
     assertFalse(eit.hasNext());
   }
 
+
+  @Test
+  public void testLongCount() {
+    EnumeratingIterator<Long> eit = new EnumeratingIterator<Long>(
+        new LongCountingIterator());
+    assertEquals(3000000000L, eit.skip(3000000000L));
+    assertEquals(3000000000L, eit.next().longValue());
+    assertEquals(3000000000L, eit.currentLongCount());
+    try {
+      eit.currentCount();
+      fail();
+    } catch (ArithmeticException e) {
+      // expected
+    }
+  }
 }
@@ -0,0 +1,111 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+import itertools.Pair;
+import itertools.aggregate.Aggregator;
+import itertools.aggregate.AggregatorFactory;
+import itertools.aggregate.Aggregators;
+import itertools.aggregate.InvertibleAggregator;
+import itertools.functions.Combiner;
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class GroupAggregatingIteratorTest {
+  String[] data = { "a1", "a2", "a3", "b1", "b2", "c1", "d1", "d2", "d3", "e1" };
+
+  Mapper<String, Character> firstChar = new Mapper<String, Character>() {
+    public Character map(String input) {
+      return input.charAt(0);
+    }
+  };
+
+  Mapper<String, Integer> number = new Mapper<String, Integer>() {
+    public Integer map(String input) {
+      return input.charAt(1) - '0';
+    }
+  };
+
+  @Test
+  public void testCount() {
+    GroupAggregatingIterator<Character, String, Long> g = new GroupAggregatingIterator<Character, String, Long>(
+        Arrays.asList(data).iterator(), firstChar, Aggregators
+            .<String> count());
+    long[] counts = { 3, 2, 1, 3, 1 };
+    for (int i = 0; i < counts.length; ++i) {
+      Pair<Character, Long> p = g.next();
+      assertEquals((char) ('a' + i), p.getFirst().charValue());
+      assertEquals(counts[i], p.getSecond().longValue());
+    }
+    assertFalse(g.hasNext());
+  }
+
+  @Test
+  public void testReduce() {
+    List<Pair<Character, String>> result = Itertools.groupby(
+        Arrays.asList(data), firstChar,
+        Aggregators.reduce(new Combiner<String, String, String>() {
+          public String combine(String left, String right) {
+            return left + right.charAt(1);
+          }
+        }, "")).list();
+    assertEquals(5, result.size());
+    assertEquals("123", result.get(0).getSecond());
+    assertEquals("12", result.get(1).getSecond());
+    assertEquals("1", result.get(4).getSecond());
+  }
+
+  @Test
+  public void testCompose() {
+    List<AggregatorFactory<? super String, ?>> factories = new ArrayList<AggregatorFactory<? super String, ?>>();
+    factories.add(Aggregators.<String> first());
+    factories.add(Aggregators.<String> last());
+    factories.add(Aggregators.sum(number));
+    factories.add(Aggregators.variance(number));
+    factories.add(Aggregators.<String> distinctCount());
+    Pair<Character, List<Object>> a = Itertools.groupby(Arrays.asList(data),
+        firstChar, Aggregators.compose(factories)).peek();
+    assertEquals('a', a.getFirst().charValue());
+    List<Object> r = a.getSecond();
+    assertEquals("a1", r.get(0));
+    assertEquals("a3", r.get(1));
+    assertEquals(6.0, (Double) r.get(2), 1e-9);
+    assertEquals(1.0, (Double) r.get(3), 1e-9);
+    assertEquals(3L, r.get(4));
+  }
+
+  @Test
+  public void testComposeInvertible() {
+    Aggregator<String, List<Object>> agg = Aggregators.compose(
+        Aggregators.<String> count(), Aggregators.sum(number)).create();
+    assertTrue(agg instanceof InvertibleAggregator<?, ?>);
+    agg.add("a1");
+    agg.add("a2");
+    ((InvertibleAggregator<String, List<Object>>) agg).remove("a1");
+    assertEquals(Arrays.<Object> asList(1L, 2.0), agg.result());
+    agg = Aggregators.compose(Aggregators.<String> count(),
+        Aggregators.<String> first()).create();
+    assertFalse(agg instanceof InvertibleAggregator<?, ?>);
+  }
+}
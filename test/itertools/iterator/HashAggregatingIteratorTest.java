@@ -0,0 +1,125 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Pair;
+import itertools.aggregate.Aggregators;
+import itertools.functions.Mapper;
+import itertools.io.Codecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashAggregatingIteratorTest {
+  List<Integer> data;
+  Map<Integer, Long> counts;
+
+  Mapper<Integer, Integer> mod = new Mapper<Integer, Integer>() {
+    public Integer map(Integer input) {
+      return input % 1000;
+    }
+  };
+
+  @Before
+  public void setUp() throws Exception {
+    Random r = new Random(5);
+    data = new ArrayList<Integer>();
+    counts = new HashMap<Integer, Long>();
+    for (int i = 0; i < 20000; ++i) {
+      int x = r.nextInt(1000000);
+      data.add(x);
+      Long c = counts.get(x % 1000);
+      counts.put(x % 1000, (c == null) ? 1 : c + 1);
+    }
+  }
+
+  private void check(HashAggregatingIterator<Integer, Integer, Long> it) {
+    Map<Integer, Long> result = new HashMap<Integer, Long>();
+    while (it.hasNext()) {
+      Pair<Integer, Long> p = it.next();
+      assertNull(result.put(p.getFirst(), p.getSecond()));
+    }
+    assertEquals(counts, result);
+  }
+
+  @Test
+  public void testInMemory() {
+    check(new HashAggregatingIterator<Integer, Integer, Long>(data.iterator(),
+        mod, Aggregators.<Integer> count()));
+  }
+
+  @Test
+  public void testSpilling() {
+    // only 10 keys fit in memory, so partitions are re-partitioned
+    check(new HashAggregatingIterator<Integer, Integer, Long>(data.iterator(),
+        mod, Aggregators.<Integer> count(), Codecs.INT, 10, null));
+  }
+
+  @Test
+  public void testAggregators() {
+    Mapper<Integer, Integer> zero = new Mapper<Integer, Integer>() {
+      public Integer map(Integer input) {
+        return null;
+      }
+    };
+    Mapper<Integer, Integer> identity = new Mapper<Integer, Integer>() {
+      public Integer map(Integer input) {
+        return input;
+      }
+    };
+    List<Integer> d = new ArrayList<Integer>();
+    for (int i = 1; i <= 4; ++i) {
+      d.add(i);
+    }
+    assertEquals(10L, new HashAggregatingIterator<Integer, Integer, Long>(d
+        .iterator(), zero, Aggregators.sumLong(identity)).next().getSecond()
+        .longValue());
+    Pair<Integer, Double> avg = new HashAggregatingIterator<Integer, Integer, Double>(
+        d.iterator(), zero, Aggregators.avg(identity)).next();
+    assertNull(avg.getFirst());
+    assertEquals(2.5, avg.getSecond(), 1e-9);
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    HashAggregatingIterator<Integer, Integer, Long> it = new HashAggregatingIterator<Integer, Integer, Long>(
+        data.iterator(), mod, Aggregators.<Integer> count(), Codecs.INT, 10,
+        dir);
+    // read into the partitions, while a sub-partition is open
+    for (int i = 0; i < 500; ++i) {
+      it.next();
+    }
+    assertTrue(dir.listFiles().length > 0);
+    new IBuilder<Pair<Integer, Long>>(it).close();
+    assertFalse(it.hasNext());
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IndexedIteratorTest {
+  List<String> data = Arrays.asList("a", "c", "e", "g", "i", "k", "m");
+  Comparator<String> comp = String.CASE_INSENSITIVE_ORDER;
+
+  @Test
+  public void testIndexedIterator() {
+    IndexedIterator<String> it = new IndexedIterator<String>(data, 1, 3);
+    assertEquals("c", it.next());
+    assertEquals("e", it.next());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testSeek() {
+    IndexedIterator<String> it = new IndexedIterator<String>(data);
+    it.seek("a", comp);
+    assertEquals("a", it.next());
+    it.seek("f", comp);
+    assertEquals("g", it.next());
+    it.seek("k", comp);
+    assertEquals("k", it.next());
+    it.seek("b", comp);
+    assertEquals("m", it.next());
+    it.seek("z", comp);
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testRemove() {
+    List<Integer> list = new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 5));
+    IndexedIterator<Integer> it = new IndexedIterator<Integer>(list);
+    assertEquals(1, it.next().intValue());
+    it.remove();
+    assertEquals(2, it.skip(2));
+    assertEquals(4, it.next().intValue());
+    it.remove();
+    assertEquals(5, it.next().intValue());
+    assertFalse(it.hasNext());
+    assertEquals(Arrays.asList(2, 3, 5), list);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+import itertools.Pair;
+import itertools.functions.LongMapper;
+import itertools.functions.Mapper;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public class KeyGroupingIteratorTest {
+  // ..index:.......0.....1.....2.....3.....4.....5.....6.....7.....8.....9
+  String[] data = { "a1", "a2", "a3", "b1", "b2", "c1", "d1", "d2", "d3", "e1" };
+  String[][] data_groups = { { data[0], data[1], data[2] },
+      { data[3], data[4] }, { data[5] }, { data[6], data[7], data[8] },
+      { data[9] } };
+
+  int calls = 0;
+
+  Mapper<String, Character> firstChar = new Mapper<String, Character>() {
+    public Character map(String input) {
+      ++calls;
+      return input.charAt(0);
+    }
+  };
+
+  @Test
+  public void testGroups() {
+    KeyGroupingIterator<Character, String> g = new KeyGroupingIterator<Character, String>(
+        Arrays.asList(data).iterator(), firstChar);
+    for (int group = 0; group < data_groups.length; ++group) {
+      assertTrue(g.hasNext());
+      Pair<Character, Iterator<String>> p = g.next();
+      assertEquals(data_groups[group][0].charAt(0), p.getFirst().charValue());
+      Iterator<String> nextGroup = p.getSecond();
+      for (int i = 0; i < data_groups[group].length; ++i) {
+        assertTrue(nextGroup.hasNext());
+        assertEquals(data_groups[group][i], nextGroup.next());
+      }
+      assertFalse(nextGroup.hasNext());
+    }
+    assertFalse(g.hasNext());
+    // each key is computed exactly once
+    assertEquals(data.length, calls);
+  }
+
+  @Test
+  public void testSkippedGroups() {
+    KeyGroupingIterator<Character, String> g = new KeyGroupingIterator<Character, String>(
+        Arrays.asList(data).iterator(), firstChar);
+    StringBuilder keys = new StringBuilder();
+    while (g.hasNext()) {
+      Pair<Character, Iterator<String>> p = g.next();
+      keys.append(p.getFirst());
+      if (p.getFirst() == 'd') {
+        p.getSecond().next();
+      }
+    }
+    assertEquals("abcde", keys.toString());
+  }
+
+  @Test
+  public void testLongKeys() {
+    LongKeyGroupingIterator<String> g = new LongKeyGroupingIterator<String>(
+        Arrays.asList(data).iterator(), new LongMapper<String>() {
+          public long map(String input) {
+            return input.charAt(0) - 'a';
+          }
+        });
+    for (int group = 0; group < data_groups.length; ++group) {
+      Pair<Long, Iterator<String>> p = g.next();
+      assertEquals(group, p.getFirst().longValue());
+      int n = 0;
+      while (p.getSecond().hasNext()) {
+        assertEquals(data_groups[group][n++], p.getSecond().next());
+      }
+      assertEquals(data_groups[group].length, n);
+    }
+    assertFalse(g.hasNext());
+  }
+
+  @Test
+  public void testGroupbyLong() {
+    StringBuilder keys = new StringBuilder();
+    for (Pair<Long, Iterator<String>> p : Itertools.groupbyLong(Arrays
+        .asList(data), new LongMapper<String>() {
+      public long map(String input) {
+        return input.charAt(0) - 'a';
+      }
+    })) {
+      keys.append(p.getFirst());
+    }
+    assertEquals("01234", keys.toString());
+  }
+}
@@ -59,4 +59,24 @@ public class LazyGroupingIteratorTest {
     }
   }
 
+  @Test
+  public void testSkippingGroups() {
+    LazyGroupingIterator<String> g = new LazyGroupingIterator<String>(it) {
+      @Override
+      public boolean group(String e1, String e2) {
+        return e1.charAt(0) == e2.charAt(0);
+      }
+    };
+
+    // read only the first element of every other group
+    for (int group = 0; group < data_groups.length; ++group) {
+      assertTrue(g.hasNext());
+      Iterator<String> nextGroup = g.next();
+      if (group % 2 == 0) {
+        assertEquals(data_groups[group][0], nextGroup.next());
+      }
+    }
+    assertFalse(g.hasNext());
+  }
+
 }
@@ -0,0 +1,43 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LongCountingIteratorTest {
+
+  @Test
+  public void testLongCountingIterator() {
+    long start = Integer.MAX_VALUE - 2L;
+    LongCountingIterator it = new LongCountingIterator(start);
+    for (long i = start; i < start + 10; ++i) {
+      assertTrue(it.hasNext());
+      assertEquals(i, it.nextLong());
+    }
+    assertEquals(start + 10, it.next().longValue());
+  }
+
+  @Test
+  public void testSkip() {
+    LongCountingIterator it = new LongCountingIterator();
+    assertEquals(5000000000L, it.skip(5000000000L));
+    assertEquals(5000000000L, it.nextLong());
+    assertEquals(0, it.skip(-1));
+    assertEquals(5000000001L, it.nextLong());
+  }
+}
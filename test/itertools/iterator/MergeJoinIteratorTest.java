@@ -0,0 +1,86 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Pair;
+import itertools.functions.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MergeJoinIteratorTest {
+  // ..........................key is the first character
+  String[] left = { "a1", "b1", "b2", "d1", "e1" };
+  String[] right = { "b3", "b4", "c1", "d2", "f1" };
+
+  Mapper<String, Character> key = new Mapper<String, Character>() {
+    public Character map(String input) {
+      return input.charAt(0);
+    }
+  };
+
+  private List<String> join(MergeJoinIterator.JoinType type) {
+    MergeJoinIterator<Character, String, String, Pair<String, String>> it = new MergeJoinIterator<Character, String, String, Pair<String, String>>(
+        Arrays.asList(left).iterator(), Arrays.asList(right).iterator(), key,
+        key, new Comparator<Character>() {
+          public int compare(Character o1, Character o2) {
+            return o1.compareTo(o2);
+          }
+        }, Pair.<String, String> combiner(), type);
+    List<String> out = new ArrayList<String>();
+    while (it.hasNext()) {
+      Pair<String, String> p = it.next();
+      out.add(p.getFirst() + "-" + p.getSecond());
+    }
+    return out;
+  }
+
+  @Test
+  public void testInnerJoin() {
+    assertEquals(Arrays.asList("b1-b3", "b1-b4", "b2-b3", "b2-b4", "d1-d2"),
+        join(MergeJoinIterator.JoinType.INNER));
+  }
+
+  @Test
+  public void testLeftOuterJoin() {
+    assertEquals(Arrays.asList("a1-null", "b1-b3", "b1-b4", "b2-b3", "b2-b4",
+        "d1-d2", "e1-null"), join(MergeJoinIterator.JoinType.LEFT_OUTER));
+  }
+
+  @Test
+  public void testFullOuterJoin() {
+    assertEquals(Arrays.asList("a1-null", "b1-b3", "b1-b4", "b2-b3", "b2-b4",
+        "null-c1", "d1-d2", "e1-null", "null-f1"),
+        join(MergeJoinIterator.JoinType.FULL_OUTER));
+  }
+
+  @Test
+  public void testFullOuterJoinUnmatchedGroupAtEnd() {
+    left = new String[] { "a1" };
+    right = new String[] { "a2", "b1", "b2" };
+    assertEquals(Arrays.asList("a1-a2", "null-b1", "null-b2"),
+        join(MergeJoinIterator.JoinType.FULL_OUTER));
+    left = new String[] {};
+    assertEquals(Arrays.asList("null-a2", "null-b1", "null-b2"),
+        join(MergeJoinIterator.JoinType.FULL_OUTER));
+  }
+}
@@ -17,6 +17,8 @@ package itertools.iterator;
 
 import static org.junit.Assert.*;
 
+import itertools.functions.Normalizers;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -61,4 +63,23 @@ public class MergingIteratorTest {
     assertFalse(mit.hasNext());
   }
 
+  @Test
+  public void testMergingIteratorNormalized() {
+    List<String> allData = new ArrayList<String>();
+    for (String[] ss : data) {
+      for (String s : ss) {
+        allData.add(s);
+      }
+    }
+    Collections.sort(allData);
+
+    MergingIterator<String> mit = new MergingIterator<String>(iters.iterator(),
+        Normalizers.STRING);
+    for (int i = 0; i < allData.size(); ++i) {
+      assertTrue(mit.hasNext());
+      assertEquals(allData.get(i), mit.next());
+    }
+    assertFalse(mit.hasNext());
+  }
+
 }
@@ -0,0 +1,49 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+import itertools.Pair;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PairZippingIteratorTest {
+  List<String> letters = Arrays.asList("a", "b", "c");
+  List<Integer> numbers = Arrays.asList(1, 2);
+
+  @Test
+  public void testShortest() {
+    assertEquals(Arrays.asList(new Pair<String, Integer>("a", 1),
+        new Pair<String, Integer>("b", 2)), Itertools.zipPairs(letters,
+        numbers).list());
+  }
+
+  @Test
+  public void testLongest() {
+    PairZippingIterator<String, Integer> it;
+    it = new PairZippingIterator<String, Integer>(letters.iterator(), numbers
+        .iterator(), "-", 0);
+    assertEquals(new Pair<String, Integer>("a", 1), it.next());
+    assertEquals(new Pair<String, Integer>("b", 2), it.next());
+    assertEquals(new Pair<String, Integer>("c", 0), it.next());
+    assertFalse(it.hasNext());
+  }
+}
@@ -0,0 +1,146 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.io.Codecs;
+import itertools.io.RunIndex;
+import itertools.io.RunWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ParallelMergingIteratorTest {
+  Comparator<Integer> comp = new Comparator<Integer>() {
+    public int compare(Integer o1, Integer o2) {
+      return o1.compareTo(o2);
+    }
+  };
+
+  @Test
+  public void testParallelMergingIterator() {
+    Random r = new Random(7);
+    List<List<Integer>> runs = new ArrayList<List<Integer>>();
+    List<Integer> all = new ArrayList<Integer>();
+    for (int i = 0; i < 5; ++i) {
+      List<Integer> run = new ArrayList<Integer>();
+      for (int j = r.nextInt(5000); j > 0; --j) {
+        // lots of duplicates across runs
+        run.add(r.nextInt(2000));
+      }
+      Collections.sort(run);
+      runs.add(run);
+      all.addAll(run);
+    }
+    runs.add(new ArrayList<Integer>());
+    Collections.sort(all);
+
+    ParallelMergingIterator<Integer> it = new ParallelMergingIterator<Integer>(
+        runs, comp, 4);
+    for (Integer i : all) {
+      assertTrue(it.hasNext());
+      assertEquals(i, it.next());
+    }
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testMergeRuns() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    Random r = new Random(13);
+    List<RunIndex<Integer>> runs = new ArrayList<RunIndex<Integer>>();
+    List<Integer> all = new ArrayList<Integer>();
+    for (int i = 0; i < 5; ++i) {
+      List<Integer> run = new ArrayList<Integer>();
+      for (int j = (i == 4) ? 0 : r.nextInt(5000); j > 0; --j) {
+        run.add(r.nextInt(2000));
+      }
+      Collections.sort(run);
+      all.addAll(run);
+      // small blocks, so each range starts partway through a run
+      RunWriter<Integer> out = new RunWriter<Integer>(new File(dir, "run" + i),
+          Codecs.INT, true, 256);
+      for (Integer x : run) {
+        out.write(x);
+      }
+      out.close();
+      runs.add(out.getIndex());
+    }
+    Collections.sort(all);
+
+    ParallelMergingIterator<Integer> it = ParallelMergingIterator.mergeRuns(
+        runs, Codecs.INT, comp, 4, true);
+    for (Integer i : all) {
+      assertTrue(it.hasNext());
+      assertEquals(i, it.next());
+    }
+    assertFalse(it.hasNext());
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    List<List<Integer>> runs = new ArrayList<List<Integer>>();
+    List<Integer> run = new ArrayList<Integer>();
+    for (int i = 0; i < 100000; ++i) {
+      run.add(i);
+    }
+    runs.add(run);
+    runs.add(run);
+    ParallelMergingIterator<Integer> it = new ParallelMergingIterator<Integer>(
+        runs, comp, 4, 1024);
+    assertEquals(Integer.valueOf(0), it.next());
+    it.close();
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testPartition() {
+    List<List<Integer>> runs = new ArrayList<List<Integer>>();
+    List<Integer> run = new ArrayList<Integer>();
+    for (int i = 0; i < 1000; ++i) {
+      run.add(i);
+    }
+    runs.add(run);
+    runs.add(run);
+    List<List<Iterable<Integer>>> ranges = ParallelMergingIterator.partition(
+        runs, comp, 4);
+    assertEquals(4, ranges.size());
+    int last = -1;
+    for (List<Iterable<Integer>> range : ranges) {
+      int max = last;
+      for (Iterable<Integer> sub : range) {
+        for (Integer i : sub) {
+          assertTrue(i > last);
+          max = Math.max(max, i);
+        }
+      }
+      last = max;
+    }
+    assertEquals(999, last);
+  }
+}
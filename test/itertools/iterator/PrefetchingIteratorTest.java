@@ -0,0 +1,123 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+import itertools.Pair;
+
+import java.io.Closeable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PrefetchingIteratorTest {
+
+  @Test
+  public void testPrefetching() {
+    List<Integer> data = new ArrayList<Integer>();
+    for (int i = 0; i < 10000; ++i) {
+      data.add(i);
+    }
+    assertEquals(data, Itertools.prefetch(data, 100).list());
+    assertEquals(data.subList(0, 3), Itertools.prefetch(data.subList(0, 3), 1)
+        .list());
+    assertFalse(new PrefetchingIterator<Integer>(new ArrayList<Integer>()
+        .iterator(), 10).hasNext());
+  }
+
+  @Test
+  public void testError() {
+    Iterator<Integer> failing = new Iterator<Integer>() {
+      int i = 0;
+
+      public boolean hasNext() {
+        return true;
+      }
+
+      public Integer next() {
+        if (i == 1000) throw new IllegalStateException("broken");
+        return i++;
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    PrefetchingIterator<Integer> it = new PrefetchingIterator<Integer>(
+        failing, 64);
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals(i, it.next().intValue());
+    }
+    try {
+      it.hasNext();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("broken", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testClose() {
+    PrefetchingIterator<Integer> it = new PrefetchingIterator<Integer>(
+        new CountingIterator(), 16);
+    assertEquals(0, it.next().intValue());
+    it.close();
+    assertFalse(it.hasNext());
+  }
+
+  /** Counts forever, recording when it is closed. */
+  static class ClosingCounter extends CountingIterator implements Closeable {
+    volatile boolean closed = false;
+
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Test
+  public void testClosedByShortestZip() throws Exception {
+    ClosingCounter source = new ClosingCounter();
+    IBuilder<Integer> prefetched = Itertools.prefetch(source, 16);
+    List<Pair<String, Integer>> pairs = Itertools.zipPairs(
+        Arrays.asList("a", "b"), prefetched).list();
+    assertEquals(2, pairs.size());
+    // the background thread closes the source on its way out
+    for (int i = 0; i < 100 && !source.closed; ++i) {
+      Thread.sleep(10);
+    }
+    assertTrue(source.closed);
+    assertFalse(prefetched.iterator().hasNext());
+  }
+
+  @Test
+  public void testCloseBuilder() throws Exception {
+    ClosingCounter source = new ClosingCounter();
+    IBuilder<Integer> prefetched = Itertools.prefetch(source, 16);
+    assertEquals(0, prefetched.iterator().next().intValue());
+    prefetched.close();
+    for (int i = 0; i < 100 && !source.closed; ++i) {
+      Thread.sleep(10);
+    }
+    assertTrue(source.closed);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PushbackIteratorTest {
+
+  @Test
+  public void testPushBack() {
+    PushbackIterator<Integer> it = new PushbackIterator<Integer>(Arrays
+        .asList(1, 2, 3).iterator());
+    assertEquals(1, it.next().intValue());
+    it.pushBack(1);
+    assertEquals(1, it.next().intValue());
+    assertEquals(2, it.next().intValue());
+    // more than the initial capacity
+    it.pushBack(2);
+    it.pushBack(1);
+    it.pushBack(0);
+    assertEquals(0, it.next().intValue());
+    assertEquals(1, it.next().intValue());
+    assertEquals(2, it.next().intValue());
+    assertEquals(3, it.next().intValue());
+    assertFalse(it.hasNext());
+    it.pushBack(3);
+    assertTrue(it.hasNext());
+    assertEquals(3, it.next().intValue());
+  }
+}
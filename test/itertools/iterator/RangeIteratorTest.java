@@ -0,0 +1,73 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RangeIteratorTest {
+
+  @Test
+  public void testRange() {
+    assertEquals(Arrays.asList(0L, 1L, 2L), Itertools.range(3).list());
+    assertEquals(Arrays.asList(2L, 5L, 8L), Itertools.range(2, 10, 3).list());
+    assertEquals(Arrays.asList(10L, 8L, 6L), Itertools.range(10, 5, -2).list());
+    assertTrue(Itertools.range(5, 5).list().isEmpty());
+    assertTrue(Itertools.range(5, 0).list().isEmpty());
+  }
+
+  @Test
+  public void testSizeAndSkip() {
+    RangeIterator it = new RangeIterator(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+    assertEquals(1L << 62, it.size());
+    assertEquals(Long.MIN_VALUE, it.nextLong());
+    assertEquals(1L << 61, it.skip(1L << 61));
+    assertEquals(Long.MIN_VALUE + (1L << 63) + 4, it.nextLong());
+    assertEquals((1L << 61) - 2, it.size());
+    assertEquals((1L << 61) - 2, it.skip(Long.MAX_VALUE));
+    assertFalse(it.hasNext());
+    assertEquals(0, it.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooLarge() {
+    new RangeIterator(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+  }
+
+  @Test
+  public void testSplit() {
+    RangeIterator it = new RangeIterator(0, 21, 2);
+    it.nextLong();
+    List<RangeIterator> parts = it.split(3);
+    assertEquals(3, parts.size());
+    assertEquals(Arrays.asList(2L, 4L, 6L, 8L), new IBuilder<Long>(
+        parts.get(0)).list());
+    assertEquals(Arrays.asList(10L, 12L, 14L), new IBuilder<Long>(
+        parts.get(1)).list());
+    assertEquals(Arrays.asList(16L, 18L, 20L), new IBuilder<Long>(
+        parts.get(2)).list());
+    // the split range itself is not advanced
+    assertEquals(10, it.size());
+    assertEquals(2, new RangeIterator(0, 2, 1).split(5).size());
+  }
+}
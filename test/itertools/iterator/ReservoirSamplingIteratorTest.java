@@ -0,0 +1,76 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ReservoirSamplingIteratorTest {
+  private Integer[] range(int n) {
+    Integer[] a = new Integer[n];
+    for (int i = 0; i < n; ++i) {
+      a[i] = i;
+    }
+    return a;
+  }
+
+  @Test
+  public void testSample() {
+    List<Integer> sample = new IBuilder<Integer>(range(100000)).sample(100,
+        new Random(1)).list();
+    assertEquals(100, sample.size());
+    assertEquals(100, new HashSet<Integer>(sample).size());
+
+    // fewer elements than k
+    assertEquals(5, new IBuilder<Integer>(range(5)).sample(10).list().size());
+    assertEquals(0, new IBuilder<Integer>(range(5)).sample(0).list().size());
+  }
+
+  @Test
+  public void testUniform() {
+    // each of 20 elements should be sampled about k/n = 1/4 of the time
+    int[] hits = new int[20];
+    Random random = new Random(2);
+    for (int trial = 0; trial < 4000; ++trial) {
+      for (Integer i : new IBuilder<Integer>(range(20)).sample(5, random)) {
+        ++hits[i];
+      }
+    }
+    for (int h : hits) {
+      assertEquals(1000, h, 120);
+    }
+  }
+
+  @Test
+  public void testSkipless() {
+    // a source without Skippable
+    Set<Integer> sample = new HashSet<Integer>(Itertools.sample(
+        Itertools.slice(Itertools.count(), 0, 1000, 1).iterator(), 10).list());
+    assertEquals(10, sample.size());
+    for (Integer i : sample) {
+      assertTrue(i >= 0 && i < 1000);
+    }
+  }
+}
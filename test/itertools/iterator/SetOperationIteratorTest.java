@@ -0,0 +1,92 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SetOperationIteratorTest {
+  Integer[] a = { 1, 3, 4, 7, 9 };
+  Integer[] b = { 2, 3, 5, 7, 8, 10 };
+  int comparisons;
+
+  Comparator<Integer> comp = new Comparator<Integer>() {
+    public int compare(Integer o1, Integer o2) {
+      ++comparisons;
+      return o1.compareTo(o2);
+    }
+  };
+
+  private List<Integer> run(Iterator<Integer> x, Iterator<Integer> y,
+      SetOperationIterator.Operation op) {
+    List<Integer> out = new ArrayList<Integer>();
+    SetOperationIterator<Integer> it = new SetOperationIterator<Integer>(x, y,
+        comp, op);
+    while (it.hasNext()) {
+      out.add(it.next());
+    }
+    return out;
+  }
+
+  private List<Integer> run(SetOperationIterator.Operation op) {
+    return run(Arrays.asList(a).iterator(), Arrays.asList(b).iterator(), op);
+  }
+
+  @Test
+  public void testUnion() {
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5, 7, 8, 9, 10),
+        run(SetOperationIterator.Operation.UNION));
+  }
+
+  @Test
+  public void testIntersection() {
+    assertEquals(Arrays.asList(3, 7),
+        run(SetOperationIterator.Operation.INTERSECTION));
+  }
+
+  @Test
+  public void testDifference() {
+    assertEquals(Arrays.asList(1, 4, 9),
+        run(SetOperationIterator.Operation.DIFFERENCE));
+  }
+
+  @Test
+  public void testSymmetricDifference() {
+    assertEquals(Arrays.asList(1, 2, 4, 5, 8, 9, 10),
+        run(SetOperationIterator.Operation.SYMMETRIC_DIFFERENCE));
+  }
+
+  @Test
+  public void testIntersectionGallops() {
+    List<Integer> big = new ArrayList<Integer>();
+    for (int i = 0; i < 1000000; ++i) {
+      big.add(i * 2);
+    }
+    List<Integer> small = Arrays.asList(10, 5001, 400000, 1999998);
+    comparisons = 0;
+    assertEquals(Arrays.asList(10, 400000, 1999998), run(small.iterator(),
+        new IndexedIterator<Integer>(big),
+        SetOperationIterator.Operation.INTERSECTION));
+    assertTrue(comparisons < 1000);
+  }
+}
@@ -17,8 +17,10 @@ package itertools.iterator;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -90,4 +92,38 @@ public class SlicingIteratorTest {
     }
     assertEquals(stop, i);
   }
+
+  @Test
+  public void testSkippable() {
+    // would take a long time one element at a time
+    SlicingIterator<Integer> it = new SlicingIterator<Integer>(
+        new CountingIterator(), 1000000000, -1, 1000);
+    assertEquals(1000000000, it.next().intValue());
+    assertEquals(1000001000, it.next().intValue());
+  }
+
+  @Test
+  public void testLazy() {
+    List<String> list = new ArrayList<String>(Arrays.asList(data));
+    SlicingIterator<String> it = new SlicingIterator<String>(list.iterator(),
+        2, 6, 3);
+    // nothing has been read yet, so the list can still be changed
+    list.set(2, "C");
+    assertEquals("C", it.next());
+    it.remove();
+    assertEquals("f", it.next());
+    assertFalse(it.hasNext());
+    assertEquals(6, list.size());
+  }
+
+  @Test
+  public void testLongBounds() {
+    long start = 3L * Integer.MAX_VALUE;
+    SlicingIterator<Long> it = new SlicingIterator<Long>(
+        new LongCountingIterator(), start, start + 2500000000L, 1000000000L);
+    assertEquals(start, it.next().longValue());
+    assertEquals(start + 1000000000L, it.next().longValue());
+    assertEquals(start + 2000000000L, it.next().longValue());
+    assertFalse(it.hasNext());
+  }
 }
@@ -0,0 +1,137 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.io.Codecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpillingGroupingIteratorTest {
+  List<String> data;
+  int[] groupSizes = { 3, 5000, 1, 20 };
+
+  @Before
+  public void setUp() throws Exception {
+    data = new ArrayList<String>();
+    for (int g = 0; g < groupSizes.length; ++g) {
+      for (int i = 0; i < groupSizes[g]; ++i) {
+        data.add((char) ('a' + g) + "" + i);
+      }
+    }
+  }
+
+  @Test
+  public void testSpillingGroupingIterator() {
+    SpillingGroupingIterator<String> g = new SpillingGroupingIterator<String>(
+        data.iterator(), Codecs.STRING, 1000) {
+      @Override
+      public boolean group(String e1, String e2) {
+        return e1.charAt(0) == e2.charAt(0);
+      }
+    };
+
+    for (int group = 0; group < groupSizes.length; ++group) {
+      assertTrue(g.hasNext());
+      List<String> l = g.next();
+      assertEquals(groupSizes[group], l.size());
+      // iterate twice
+      for (int pass = 0; pass < 2; ++pass) {
+        int i = 0;
+        for (String s : l) {
+          assertEquals((char) ('a' + group) + "" + i, s);
+          ++i;
+        }
+        assertEquals(groupSizes[group], i);
+      }
+      // random access, in both directions
+      for (int i = l.size() - 1; i >= 0; i -= 7) {
+        assertEquals((char) ('a' + group) + "" + i, l.get(i));
+      }
+      for (int i = 0; i < l.size(); ++i) {
+        assertEquals((char) ('a' + group) + "" + i, l.get(i));
+      }
+    }
+    assertFalse(g.hasNext());
+  }
+
+  @Test
+  public void testLargeGroupIsNotSplit() {
+    Iterator<List<String>> g = new SpillingGroupingIterator<String>(data
+        .iterator(), Codecs.STRING, 0) {
+      @Override
+      public boolean group(String e1, String e2) {
+        return true;
+      }
+    };
+    assertEquals(data, new ArrayList<String>(g.next()));
+    assertFalse(g.hasNext());
+  }
+
+  private File tempDir() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    return dir;
+  }
+
+  @Test
+  public void testLastGroupIsDeleted() throws IOException {
+    File dir = tempDir();
+    SpillingGroupingIterator<String> g = new SpillingGroupingIterator<String>(
+        data.iterator(), Codecs.STRING, 0, dir) {
+      @Override
+      public boolean group(String e1, String e2) {
+        return true;
+      }
+    };
+    List<String> l = g.next();
+    // leave an iterator open part way through
+    Iterator<String> it = l.iterator();
+    it.next();
+    it.next();
+    assertEquals(1, dir.listFiles().length);
+    assertFalse(g.hasNext());
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    File dir = tempDir();
+    SpillingGroupingIterator<String> g = new SpillingGroupingIterator<String>(
+        data.iterator(), Codecs.STRING, 0, dir) {
+      @Override
+      public boolean group(String e1, String e2) {
+        return e1.charAt(0) == e2.charAt(0);
+      }
+    };
+    g.next();
+    g.next();
+    assertEquals(1, dir.listFiles().length);
+    g.close();
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
+}
@@ -0,0 +1,140 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Itertools;
+import itertools.io.Codecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TeeTest {
+
+  private static List<Integer> range(int n) {
+    List<Integer> l = new ArrayList<Integer>(n);
+    for (int i = 0; i < n; ++i) {
+      l.add(i);
+    }
+    return l;
+  }
+
+  @Test
+  public void testTee() {
+    List<IBuilder<String>> tees = Itertools.tee(
+        Arrays.asList("a", "b", "c"), 2);
+    assertEquals(2, tees.size());
+    Iterator<String> a = tees.get(0).iterator();
+    Iterator<String> b = tees.get(1).iterator();
+    assertEquals("a", a.next());
+    assertEquals("b", a.next());
+    assertEquals("a", b.next());
+    assertEquals("c", a.next());
+    assertFalse(a.hasNext());
+    assertEquals("b", b.next());
+    assertEquals("c", b.next());
+    assertFalse(b.hasNext());
+  }
+
+  @Test
+  public void testManySegments() {
+    List<Integer> data = range(3 * Tee.SEGMENT_SIZE + 17);
+    List<? extends Iterator<Integer>> tees = new Tee<Integer>(data
+        .iterator(), 3).iterators();
+    for (int i = 0; i < data.size(); ++i) {
+      assertEquals(data.get(i), tees.get(0).next());
+      if (i % 2 == 0) assertEquals(data.get(i / 2), tees.get(1).next());
+    }
+    assertFalse(tees.get(0).hasNext());
+    int half = (data.size() + 1) / 2;
+    assertEquals(data.subList(half, data.size()), new IBuilder<Integer>(tees
+        .get(1)).list());
+    assertEquals(data, new IBuilder<Integer>(tees.get(2)).list());
+  }
+
+  @Test
+  public void testSpill() {
+    List<Integer> data = range(5 * Tee.SEGMENT_SIZE + 3);
+    List<IBuilder<Integer>> tees = Itertools.tee(data.iterator(), 3, 100,
+        Codecs.INT);
+    assertEquals(data, tees.get(0).list());
+    // the second reads while the third still holds the first segment
+    Iterator<Integer> second = tees.get(1).iterator();
+    for (int i = 0; i < 2 * Tee.SEGMENT_SIZE; ++i) {
+      assertEquals(data.get(i), second.next());
+    }
+    assertEquals(data, tees.get(2).list());
+    assertEquals(data.subList(2 * Tee.SEGMENT_SIZE, data.size()), new IBuilder<Integer>(
+        second).list());
+  }
+
+  @Test
+  public void testSpillFile() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    List<Integer> data = range(5 * Tee.SEGMENT_SIZE + 3);
+    Tee<Integer> tee = new Tee<Integer>(data.iterator(), 2, 100, Codecs.INT,
+        dir);
+    List<? extends Iterator<Integer>> tees = tee.iterators();
+    assertEquals(data, new IBuilder<Integer>(tees.get(0)).list());
+    // every spilled segment went to the same file
+    assertEquals(1, dir.listFiles().length);
+    assertEquals(data, new IBuilder<Integer>(tees.get(1)).list());
+    assertEquals(0, dir.listFiles().length);
+
+    // closing deletes a file that is not read back
+    tee = new Tee<Integer>(data.iterator(), 2, 100, Codecs.INT, dir);
+    assertEquals(data, new IBuilder<Integer>(tee.iterators().get(0)).list());
+    assertEquals(1, dir.listFiles().length);
+    tee.close();
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
+
+  @Test
+  public void testBlocking() throws Exception {
+    final List<Integer> data = range(2 * Tee.SEGMENT_SIZE + 5);
+    final List<IBuilder<Integer>> tees = Itertools.tee(data.iterator(), 2, 10);
+    final List<Integer> other = new ArrayList<Integer>();
+    Thread t = new Thread() {
+      public void run() {
+        for (Integer i : tees.get(1)) {
+          other.add(i);
+        }
+      }
+    };
+    t.start();
+    assertEquals(data, tees.get(0).list());
+    t.join();
+    assertEquals(data, other);
+  }
+
+  @Test
+  public void testEmpty() {
+    List<IBuilder<Integer>> tees = Itertools.tee(new ArrayList<Integer>(), 2);
+    assertFalse(tees.get(0).iterator().hasNext());
+    assertFalse(tees.get(1).iterator().hasNext());
+  }
+}
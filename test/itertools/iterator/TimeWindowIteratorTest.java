@@ -0,0 +1,70 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.Itertools;
+import itertools.Pair;
+import itertools.aggregate.Aggregators;
+import itertools.functions.LongMapper;
+import itertools.functions.Mapper;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimeWindowIteratorTest {
+  LongMapper<Long> time = new LongMapper<Long>() {
+    public long map(Long input) {
+      return input;
+    }
+  };
+
+  List<Long> times = Arrays.asList(1L, 2L, 5L, 6L, 7L, 21L, 22L);
+
+  @Test
+  public void testTumbling() {
+    List<Pair<Long, Long>> w = Itertools.window(times.iterator(), time, 5, 5,
+        Aggregators.<Long> count()).list();
+    // windows without elements are skipped
+    assertEquals(Arrays.asList(new Pair<Long, Long>(0L, 2L),
+        new Pair<Long, Long>(5L, 3L), new Pair<Long, Long>(20L, 2L)), w);
+  }
+
+  @Test
+  public void testSliding() {
+    List<Pair<Long, Double>> w = Itertools.window(times.iterator(), time, 10,
+        5, Aggregators.<Long> avg(new Mapper<Long, Long>() {
+          public Long map(Long input) {
+            return input;
+          }
+        })).list();
+    assertEquals(5, w.size());
+    assertEquals(new Pair<Long, Double>(-5L, 1.5), w.get(0));
+    assertEquals(new Pair<Long, Double>(0L, 21 / 5.0), w.get(1));
+    assertEquals(new Pair<Long, Double>(5L, 6.0), w.get(2));
+    assertEquals(new Pair<Long, Double>(15L, 21.5), w.get(3));
+    assertEquals(new Pair<Long, Double>(20L, 21.5), w.get(4));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnordered() {
+    Itertools.window(Arrays.asList(5L, 1L).iterator(), time, 10, 10,
+        Aggregators.<Long> count()).list();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.iterator;
+
+import static org.junit.Assert.*;
+
+import itertools.IBuilder;
+import itertools.Pair;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class UniqIteratorTest {
+  List<String> data = Arrays.asList("a", "a", "a", "b", "c", "c", null, null,
+      "a");
+
+  @Test
+  public void testUniq() {
+    UniqIterator<String> it = new UniqIterator<String>(data.iterator());
+    String[] expected = { "a", "b", "c", null, "a" };
+    long[] counts = { 3, 1, 2, 2, 1 };
+    for (int i = 0; i < expected.length; ++i) {
+      assertTrue(it.hasNext());
+      assertEquals(expected[i], it.next());
+      assertEquals(counts[i], it.count());
+    }
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testComparator() {
+    Comparator<String> ignoreCase = String.CASE_INSENSITIVE_ORDER;
+    UniqIterator<String> it = new UniqIterator<String>(Arrays.asList("a",
+        "A", "b", "B", "b").iterator(), ignoreCase);
+    assertEquals("a", it.next());
+    assertEquals(2, it.count());
+    assertEquals("b", it.next());
+    assertEquals(3, it.count());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testUniqCount() {
+    assertEquals(Arrays.asList("a", "b", "c", null, "a"), new IBuilder<String>(
+        data).uniq().list());
+    List<Pair<String, Long>> counts = new IBuilder<String>(data).uniqCount()
+        .list();
+    assertEquals(new Pair<String, Long>("a", 3L), counts.get(0));
+    assertEquals(new Pair<String, Long>(null, 2L), counts.get(3));
+    assertEquals(5, counts.size());
+  }
+}
@@ -61,4 +61,25 @@ public class ZippingIteratorTest {
       }
     }
   }
+
+  @Test
+  public void testShortestAndFill() {
+    Iterator<List<String>> it = new ZippingIterator<String>(iters.iterator(),
+        false, "-");
+    for (int col = 0; col < 3; ++col) {
+      assertEquals(Arrays.asList(data[0][col], data[1][col], data[2][col]), it
+          .next());
+    }
+    assertFalse(it.hasNext());
+
+    it = new ZippingIterator<String>(iters.iterator(), true, "-");
+    List<String> first = null;
+    for (int col = 0; col < 3; ++col) {
+      first = it.next();
+    }
+    assertEquals(Arrays.asList("-", "-", "z"), it.next());
+    // rows are views of the same storage
+    assertEquals(Arrays.asList("-", "-", "z"), first);
+    assertFalse(it.hasNext());
+  }
 }
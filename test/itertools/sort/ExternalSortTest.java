@@ -0,0 +1,161 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.sort;
+
+import static org.junit.Assert.*;
+
+import itertools.functions.Normalizers;
+import itertools.io.Codecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExternalSortTest {
+  List<String> data;
+
+  @Before
+  public void setUp() throws Exception {
+    Random r = new Random(11);
+    data = new ArrayList<String>();
+    for (int i = 0; i < 10000; ++i) {
+      data.add("key" + r.nextInt(5000));
+    }
+  }
+
+  private void check(ExternalSort<String> sort) throws IOException {
+    List<String> expected = new ArrayList<String>(data);
+    Collections.sort(expected);
+    Iterator<String> it = sort.sort(data.iterator());
+    for (String s : expected) {
+      assertTrue(it.hasNext());
+      assertEquals(s, it.next());
+    }
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testComparator() throws IOException {
+    ExternalSort<String> sort = new ExternalSort<String>(
+        String.CASE_INSENSITIVE_ORDER, Codecs.STRING);
+    sort.setBufferSize(999);
+    check(sort);
+  }
+
+  @Test
+  public void testNormalizer() throws IOException {
+    ExternalSort<String> sort = new ExternalSort<String>(Normalizers.STRING,
+        Codecs.STRING);
+    sort.setBufferSize(999);
+    sort.setCompress(false);
+    check(sort);
+  }
+
+  @Test
+  public void testInMemory() throws IOException {
+    check(new ExternalSort<String>(Normalizers.STRING, Codecs.STRING));
+  }
+
+  @Test
+  public void testRunGeneration() throws IOException {
+    for (ExternalSort.RunGeneration g : ExternalSort.RunGeneration.values()) {
+      ExternalSort<String> sort = new ExternalSort<String>(Normalizers.STRING,
+          Codecs.STRING);
+      sort.setRunGeneration(g);
+      sort.setBufferSize(500);
+      check(sort);
+      sort = new ExternalSort<String>(String.CASE_INSENSITIVE_ORDER,
+          Codecs.STRING);
+      sort.setRunGeneration(g);
+      sort.setBufferSize(500);
+      check(sort);
+    }
+  }
+
+  @Test
+  public void testParallelMerge() throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    ExternalSort<String> sort = new ExternalSort<String>(Normalizers.STRING,
+        Codecs.STRING);
+    sort.setBufferSize(500);
+    sort.setParallelism(3);
+    sort.setTempDirectory(dir);
+    check(sort);
+    // the run files are deleted once every range is read
+    assertEquals(0, dir.listFiles().length);
+    sort = new ExternalSort<String>(String.CASE_INSENSITIVE_ORDER,
+        Codecs.STRING);
+    sort.setRunGeneration(ExternalSort.RunGeneration.LOAD_SORT);
+    sort.setBufferSize(500);
+    sort.setParallelism(4);
+    sort.setTempDirectory(dir);
+    check(sort);
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+  }
+
+  private int countRuns(ExternalSort.RunGeneration g, List<String> input)
+      throws IOException {
+    File dir = File.createTempFile(getClass().getName(), "");
+    dir.delete();
+    dir.mkdir();
+    ExternalSort<String> sort = new ExternalSort<String>(Normalizers.STRING,
+        Codecs.STRING);
+    sort.setRunGeneration(g);
+    sort.setBufferSize(100);
+    sort.setTempDirectory(dir);
+    Iterator<String> it = sort.sort(input.iterator());
+    int runs = dir.listFiles().length;
+    while (it.hasNext()) {
+      it.next();
+    }
+    assertEquals(0, dir.listFiles().length);
+    dir.delete();
+    return runs;
+  }
+
+  @Test
+  public void testSortedInputMakesOneRun() throws IOException {
+    Collections.sort(data);
+    for (ExternalSort.RunGeneration g : ExternalSort.RunGeneration.values()) {
+      assertEquals(1, countRuns(g, data));
+    }
+    // sorted collections don't need any runs
+    ExternalSort<String> sort = new ExternalSort<String>(Normalizers.STRING,
+        Codecs.STRING);
+    sort.setBufferSize(100);
+    sort.setTempDirectory(new File("/nonexistent"));
+    assertEquals(data.get(0), sort.sort(data).next());
+  }
+
+  @Test
+  public void testReplacementSelectionMakesLongerRuns() throws IOException {
+    int loadSort = countRuns(ExternalSort.RunGeneration.LOAD_SORT, data);
+    int replacement = countRuns(
+        ExternalSort.RunGeneration.REPLACEMENT_SELECTION, data);
+    assertEquals(100, loadSort);
+    assertTrue(replacement < 0.6 * loadSort);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+   Copyright 2010 Jonathan L. Elsas
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package itertools.sort;
+
+import static org.junit.Assert.*;
+
+import itertools.functions.Normalizers;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RadixSortTest {
+
+  private String[] randomStrings(int n) {
+    Random r = new Random(3);
+    String[] s = new String[n];
+    for (int i = 0; i < n; ++i) {
+      StringBuilder sb = new StringBuilder("prefix");
+      for (int j = r.nextInt(6); j > 0; --j) {
+        // include chars that need both key bytes, and \0
+        sb.append("ab\u0000\u00e9\u4e2d".charAt(r.nextInt(5)));
+      }
+      s[i] = sb.toString();
+    }
+    return s;
+  }
+
+  @Test
+  public void testSortStrings() {
+    String[] items = randomStrings(5000);
+    byte[][] keys = new byte[items.length][];
+    for (int i = 0; i < items.length; ++i) {
+      keys[i] = Normalizers.STRING.normalize(items[i]);
+    }
+    String[] expected = items.clone();
+    Arrays.sort(expected);
+
+    RadixSort.sort(items, keys, 0, items.length);
+    assertArrayEquals(expected, items);
+    for (int i = 0; i < items.length; ++i) {
+      assertArrayEquals(Normalizers.STRING.normalize(items[i]), keys[i]);
+    }
+  }
+
+  @Test
+  public void testSortRange() {
+    Integer[] items = { 9, 5, -3, 7, 0, -100, 2 };
+    byte[][] keys = new byte[items.length][];
+    for (int i = 0; i < items.length; ++i) {
+      keys[i] = Normalizers.INT.normalize(items[i]);
+    }
+    RadixSort.sort(items, keys, 1, 6);
+    assertArrayEquals(new Integer[] { 9, -100, -3, 0, 5, 7, 2 }, items);
+  }
+
+  @Test
+  public void testTerminatedStringComposite() {
+    String[][] rows = { { "a", "b" }, { "a\u0000", "a" }, { "", "z" },
+        { "a", "a" } };
+    byte[][] keys = new byte[rows.length][];
+    for (int i = 0; i < rows.length; ++i) {
+      keys[i] = Normalizers.concat(Normalizers.TERMINATED_STRING
+          .normalize(rows[i][0]), Normalizers.STRING.normalize(rows[i][1]));
+    }
+    RadixSort.sort(rows, keys, 0, rows.length);
+    assertArrayEquals(new String[][] { { "", "z" }, { "a", "a" },
+        { "a", "b" }, { "a\u0000", "a" } }, rows);
+  }
+}